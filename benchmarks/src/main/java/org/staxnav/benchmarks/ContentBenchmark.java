@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.staxnav.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.staxnav.Axis;
+import org.staxnav.Naming;
+import org.staxnav.StaxNavigator;
+import org.staxnav.StaxNavigatorFactory;
+import org.staxnav.StaxNavigatorOptions;
+import org.staxnav.ValueType;
+
+import java.io.StringReader;
+
+/**
+ * Measures the parsing of the numeric fields of the records. The <code>boxed</code> benchmark parses the content
+ * strings to boxed values, the <code>primitive</code> benchmark parses the contents in place to primitive values.
+ * With content skipping the primitive values are parsed from a buffer shared by the elements, no string is created.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+public class ContentBenchmark
+{
+
+   @Param({"false", "true"})
+   public boolean skipContent;
+
+   /** . */
+   private String document;
+
+   /** . */
+   private StaxNavigatorOptions options;
+
+   @Setup
+   public void setUp()
+   {
+      this.document = Documents.records(1000, 0);
+      this.options = new StaxNavigatorOptions().setSkipContent(skipContent);
+   }
+
+   @Benchmark
+   public void boxed(Blackhole blackhole)
+   {
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document), options);
+      while (nav.navigate(Axis.FOLLOWING, "id"))
+      {
+         blackhole.consume(nav.parseContent(ValueType.INTEGER));
+         nav.sibling("price");
+         blackhole.consume(Double.valueOf(nav.getContent().trim()));
+         nav.sibling("quantity");
+         blackhole.consume(nav.parseContent(ValueType.INTEGER));
+      }
+   }
+
+   @Benchmark
+   public void primitive(Blackhole blackhole)
+   {
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document), options);
+      while (nav.navigate(Axis.FOLLOWING, "id"))
+      {
+         blackhole.consume(nav.parseIntContent());
+         nav.sibling("price");
+         blackhole.consume(nav.parseDoubleContent());
+         nav.sibling("quantity");
+         blackhole.consume(nav.parseIntContent());
+      }
+   }
+}
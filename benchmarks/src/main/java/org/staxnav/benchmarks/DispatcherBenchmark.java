@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.staxnav.Dispatcher;
+import org.staxnav.Naming;
+import org.staxnav.Parser;
+import org.staxnav.PathExpression;
+import org.staxnav.StaxNavigator;
+import org.staxnav.StaxNavigatorFactory;
+import org.staxnav.StaxNavigatorOptions;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the extraction of several unrelated sections of a document by one pass per section with the extraction
+ * by a single dispatched pass. Both navigators skip the subtrees where no section can be found.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DispatcherBenchmark
+{
+
+   /** The extracted sections. */
+   private static final String[] PATHS = {
+      "/records/record/name",
+      "/records/record/price",
+      "/records/record[@active='true']/status",
+      "record/payload/item[@index='3']",
+      "//category"
+   };
+
+   @Param({"10000"})
+   public int records;
+
+   /** . */
+   private byte[] document;
+
+   /** . */
+   private Naming<String> naming;
+
+   /** . */
+   private StaxNavigatorOptions options;
+
+   /** . */
+   private PathExpression<String>[] paths;
+
+   @Setup
+   @SuppressWarnings("unchecked")
+   public void setUp()
+   {
+      document = Documents.records(records, 4).getBytes(Charset.forName("UTF-8"));
+      naming = new Naming.Local();
+      options = new StaxNavigatorOptions().setSkipSubtrees(true);
+      paths = new PathExpression[PATHS.length];
+      for (int i = 0;i < PATHS.length;i++)
+      {
+         paths[i] = PathExpression.compile(naming, PATHS[i]);
+      }
+   }
+
+   @Benchmark
+   public void passes(Blackhole blackhole)
+   {
+      for (PathExpression<String> path : paths)
+      {
+         StaxNavigator<String> nav = StaxNavigatorFactory.create(naming, new ByteArrayInputStream(document), options);
+         for (StaxNavigator<String> fork : nav.fork(path))
+         {
+            blackhole.consume(fork.getContent());
+         }
+      }
+   }
+
+   @Benchmark
+   public void dispatch(final Blackhole blackhole)
+   {
+      Parser<String> parser = new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            blackhole.consume(navigator.getContent());
+         }
+      };
+      Dispatcher<String> dispatcher = new Dispatcher<String>(naming);
+      for (PathExpression<String> path : paths)
+      {
+         dispatcher.register(path, parser);
+      }
+      StaxNavigatorFactory.create(naming, new ByteArrayInputStream(document), options).dispatch(dispatcher);
+   }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.staxnav.benchmarks;
+
+/**
+ * Generates the documents used by the benchmarks.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class Documents
+{
+
+   /** The record fields, in document order. */
+   public static final Field[] FIELDS = {
+      Field.ID, Field.NAME, Field.DESCRIPTION, Field.CATEGORY, Field.PRICE,
+      Field.QUANTITY, Field.CREATED, Field.UPDATED, Field.STATUS
+   };
+
+   /**
+    * Returns a document made of records, each record has the {@link #FIELDS} children followed by a payload
+    * element containing the specified number of items.
+    *
+    * @param records the number of records
+    * @param items the number of payload items per record
+    * @return the document
+    */
+   public static String records(int records, int items)
+   {
+      StringBuilder sb = new StringBuilder("<records>");
+      for (int i = 0;i < records;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\" version=\"1\" active=\"true\">");
+         sb.append("<id>").append(i).append("</id>");
+         sb.append("<name>name ").append(i).append("</name>");
+         sb.append("<description>the description of the record ").append(i).append("</description>");
+         sb.append("<category>category ").append(i % 10).append("</category>");
+         sb.append("<price>").append(i % 1000).append(".99</price>");
+         sb.append("<quantity>").append(i % 100).append("</quantity>");
+         sb.append("<created>2011-01-01T10:00:00Z</created>");
+         sb.append("<updated>2011-06-01T10:00:00Z</updated>");
+         sb.append("<status>active</status>");
+         sb.append("<payload>");
+         for (int j = 0;j < items;j++)
+         {
+            sb.append("<item index=\"").append(j).append("\">item ").append(j).append("</item>");
+         }
+         sb.append("</payload>");
+         sb.append("</record>");
+      }
+      return sb.append("</records>").toString();
+   }
+}
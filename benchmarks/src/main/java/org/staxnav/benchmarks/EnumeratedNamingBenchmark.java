@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.staxnav.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.staxnav.Naming;
+
+import java.util.Random;
+
+/**
+ * Compares the enumerated naming lookups with the linear scan over the enum constants they used to perform.
+ * Each benchmark invocation resolves the same sequence of local names drawn from the {@link Vocabulary}, one
+ * out of ten name is unknown.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+public class EnumeratedNamingBenchmark
+{
+
+   /** . */
+   private static final int SIZE = 1024;
+
+   /** . */
+   private Naming<Vocabulary> mapped;
+
+   /** . */
+   private Naming<Vocabulary> simple;
+
+   /** . */
+   private Vocabulary[] all;
+
+   /** The local names of the mapped naming. */
+   private String[] mappedNames;
+
+   /** The local names of the simple naming. */
+   private String[] simpleNames;
+
+   @Setup
+   public void setUp()
+   {
+      Vocabulary[] all = Vocabulary.values();
+      String[] mappedNames = new String[SIZE];
+      String[] simpleNames = new String[SIZE];
+      Random random = new Random(0);
+      for (int i = 0;i < SIZE;i++)
+      {
+         if (i % 10 == 9)
+         {
+            mappedNames[i] = "unknownName";
+            simpleNames[i] = "unknown-name";
+         }
+         else
+         {
+            Vocabulary name = all[random.nextInt(all.length - 1)];
+            mappedNames[i] = new String(name.getLocalName());
+            simpleNames[i] = name.name().toLowerCase().replace('_', '-');
+         }
+      }
+
+      //
+      this.mapped = new Naming.Enumerated.Mapped<Vocabulary>(Vocabulary.class, Vocabulary.NO_SUCH_ELEMENT);
+      this.simple = new Naming.Enumerated.Simple<Vocabulary>(Vocabulary.class, Vocabulary.NO_SUCH_ELEMENT);
+      this.all = all;
+      this.mappedNames = mappedNames;
+      this.simpleNames = simpleNames;
+   }
+
+   @Benchmark
+   public void scan(Blackhole blackhole)
+   {
+      for (String localPart : mappedNames)
+      {
+         Vocabulary found = Vocabulary.NO_SUCH_ELEMENT;
+         for (Vocabulary e : all)
+         {
+            if (localPart.equals(e.getLocalName()))
+            {
+               found = e;
+               break;
+            }
+         }
+         blackhole.consume(found);
+      }
+   }
+
+   @Benchmark
+   public void mapped(Blackhole blackhole)
+   {
+      for (String localPart : mappedNames)
+      {
+         blackhole.consume(mapped.getName(null, null, localPart));
+      }
+   }
+
+   @Benchmark
+   public void simple(Blackhole blackhole)
+   {
+      for (String localPart : simpleNames)
+      {
+         blackhole.consume(simple.getName(null, null, localPart));
+      }
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.staxnav.benchmarks;
+
+import org.staxnav.EnumElement;
+
+/**
+ * The element names of the documents generated by {@link Documents}.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public enum Field implements EnumElement<Field>
+{
+
+   RECORDS("records"),
+
+   RECORD("record"),
+
+   ID("id"),
+
+   NAME("name"),
+
+   DESCRIPTION("description"),
+
+   CATEGORY("category"),
+
+   PRICE("price"),
+
+   QUANTITY("quantity"),
+
+   CREATED("created"),
+
+   UPDATED("updated"),
+
+   STATUS("status"),
+
+   PAYLOAD("payload"),
+
+   ITEM("item"),
+
+   NO_SUCH_ELEMENT(null);
+
+   /** . */
+   private final String localName;
+
+   Field(String localName)
+   {
+      this.localName = localName;
+   }
+
+   public String getLocalName()
+   {
+      return localName;
+   }
+}
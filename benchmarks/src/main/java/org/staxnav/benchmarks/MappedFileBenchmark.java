@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.staxnav.Naming;
+import org.staxnav.StaxNavigator;
+import org.staxnav.StaxNavigatorFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of a navigator parsing a file mapped in memory with a navigator parsing a buffered file
+ * input stream. Each invocation navigates the records of the file, the score is the time to parse the whole file.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MappedFileBenchmark
+{
+
+   @Param({"100000"})
+   public int records;
+
+   /** . */
+   private Path file;
+
+   /** . */
+   private Naming<String> naming;
+
+   @Setup
+   public void setUp() throws IOException
+   {
+      file = Files.createTempFile("staxnav", ".xml");
+      OutputStream out = Files.newOutputStream(file);
+      try
+      {
+         // Write the document by chunks to not hold it entirely
+         for (int i = 0;i < records;i += 1000)
+         {
+            String chunk = Documents.records(Math.min(1000, records - i), 4);
+            int from = i == 0 ? 0 : "<records>".length();
+            int to = i + 1000 >= records ? chunk.length() : chunk.length() - "</records>".length();
+            out.write(chunk.substring(from, to).getBytes(Charset.forName("UTF-8")));
+         }
+      }
+      finally
+      {
+         out.close();
+      }
+      naming = new Naming.Local();
+   }
+
+   @TearDown
+   public void tearDown() throws IOException
+   {
+      Files.delete(file);
+   }
+
+   private void navigate(StaxNavigator<String> nav, Blackhole blackhole)
+   {
+      nav.child();
+      do
+      {
+         blackhole.consume(nav.getAttribute("id"));
+      }
+      while (nav.sibling() != null);
+   }
+
+   @Benchmark
+   public void mapped(Blackhole blackhole)
+   {
+      navigate(StaxNavigatorFactory.create(naming, file), blackhole);
+   }
+
+   @Benchmark
+   public void stream(Blackhole blackhole) throws IOException
+   {
+      InputStream in = new BufferedInputStream(Files.newInputStream(file));
+      try
+      {
+         navigate(StaxNavigatorFactory.create(naming, in), blackhole);
+      }
+      finally
+      {
+         in.close();
+      }
+   }
+}
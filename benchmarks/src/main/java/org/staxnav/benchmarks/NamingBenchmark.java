@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.staxnav.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.staxnav.Naming;
+import org.staxnav.StaxNavigator;
+import org.staxnav.StaxNavigatorFactory;
+
+import javax.xml.namespace.QName;
+import java.io.StringReader;
+
+/**
+ * Measures the cost of the name resolution performed by a naming during navigation. Both benchmarks perform the same
+ * lookups that compare the same elements several times. The <code>navigate</code> benchmark looks up the elements
+ * by name, the resolved name of an element is cached by the navigator. The <code>navigateUncached</code> benchmark
+ * scans the same elements and resolves the name of each compared element with the naming, as the navigation did
+ * before the cache.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+public class NamingBenchmark
+{
+
+   @Param({"qualified", "simple", "mapped"})
+   public String naming;
+
+   /** . */
+   private String document;
+
+   /** . */
+   private Naming<Object> impl;
+
+   /** . */
+   private Object[] fields;
+
+   @Setup
+   @SuppressWarnings("unchecked")
+   public void setUp()
+   {
+      Naming<?> impl;
+      if ("qualified".equals(naming))
+      {
+         impl = new Naming.Qualified();
+      }
+      else if ("simple".equals(naming))
+      {
+         impl = new Naming.Enumerated.Simple<Field>(Field.class, Field.NO_SUCH_ELEMENT);
+      }
+      else
+      {
+         impl = new Naming.Enumerated.Mapped<Field>(Field.class, Field.NO_SUCH_ELEMENT);
+      }
+
+      //
+      Object[] fields = new Object[Documents.FIELDS.length];
+      for (int i = 0;i < fields.length;i++)
+      {
+         fields[i] = impl.getName(new QName(Documents.FIELDS[i].getLocalName()));
+      }
+
+      //
+      this.document = Documents.records(1000, 0);
+      this.impl = (Naming<Object>)impl;
+      this.fields = fields;
+   }
+
+   @Benchmark
+   public void navigate(Blackhole blackhole)
+   {
+      StaxNavigator<Object> nav = StaxNavigatorFactory.create(impl, new StringReader(document));
+      nav.child();
+      for (StaxNavigator<Object> record : nav.fork(nav.getName()))
+      {
+         // Each lookup starts from the record and compares the fields that precede the looked up one
+         for (int i = fields.length - 1;i >= 0;i--)
+         {
+            StaxNavigator<Object> fork = record.fork();
+            blackhole.consume(fork.child(fields[i]));
+         }
+      }
+   }
+
+   @Benchmark
+   public void navigateUncached(Blackhole blackhole)
+   {
+      StaxNavigator<Object> nav = StaxNavigatorFactory.create(impl, new StringReader(document));
+      nav.child();
+      for (StaxNavigator<Object> record : nav.fork(nav.getName()))
+      {
+         // The same lookups resolving the name of each compared field
+         for (int i = fields.length - 1;i >= 0;i--)
+         {
+            StaxNavigator<Object> fork = record.fork();
+            boolean found = false;
+            for (Object name = fork.child();name != null && !found;name = fork.sibling())
+            {
+               found = fields[i].equals(impl.getName(fork.getQName()));
+            }
+            blackhole.consume(found);
+         }
+      }
+   }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.staxnav.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.staxnav.Axis;
+import org.staxnav.Naming;
+import org.staxnav.StaxNavigator;
+import org.staxnav.StaxNavigatorFactory;
+import org.staxnav.ValueType;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.StringReader;
+
+/**
+ * Measures the parsing of the date time fields of the records. The <code>datatypeConverter</code> benchmark parses
+ * them with the {@link DatatypeConverter} that the date value types used to delegate to, the <code>date</code>
+ * benchmark with the {@link ValueType#DATE_TIME} value type and the <code>offsetDateTime</code> benchmark with the
+ * {@link ValueType#OFFSET_DATE_TIME} value type.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+public class ValueTypeBenchmark
+{
+
+   /** . */
+   private String document;
+
+   @Setup
+   public void setUp()
+   {
+      this.document = Documents.records(1000, 0);
+   }
+
+   @Benchmark
+   public void datatypeConverter(Blackhole blackhole)
+   {
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document));
+      while (nav.navigate(Axis.FOLLOWING, "created"))
+      {
+         blackhole.consume(DatatypeConverter.parseDateTime(nav.getContent()).getTime());
+         nav.sibling("updated");
+         blackhole.consume(DatatypeConverter.parseDateTime(nav.getContent()).getTime());
+      }
+   }
+
+   @Benchmark
+   public void date(Blackhole blackhole)
+   {
+      parse(ValueType.DATE_TIME, blackhole);
+   }
+
+   @Benchmark
+   public void offsetDateTime(Blackhole blackhole)
+   {
+      parse(ValueType.OFFSET_DATE_TIME, blackhole);
+   }
+
+   private void parse(ValueType<?> valueType, Blackhole blackhole)
+   {
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document));
+      while (nav.navigate(Axis.FOLLOWING, "created"))
+      {
+         blackhole.consume(nav.parseContent(valueType));
+         nav.sibling("updated");
+         blackhole.consume(nav.parseContent(valueType));
+      }
+   }
+}
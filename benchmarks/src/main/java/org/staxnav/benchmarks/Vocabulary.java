@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav.benchmarks;
+
+import org.staxnav.EnumElement;
+
+/**
+ * A vocabulary of 168 element names used by the enumerated naming benchmark, the constant names are mapped
+ * to camel case local names.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public enum Vocabulary implements EnumElement<Vocabulary>
+{
+
+   ORDER_ID("orderId"),
+
+   ORDER_NAME("orderName"),
+
+   ORDER_TYPE("orderType"),
+
+   ORDER_STATUS("orderStatus"),
+
+   ORDER_DATE("orderDate"),
+
+   ORDER_AMOUNT("orderAmount"),
+
+   ORDER_CODE("orderCode"),
+
+   ORDER_LINE("orderLine"),
+
+   ORDER_REF("orderRef"),
+
+   ORDER_NOTE("orderNote"),
+
+   ORDER_GROUP("orderGroup"),
+
+   ORDER_COUNT("orderCount"),
+
+   ORDER_TOTAL("orderTotal"),
+
+   ORDER_VERSION("orderVersion"),
+
+   CUSTOMER_ID("customerId"),
+
+   CUSTOMER_NAME("customerName"),
+
+   CUSTOMER_TYPE("customerType"),
+
+   CUSTOMER_STATUS("customerStatus"),
+
+   CUSTOMER_DATE("customerDate"),
+
+   CUSTOMER_AMOUNT("customerAmount"),
+
+   CUSTOMER_CODE("customerCode"),
+
+   CUSTOMER_LINE("customerLine"),
+
+   CUSTOMER_REF("customerRef"),
+
+   CUSTOMER_NOTE("customerNote"),
+
+   CUSTOMER_GROUP("customerGroup"),
+
+   CUSTOMER_COUNT("customerCount"),
+
+   CUSTOMER_TOTAL("customerTotal"),
+
+   CUSTOMER_VERSION("customerVersion"),
+
+   INVOICE_ID("invoiceId"),
+
+   INVOICE_NAME("invoiceName"),
+
+   INVOICE_TYPE("invoiceType"),
+
+   INVOICE_STATUS("invoiceStatus"),
+
+   INVOICE_DATE("invoiceDate"),
+
+   INVOICE_AMOUNT("invoiceAmount"),
+
+   INVOICE_CODE("invoiceCode"),
+
+   INVOICE_LINE("invoiceLine"),
+
+   INVOICE_REF("invoiceRef"),
+
+   INVOICE_NOTE("invoiceNote"),
+
+   INVOICE_GROUP("invoiceGroup"),
+
+   INVOICE_COUNT("invoiceCount"),
+
+   INVOICE_TOTAL("invoiceTotal"),
+
+   INVOICE_VERSION("invoiceVersion"),
+
+   PRODUCT_ID("productId"),
+
+   PRODUCT_NAME("productName"),
+
+   PRODUCT_TYPE("productType"),
+
+   PRODUCT_STATUS("productStatus"),
+
+   PRODUCT_DATE("productDate"),
+
+   PRODUCT_AMOUNT("productAmount"),
+
+   PRODUCT_CODE("productCode"),
+
+   PRODUCT_LINE("productLine"),
+
+   PRODUCT_REF("productRef"),
+
+   PRODUCT_NOTE("productNote"),
+
+   PRODUCT_GROUP("productGroup"),
+
+   PRODUCT_COUNT("productCount"),
+
+   PRODUCT_TOTAL("productTotal"),
+
+   PRODUCT_VERSION("productVersion"),
+
+   SHIPMENT_ID("shipmentId"),
+
+   SHIPMENT_NAME("shipmentName"),
+
+   SHIPMENT_TYPE("shipmentType"),
+
+   SHIPMENT_STATUS("shipmentStatus"),
+
+   SHIPMENT_DATE("shipmentDate"),
+
+   SHIPMENT_AMOUNT("shipmentAmount"),
+
+   SHIPMENT_CODE("shipmentCode"),
+
+   SHIPMENT_LINE("shipmentLine"),
+
+   SHIPMENT_REF("shipmentRef"),
+
+   SHIPMENT_NOTE("shipmentNote"),
+
+   SHIPMENT_GROUP("shipmentGroup"),
+
+   SHIPMENT_COUNT("shipmentCount"),
+
+   SHIPMENT_TOTAL("shipmentTotal"),
+
+   SHIPMENT_VERSION("shipmentVersion"),
+
+   PAYMENT_ID("paymentId"),
+
+   PAYMENT_NAME("paymentName"),
+
+   PAYMENT_TYPE("paymentType"),
+
+   PAYMENT_STATUS("paymentStatus"),
+
+   PAYMENT_DATE("paymentDate"),
+
+   PAYMENT_AMOUNT("paymentAmount"),
+
+   PAYMENT_CODE("paymentCode"),
+
+   PAYMENT_LINE("paymentLine"),
+
+   PAYMENT_REF("paymentRef"),
+
+   PAYMENT_NOTE("paymentNote"),
+
+   PAYMENT_GROUP("paymentGroup"),
+
+   PAYMENT_COUNT("paymentCount"),
+
+   PAYMENT_TOTAL("paymentTotal"),
+
+   PAYMENT_VERSION("paymentVersion"),
+
+   ACCOUNT_ID("accountId"),
+
+   ACCOUNT_NAME("accountName"),
+
+   ACCOUNT_TYPE("accountType"),
+
+   ACCOUNT_STATUS("accountStatus"),
+
+   ACCOUNT_DATE("accountDate"),
+
+   ACCOUNT_AMOUNT("accountAmount"),
+
+   ACCOUNT_CODE("accountCode"),
+
+   ACCOUNT_LINE("accountLine"),
+
+   ACCOUNT_REF("accountRef"),
+
+   ACCOUNT_NOTE("accountNote"),
+
+   ACCOUNT_GROUP("accountGroup"),
+
+   ACCOUNT_COUNT("accountCount"),
+
+   ACCOUNT_TOTAL("accountTotal"),
+
+   ACCOUNT_VERSION("accountVersion"),
+
+   ADDRESS_ID("addressId"),
+
+   ADDRESS_NAME("addressName"),
+
+   ADDRESS_TYPE("addressType"),
+
+   ADDRESS_STATUS("addressStatus"),
+
+   ADDRESS_DATE("addressDate"),
+
+   ADDRESS_AMOUNT("addressAmount"),
+
+   ADDRESS_CODE("addressCode"),
+
+   ADDRESS_LINE("addressLine"),
+
+   ADDRESS_REF("addressRef"),
+
+   ADDRESS_NOTE("addressNote"),
+
+   ADDRESS_GROUP("addressGroup"),
+
+   ADDRESS_COUNT("addressCount"),
+
+   ADDRESS_TOTAL("addressTotal"),
+
+   ADDRESS_VERSION("addressVersion"),
+
+   CONTACT_ID("contactId"),
+
+   CONTACT_NAME("contactName"),
+
+   CONTACT_TYPE("contactType"),
+
+   CONTACT_STATUS("contactStatus"),
+
+   CONTACT_DATE("contactDate"),
+
+   CONTACT_AMOUNT("contactAmount"),
+
+   CONTACT_CODE("contactCode"),
+
+   CONTACT_LINE("contactLine"),
+
+   CONTACT_REF("contactRef"),
+
+   CONTACT_NOTE("contactNote"),
+
+   CONTACT_GROUP("contactGroup"),
+
+   CONTACT_COUNT("contactCount"),
+
+   CONTACT_TOTAL("contactTotal"),
+
+   CONTACT_VERSION("contactVersion"),
+
+   TAX_ID("taxId"),
+
+   TAX_NAME("taxName"),
+
+   TAX_TYPE("taxType"),
+
+   TAX_STATUS("taxStatus"),
+
+   TAX_DATE("taxDate"),
+
+   TAX_AMOUNT("taxAmount"),
+
+   TAX_CODE("taxCode"),
+
+   TAX_LINE("taxLine"),
+
+   TAX_REF("taxRef"),
+
+   TAX_NOTE("taxNote"),
+
+   TAX_GROUP("taxGroup"),
+
+   TAX_COUNT("taxCount"),
+
+   TAX_TOTAL("taxTotal"),
+
+   TAX_VERSION("taxVersion"),
+
+   DISCOUNT_ID("discountId"),
+
+   DISCOUNT_NAME("discountName"),
+
+   DISCOUNT_TYPE("discountType"),
+
+   DISCOUNT_STATUS("discountStatus"),
+
+   DISCOUNT_DATE("discountDate"),
+
+   DISCOUNT_AMOUNT("discountAmount"),
+
+   DISCOUNT_CODE("discountCode"),
+
+   DISCOUNT_LINE("discountLine"),
+
+   DISCOUNT_REF("discountRef"),
+
+   DISCOUNT_NOTE("discountNote"),
+
+   DISCOUNT_GROUP("discountGroup"),
+
+   DISCOUNT_COUNT("discountCount"),
+
+   DISCOUNT_TOTAL("discountTotal"),
+
+   DISCOUNT_VERSION("discountVersion"),
+
+   WAREHOUSE_ID("warehouseId"),
+
+   WAREHOUSE_NAME("warehouseName"),
+
+   WAREHOUSE_TYPE("warehouseType"),
+
+   WAREHOUSE_STATUS("warehouseStatus"),
+
+   WAREHOUSE_DATE("warehouseDate"),
+
+   WAREHOUSE_AMOUNT("warehouseAmount"),
+
+   WAREHOUSE_CODE("warehouseCode"),
+
+   WAREHOUSE_LINE("warehouseLine"),
+
+   WAREHOUSE_REF("warehouseRef"),
+
+   WAREHOUSE_NOTE("warehouseNote"),
+
+   WAREHOUSE_GROUP("warehouseGroup"),
+
+   WAREHOUSE_COUNT("warehouseCount"),
+
+   WAREHOUSE_TOTAL("warehouseTotal"),
+
+   WAREHOUSE_VERSION("warehouseVersion"),
+
+   NO_SUCH_ELEMENT(null);
+
+   /** . */
+   private final String localName;
+
+   Vocabulary(String localName)
+   {
+      this.localName = localName;
+   }
+
+   public String getLocalName()
+   {
+      return localName;
+   }
+}
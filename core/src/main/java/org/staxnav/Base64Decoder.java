@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+import java.util.Arrays;
+
+/**
+ * Decodes base64 characters incrementally, the characters can be provided in chunks of any size. The whitespace is
+ * ignored and the final padding is optional.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+class Base64Decoder
+{
+
+   /** The values of the base64 characters, -1 for the other characters. */
+   private static final byte[] VALUES = new byte[128];
+
+   static
+   {
+      String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+      Arrays.fill(VALUES, (byte)-1);
+      for (int i = 0;i < alphabet.length();i++)
+      {
+         VALUES[alphabet.charAt(i)] = (byte)i;
+      }
+   }
+
+   /**
+    * Returns the size of the buffer needed to decode a chunk of characters.
+    *
+    * @param length the chunk length
+    * @return the buffer size
+    */
+   static int getMaxDecodedLength(int length)
+   {
+      return (length + 3) / 4 * 3;
+   }
+
+   /**
+    * Decodes a base64 sequence.
+    *
+    * @param s the sequence
+    * @return the decoded bytes
+    * @throws IllegalArgumentException if the sequence is not valid base64
+    */
+   static byte[] decode(CharSequence s) throws IllegalArgumentException
+   {
+      Base64Decoder decoder = new Base64Decoder();
+      byte[] buffer = new byte[getMaxDecodedLength(s.length())];
+      int length = 0;
+      for (int i = 0;i < s.length();i++)
+      {
+         length += decoder.decode(s.charAt(i), buffer, length);
+      }
+      length += decoder.finish(buffer, length);
+      if (length == buffer.length)
+      {
+         return buffer;
+      }
+      byte[] bytes = new byte[length];
+      System.arraycopy(buffer, 0, bytes, 0, length);
+      return bytes;
+   }
+
+   /** The bits of the current quantum. */
+   private int bits;
+
+   /** The number of characters of the current quantum. */
+   private int count;
+
+   /** The number of padding characters read, once the padding starts only padding and whitespace are accepted. */
+   private int padding;
+
+   Base64Decoder()
+   {
+      this.bits = 0;
+      this.count = 0;
+      this.padding = 0;
+   }
+
+   /**
+    * Decodes a chunk of characters.
+    *
+    * @param chars the characters
+    * @param off the chunk offset
+    * @param len the chunk length
+    * @param bytes the buffer the bytes are decoded to, its size is at least {@link #getMaxDecodedLength(int)}
+    * @return the number of decoded bytes
+    * @throws IllegalArgumentException if the characters are not valid base64
+    */
+   int decode(char[] chars, int off, int len, byte[] bytes) throws IllegalArgumentException
+   {
+      int length = 0;
+      for (int i = off;i < off + len;i++)
+      {
+         length += decode(chars[i], bytes, length);
+      }
+      return length;
+   }
+
+   /**
+    * Decodes the final quantum, it is either complete or padded or has two or three characters.
+    *
+    * @param bytes the buffer the bytes are decoded to
+    * @param off the buffer offset
+    * @return the number of decoded bytes
+    * @throws IllegalArgumentException if the final quantum is not valid
+    */
+   int finish(byte[] bytes, int off) throws IllegalArgumentException
+   {
+      int length;
+      if (count == 0)
+      {
+         length = 0;
+      }
+      else if (count == 1 || padding > 0 && count + padding != 4)
+      {
+         throw new IllegalArgumentException("Truncated base64 content");
+      }
+      else if (count == 2)
+      {
+         bytes[off] = (byte)(bits >> 4);
+         length = 1;
+      }
+      else
+      {
+         bytes[off] = (byte)(bits >> 10);
+         bytes[off + 1] = (byte)(bits >> 2);
+         length = 2;
+      }
+      bits = 0;
+      count = 0;
+      padding = 0;
+      return length;
+   }
+
+   private int decode(char c, byte[] bytes, int off) throws IllegalArgumentException
+   {
+      if (c <= ' ')
+      {
+         return 0;
+      }
+      else if (c == '=')
+      {
+         if (count < 2 || count + ++padding > 4)
+         {
+            throw new IllegalArgumentException("Invalid base64 padding");
+         }
+         return 0;
+      }
+      int value = c < 128 ? VALUES[c] : -1;
+      if (value == -1 || padding > 0)
+      {
+         throw new IllegalArgumentException("Invalid base64 character " + c);
+      }
+      bits = (bits << 6) | value;
+      if (++count == 4)
+      {
+         bytes[off] = (byte)(bits >> 16);
+         bytes[off + 1] = (byte)(bits >> 8);
+         bytes[off + 2] = (byte)bits;
+         bits = 0;
+         count = 0;
+         return 3;
+      }
+      return 0;
+   }
+}
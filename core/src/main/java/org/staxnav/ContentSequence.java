@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+/**
+ * A read only view over a range of the characters of a sequence, the characters are not copied. The viewed sequence
+ * must not be modified while the view is used.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+class ContentSequence implements CharSequence
+{
+
+   /**
+    * Returns the sequence without its leading and trailing characters trimmed by {@link String#trim()}, the
+    * sequence is returned when it has no such characters, otherwise a view of the sequence is returned.
+    *
+    * @param s the sequence to trim
+    * @return the trimmed sequence
+    */
+   static CharSequence trim(CharSequence s)
+   {
+      int to = s.length();
+      while (to > 0 && s.charAt(to - 1) <= ' ')
+      {
+         to--;
+      }
+      int from = 0;
+      while (from < to && s.charAt(from) <= ' ')
+      {
+         from++;
+      }
+      if (from == 0 && to == s.length())
+      {
+         return s;
+      }
+      else if (s instanceof ContentSequence)
+      {
+         return s.subSequence(from, to);
+      }
+      else
+      {
+         return new ContentSequence(s, from, to);
+      }
+   }
+
+   /** . */
+   private final CharSequence chars;
+
+   /** . */
+   private final int from;
+
+   /** . */
+   private final int to;
+
+   ContentSequence(CharSequence chars, int from, int to)
+   {
+      this.chars = chars;
+      this.from = from;
+      this.to = to;
+   }
+
+   public int length()
+   {
+      return to - from;
+   }
+
+   public char charAt(int index)
+   {
+      if (index < 0 || index >= to - from)
+      {
+         throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + (to - from));
+      }
+      return chars.charAt(from + index);
+   }
+
+   public CharSequence subSequence(int start, int end)
+   {
+      if (start < 0 || end > to - from || start > end)
+      {
+         throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + (to - from));
+      }
+      return new ContentSequence(chars, from + start, from + end);
+   }
+
+   @Override
+   public String toString()
+   {
+      return chars.subSequence(from, to).toString();
+   }
+}
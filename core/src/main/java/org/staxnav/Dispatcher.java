@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Dispatches the elements matched by a set of paths to parsers in a single pass over a document, see
+ * {@link StaxNavigator#dispatch(Dispatcher)}. Each parser registered for a path is invoked with a fork scoped to
+ * an element matched by the path, the parsers registered for the same element are invoked in the registration
+ * order. The subtrees where no path can match are passed over.</p>
+ *
+ * <p>The registrations should not be modified during a dispatch, a dispatcher can be used for several
+ * dispatches.</p>
+ *
+ * @param <N> the name type
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public final class Dispatcher<N>
+{
+
+   /** . */
+   private final Naming<N> naming;
+
+   /** . */
+   private final List<PathExpression<N>> paths;
+
+   /** . */
+   private final List<Parser<N>> parsers;
+
+   public Dispatcher(Naming<N> naming) throws NullPointerException
+   {
+      if (naming == null)
+      {
+         throw new NullPointerException("No null naming accepted");
+      }
+      this.naming = naming;
+      this.paths = new ArrayList<PathExpression<N>>();
+      this.parsers = new ArrayList<Parser<N>>();
+   }
+
+   /**
+    * Returns the naming of this dispatcher.
+    *
+    * @return the naming
+    */
+   public Naming<N> getNaming()
+   {
+      return naming;
+   }
+
+   /**
+    * Registers a parser for the elements matched by a path.
+    *
+    * @param path the path
+    * @param parser the parser
+    * @return this object
+    * @throws NullPointerException if any argument is null
+    * @throws IllegalArgumentException if the path selects attributes
+    */
+   public Dispatcher<N> register(PathExpression<N> path, Parser<N> parser) throws NullPointerException, IllegalArgumentException
+   {
+      if (path == null)
+      {
+         throw new NullPointerException("No null path accepted");
+      }
+      if (parser == null)
+      {
+         throw new NullPointerException("No null parser accepted");
+      }
+      if (path.selectsAttribute())
+      {
+         throw new IllegalArgumentException("The path " + path + " selects attributes");
+      }
+      paths.add(path);
+      parsers.add(parser);
+      return this;
+   }
+
+   /**
+    * Registers a parser for the elements having the specified name, the elements are matched at any depth including
+    * the element the dispatch starts from.
+    *
+    * @param name the element name
+    * @param parser the parser
+    * @return this object
+    * @throws NullPointerException if any argument is null
+    */
+   public Dispatcher<N> register(N name, Parser<N> parser) throws NullPointerException
+   {
+      if (name == null)
+      {
+         throw new NullPointerException("No null name accepted");
+      }
+      return register(PathExpression.descendant(naming, name), parser);
+   }
+
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   PathExpression<N>[] getPaths()
+   {
+      return paths.toArray(new PathExpression[paths.size()]);
+   }
+
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   Parser<N>[] getParsers()
+   {
+      return parsers.toArray(new Parser[parsers.size()]);
+   }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An input stream reading a file region mapped in memory. A mapped buffer cannot exceed 2GB so the region is mapped
+ * in consecutive windows, the windows are mapped when the stream is created and remain valid when the channel is
+ * closed.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+class MappedInputStream extends InputStream
+{
+
+   /** The size of a mapped window. */
+   static final long WINDOW_SIZE = 1L << 30;
+
+   /** . */
+   private final ByteBuffer[] windows;
+
+   /** . */
+   private int index;
+
+   MappedInputStream(FileChannel channel, long position) throws IOException
+   {
+      this(channel, position, WINDOW_SIZE);
+   }
+
+   MappedInputStream(FileChannel channel, long position, long windowSize) throws IOException
+   {
+      long size = channel.size();
+      int count = (int)((Math.max(size - position, 0) + windowSize - 1) / windowSize);
+      ByteBuffer[] windows = new ByteBuffer[count];
+      for (int i = 0;i < count;i++)
+      {
+         long start = position + i * windowSize;
+         windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+      }
+
+      //
+      this.windows = windows;
+      this.index = 0;
+   }
+
+   /**
+    * Returns the current window with remaining bytes.
+    *
+    * @return the window or null when the end of the region is reached
+    */
+   private ByteBuffer window()
+   {
+      while (index < windows.length)
+      {
+         ByteBuffer window = windows[index];
+         if (window.hasRemaining())
+         {
+            return window;
+         }
+
+         // Release the window we are done with
+         windows[index++] = null;
+      }
+      return null;
+   }
+
+   @Override
+   public int read() throws IOException
+   {
+      ByteBuffer window = window();
+      return window != null ? window.get() & 0xFF : -1;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException
+   {
+      if (len == 0)
+      {
+         return 0;
+      }
+      ByteBuffer window = window();
+      if (window == null)
+      {
+         return -1;
+      }
+      int length = Math.min(len, window.remaining());
+      window.get(b, off, length);
+      return length;
+   }
+
+   @Override
+   public long skip(long n) throws IOException
+   {
+      long skipped = 0;
+      for (ByteBuffer window = window();window != null && skipped < n;window = window())
+      {
+         int length = (int)Math.min(n - skipped, window.remaining());
+         window.position(window.position() + length);
+         skipped += length;
+      }
+      return skipped;
+   }
+
+   @Override
+   public int available() throws IOException
+   {
+      ByteBuffer window = window();
+      return window != null ? window.remaining() : 0;
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+      for (int i = index;i < windows.length;i++)
+      {
+         windows[i] = null;
+      }
+      index = windows.length;
+   }
+}
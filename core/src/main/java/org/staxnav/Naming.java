@@ -22,6 +22,7 @@ package org.staxnav;
 import javax.xml.namespace.QName;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -142,6 +143,115 @@ public abstract class Naming<N>
          return "";
       }
 
+      /**
+       * A collision free hash table mapping names to enum constants built once. The table size and the hash seed
+       * are chosen so that each name has its own bucket, a lookup costs a hash and at most one string comparison.
+       * When no collision free configuration can be found, for instance when two names have the same hash code,
+       * the lookups are performed by a hash map instead.
+       *
+       * @param <E> the generic enum type
+       */
+      private static class Table<E>
+      {
+
+         /** The maximum number of seeds tried for a table size. */
+         private static final int MAX_SEEDS = 256;
+
+         /** . */
+         private final int seed;
+
+         /** . */
+         private final int mask;
+
+         /** . */
+         private final String[] keys;
+
+         /** . */
+         private final Object[] values;
+
+         /** The fallback map when no collision free table can be built. */
+         private final Map<String, E> map;
+
+         private Table(String[] names, E[] constants)
+         {
+            // The first constant wins when several constants have the same name
+            Map<String, E> map = new LinkedHashMap<String, E>();
+            for (int i = 0;i < names.length;i++)
+            {
+               if (names[i] != null && !map.containsKey(names[i]))
+               {
+                  map.put(names[i], constants[i]);
+               }
+            }
+
+            //
+            int size = 2;
+            while (size < map.size() * 2)
+            {
+               size <<= 1;
+            }
+
+            //
+            for (int maxSize = size << 3;size <= maxSize;size <<= 1)
+            {
+               for (int seed = 0;seed < MAX_SEEDS;seed++)
+               {
+                  String[] keys = new String[size];
+                  Object[] values = new Object[size];
+                  boolean collision = false;
+                  for (Map.Entry<String, E> entry : map.entrySet())
+                  {
+                     int index = hash(entry.getKey(), seed) & (size - 1);
+                     if (keys[index] != null)
+                     {
+                        collision = true;
+                        break;
+                     }
+                     keys[index] = entry.getKey();
+                     values[index] = entry.getValue();
+                  }
+                  if (!collision)
+                  {
+                     this.seed = seed;
+                     this.mask = size - 1;
+                     this.keys = keys;
+                     this.values = values;
+                     this.map = null;
+                     return;
+                  }
+               }
+            }
+
+            //
+            this.seed = 0;
+            this.mask = 0;
+            this.keys = null;
+            this.values = null;
+            this.map = new HashMap<String, E>(map);
+         }
+
+         private static int hash(String name, int seed)
+         {
+            int h = name.hashCode() + seed * 0x9E3779B9;
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            return h;
+         }
+
+         @SuppressWarnings("unchecked")
+         private E get(String name)
+         {
+            if (map != null)
+            {
+               return map.get(name);
+            }
+            int index = hash(name, seed) & mask;
+            String key = keys[index];
+            return key != null && key.equals(name) ? (E)values[index] : null;
+         }
+      }
+
       /**
        * <p>A naming implementation mapping enum elements to names by doing a lower case conversion
        * and substituting the hyphen character by the underscore character, for instance the enumeration:</p>
@@ -161,7 +271,7 @@ public abstract class Naming<N>
       {
 
          /** . */
-         private final Map<String, E> toName;
+         private final Table<E> toName;
 
          /** . */
          private final Map<E, String> toLocalPart;
@@ -171,17 +281,18 @@ public abstract class Naming<N>
             super(enumType, noSuchElement);
 
             //
-            Map<String, E> toName = new HashMap<String, E>();
+            E[] values = enumType.getEnumConstants();
+            String[] localParts = new String[values.length];
             Map<E, String> toLocalPart = new EnumMap<E, String>(enumType);
-            for (E value : enumType.getEnumConstants())
+            for (int i = 0;i < values.length;i++)
             {
-               String localPart = value.name().toLowerCase().replace('_', '-');
-               toName.put(localPart, value);
-               toLocalPart.put(value, localPart);
+               String localPart = values[i].name().toLowerCase().replace('_', '-');
+               localParts[i] = localPart;
+               toLocalPart.put(values[i], localPart);
             }
 
             //
-            this.toName = toName;
+            this.toName = new Table<E>(localParts, values);
             this.toLocalPart = toLocalPart;
          }
 
@@ -203,14 +314,22 @@ public abstract class Naming<N>
       {
 
          /** . */
-         private final  E[] all;
+         private final Table<E> toName;
 
          public Mapped(Class<E> enumType, E noSuchElement)
          {
             super(enumType, noSuchElement);
 
             //
-            this.all = enumType.getEnumConstants();
+            E[] values = enumType.getEnumConstants();
+            String[] localNames = new String[values.length];
+            for (int i = 0;i < values.length;i++)
+            {
+               localNames[i] = values[i].getLocalName();
+            }
+
+            //
+            this.toName = new Table<E>(localNames, values);
          }
 
          @Override
@@ -222,14 +341,8 @@ public abstract class Naming<N>
          @Override
          public E getName(String uri, String prefix, String localPart)
          {
-            for (E e : all)
-            {
-               if (localPart.equals(e.getLocalName()))
-               {
-                  return e;
-               }
-            }
-            return noSuchElement;
+            E name = toName.get(localPart);
+            return name != null ? name : noSuchElement;
          }
       }
    }
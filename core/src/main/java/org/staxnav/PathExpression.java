@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.XMLConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A path expression compiled once against a naming and evaluated by a navigator in a single forward pass over
+ * the subtree of its current element, see {@link StaxNavigator#fork(PathExpression)} and
+ * {@link StaxNavigator#select(PathExpression, ValueType)}. The syntax is a subset of XPath:</p>
+ *
+ * <ul>
+ *    <li><code>/catalog/book</code> is an absolute path, its first step matches the current element.</li>
+ *    <li><code>book/title</code> is a relative path, its first step matches the children of the current element.</li>
+ *    <li><code>//title</code> or <code>catalog//title</code> match the descendants at any depth.</li>
+ *    <li><code>*</code> matches any element name.</li>
+ *    <li><code>book[@lang='en']</code> and <code>book[@lang]</code> match the elements having an attribute value
+ *    or an attribute.</li>
+ *    <li><code>/catalog/book/@id</code> selects an attribute of the matched elements, the attribute step is
+ *    the last step.</li>
+ * </ul>
+ *
+ * <p>The prefixed names are resolved with the namespaces provided when the path is compiled, the namespace bound to
+ * the empty prefix is used for the element names without a prefix. The steps are compiled to a state machine: the
+ * states active for an element are computed from the states of its parent, the subtrees where no state is active are
+ * skipped by the evaluation. A path has at most 64 element steps.</p>
+ *
+ * <p>A path is immutable and can be shared by several threads.</p>
+ *
+ * @param <N> the name type
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public final class PathExpression<N>
+{
+
+   /** The maximum number of element steps, the active states are the bits of a long. */
+   static final int MAX_STEPS = 64;
+
+   /**
+    * Compiles a path without namespaces.
+    *
+    * @param naming the naming
+    * @param expression the path expression
+    * @param <N> the name type
+    * @return the compiled path
+    * @throws NullPointerException if any argument is null
+    * @throws IllegalArgumentException if the expression is not valid
+    */
+   public static <N> PathExpression<N> compile(Naming<N> naming, String expression) throws NullPointerException, IllegalArgumentException
+   {
+      return compile(naming, expression, Collections.<String, String>emptyMap());
+   }
+
+   /**
+    * Compiles a path, the prefixes of the path names are resolved with the provided namespaces.
+    *
+    * @param naming the naming
+    * @param expression the path expression
+    * @param namespaces the namespace URIs by prefix
+    * @param <N> the name type
+    * @return the compiled path
+    * @throws NullPointerException if any argument is null
+    * @throws IllegalArgumentException if the expression is not valid
+    */
+   public static <N> PathExpression<N> compile(Naming<N> naming, String expression, Map<String, String> namespaces) throws NullPointerException, IllegalArgumentException
+   {
+      if (naming == null)
+      {
+         throw new NullPointerException("No null naming accepted");
+      }
+      if (expression == null)
+      {
+         throw new NullPointerException("No null expression accepted");
+      }
+      if (namespaces == null)
+      {
+         throw new NullPointerException("No null namespaces accepted");
+      }
+      return new PathExpression<N>(naming, expression, namespaces);
+   }
+
+   /**
+    * Returns the path matching the elements having the specified name at any depth, like <code>//name</code>.
+    *
+    * @param naming the naming
+    * @param name the name
+    * @param <N> the name type
+    * @return the path
+    */
+   static <N> PathExpression<N> descendant(Naming<N> naming, N name)
+   {
+      Step step = new Step(true, name, new String[0]);
+      return new PathExpression<N>(naming, "//" + naming.getLocalPart(name), true, new Step[]{step});
+   }
+
+   /** . */
+   private final Naming<N> naming;
+
+   /** . */
+   private final String expression;
+
+   /** True when the first step matches the current element instead of its children. */
+   final boolean absolute;
+
+   /** . */
+   final Step[] steps;
+
+   /** The namespace URI of the selected attribute or null when the path selects elements. */
+   final String attributeURI;
+
+   /** The local name of the selected attribute or null when the path selects elements. */
+   final String attributeName;
+
+   private PathExpression(Naming<N> naming, String expression, Map<String, String> namespaces) throws IllegalArgumentException
+   {
+      List<Step> steps = new ArrayList<Step>();
+      String attributeURI = null;
+      String attributeName = null;
+      int length = expression.length();
+      int position = 0;
+      boolean absolute = false;
+      boolean descendant = false;
+      if (expression.startsWith("//"))
+      {
+         absolute = true;
+         descendant = true;
+         position = 2;
+      }
+      else if (expression.startsWith("/"))
+      {
+         absolute = true;
+         position = 1;
+      }
+      while (true)
+      {
+         if (position < length && expression.charAt(position) == '@')
+         {
+            if (steps.isEmpty())
+            {
+               throw failure(expression, position, "an element step is expected");
+            }
+            if (descendant)
+            {
+               throw failure(expression, position, "an attribute step cannot follow //");
+            }
+            int end = scanName(expression, ++position);
+            String[] name = resolve(expression, position, end, namespaces, false);
+            attributeURI = name[0];
+            attributeName = name[1];
+            position = end;
+            if (position < length)
+            {
+               throw failure(expression, position, "the attribute step must be the last step");
+            }
+            break;
+         }
+
+         // The element name or the wildcard
+         Object name;
+         if (position < length && expression.charAt(position) == '*')
+         {
+            name = null;
+            position++;
+         }
+         else
+         {
+            int end = scanName(expression, position);
+            String[] resolved = resolve(expression, position, end, namespaces, true);
+            N n = naming.getName(resolved[0], resolved[2], resolved[1]);
+            if (n == null || !resolved[1].equals(naming.getLocalPart(n)))
+            {
+               throw failure(expression, position, "the name " + resolved[1] + " is not known by the naming");
+            }
+            name = n;
+            position = end;
+         }
+
+         // The attribute predicates as (namespace URI, local name, value) triplets
+         List<String> predicates = new ArrayList<String>();
+         while (position < length && expression.charAt(position) == '[')
+         {
+            if (++position >= length || expression.charAt(position) != '@')
+            {
+               throw failure(expression, position, "an attribute predicate is expected");
+            }
+            int end = scanName(expression, ++position);
+            String[] resolved = resolve(expression, position, end, namespaces, false);
+            position = end;
+            String value = null;
+            if (position < length && expression.charAt(position) == '=')
+            {
+               char quote = ++position < length ? expression.charAt(position) : 0;
+               int close = quote == '\'' || quote == '"' ? expression.indexOf(quote, position + 1) : -1;
+               if (close == -1)
+               {
+                  throw failure(expression, position, "a quoted value is expected");
+               }
+               value = expression.substring(position + 1, close);
+               position = close + 1;
+            }
+            if (position >= length || expression.charAt(position) != ']')
+            {
+               throw failure(expression, position, "] is expected");
+            }
+            position++;
+            predicates.add(resolved[0]);
+            predicates.add(resolved[1]);
+            predicates.add(value);
+         }
+         steps.add(new Step(descendant, name, predicates.toArray(new String[predicates.size()])));
+
+         // The separator
+         if (position == length)
+         {
+            break;
+         }
+         else if (expression.startsWith("//", position))
+         {
+            descendant = true;
+            position += 2;
+         }
+         else if (expression.charAt(position) == '/')
+         {
+            descendant = false;
+            position++;
+         }
+         else
+         {
+            throw failure(expression, position, "/ is expected");
+         }
+      }
+
+      //
+      if (steps.size() > MAX_STEPS)
+      {
+         throw new IllegalArgumentException("Invalid path " + expression + ": more than " + MAX_STEPS + " steps");
+      }
+
+      //
+      this.naming = naming;
+      this.expression = expression;
+      this.absolute = absolute;
+      this.steps = steps.toArray(new Step[steps.size()]);
+      this.attributeURI = attributeURI;
+      this.attributeName = attributeName;
+   }
+
+   private PathExpression(Naming<N> naming, String expression, boolean absolute, Step[] steps)
+   {
+      this.naming = naming;
+      this.expression = expression;
+      this.absolute = absolute;
+      this.steps = steps;
+      this.attributeURI = null;
+      this.attributeName = null;
+   }
+
+   /**
+    * Returns the naming this path was compiled against.
+    *
+    * @return the naming
+    */
+   public Naming<N> getNaming()
+   {
+      return naming;
+   }
+
+   /**
+    * Returns true when the path selects attributes rather than elements.
+    *
+    * @return true when the path ends with an attribute step
+    */
+   public boolean selectsAttribute()
+   {
+      return attributeName != null;
+   }
+
+   @Override
+   public String toString()
+   {
+      return expression;
+   }
+
+   /**
+    * Returns the end of the name starting at the specified position.
+    *
+    * @param expression the expression
+    * @param position the name start
+    * @return the name end
+    * @throws IllegalArgumentException if no name starts at the position
+    */
+   private static int scanName(String expression, int position) throws IllegalArgumentException
+   {
+      int end = position;
+      while (end < expression.length())
+      {
+         char c = expression.charAt(end);
+         if (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == ':')
+         {
+            end++;
+         }
+         else
+         {
+            break;
+         }
+      }
+      if (end == position)
+      {
+         throw failure(expression, position, "a name is expected");
+      }
+      return end;
+   }
+
+   /**
+    * Resolves a name to its namespace URI, local name and prefix.
+    *
+    * @param expression the expression
+    * @param start the name start
+    * @param end the name end
+    * @param namespaces the namespaces
+    * @param element true for an element name, the default namespace applies to the names without a prefix
+    * @return the namespace URI, the local name and the prefix
+    * @throws IllegalArgumentException if the name prefix is not bound
+    */
+   private static String[] resolve(String expression, int start, int end, Map<String, String> namespaces, boolean element) throws IllegalArgumentException
+   {
+      String name = expression.substring(start, end);
+      int colon = name.indexOf(':');
+      if (colon == -1)
+      {
+         String uri = element ? namespaces.get(XMLConstants.DEFAULT_NS_PREFIX) : null;
+         return new String[]{uri != null ? uri : XMLConstants.NULL_NS_URI, name, XMLConstants.DEFAULT_NS_PREFIX};
+      }
+      String prefix = name.substring(0, colon);
+      String localName = name.substring(colon + 1);
+      String uri = namespaces.get(prefix);
+      if (uri == null)
+      {
+         throw failure(expression, start, "the prefix " + prefix + " is not bound");
+      }
+      if (localName.length() == 0 || localName.indexOf(':') != -1)
+      {
+         throw failure(expression, start, "the name " + name + " is not valid");
+      }
+      return new String[]{uri, localName, prefix};
+   }
+
+   private static IllegalArgumentException failure(String expression, int position, String message)
+   {
+      return new IllegalArgumentException("Invalid path " + expression + " at position " + position + ": " + message);
+   }
+
+   /**
+    * An element step of a path.
+    */
+   static final class Step
+   {
+
+      /** True when the step matches the descendants at any depth rather than the children. */
+      final boolean descendant;
+
+      /** The name or null for any name. */
+      final Object name;
+
+      /** The attribute predicates as (namespace URI, local name, value or null) triplets. */
+      final String[] predicates;
+
+      private Step(boolean descendant, Object name, String[] predicates)
+      {
+         this.descendant = descendant;
+         this.name = name;
+         this.predicates = predicates;
+      }
+   }
+}
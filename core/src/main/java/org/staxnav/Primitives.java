@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+/**
+ * Parses primitive values from character sequences without creating intermediate strings or boxed values. The
+ * leading and trailing characters trimmed by {@link String#trim()} are ignored.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+class Primitives
+{
+
+   /** The powers of ten exactly represented by a double. */
+   private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+   };
+
+   /** The maximum number of significant digits of a mantissa exactly represented by a double. */
+   private static final int MAX_EXACT_DIGITS = 15;
+
+   private Primitives()
+   {
+   }
+
+   static short parseShort(CharSequence s) throws NumberFormatException
+   {
+      return (short)parseLong(s, Short.MIN_VALUE, Short.MAX_VALUE);
+   }
+
+   static int parseInt(CharSequence s) throws NumberFormatException
+   {
+      return (int)parseLong(s, Integer.MIN_VALUE, Integer.MAX_VALUE);
+   }
+
+   static long parseLong(CharSequence s) throws NumberFormatException
+   {
+      return parseLong(s, Long.MIN_VALUE, Long.MAX_VALUE);
+   }
+
+   /**
+    * Parses a decimal integer in the specified range, the value is accumulated negatively so the minimum value of
+    * the range can be parsed.
+    *
+    * @param s the sequence to parse
+    * @param min the minimum value
+    * @param max the maximum value
+    * @return the parsed value
+    * @throws NumberFormatException if the sequence is not an integer in the range
+    */
+   private static long parseLong(CharSequence s, long min, long max) throws NumberFormatException
+   {
+      int to = end(s);
+      int from = start(s, to);
+      if (from == to)
+      {
+         throw invalid(s);
+      }
+      boolean negative = false;
+      char c = s.charAt(from);
+      if (c == '-' || c == '+')
+      {
+         negative = c == '-';
+         if (++from == to)
+         {
+            throw invalid(s);
+         }
+      }
+      long limit = negative ? min : -max;
+      long multmin = limit / 10;
+      long value = 0;
+      while (from < to)
+      {
+         int digit = s.charAt(from++) - '0';
+         if (digit < 0 || digit > 9 || value < multmin)
+         {
+            throw invalid(s);
+         }
+         value *= 10;
+         if (value < limit + digit)
+         {
+            throw invalid(s);
+         }
+         value -= digit;
+      }
+      return negative ? value : -value;
+   }
+
+   /**
+    * Parses a decimal floating point number with the syntax of {@link Double#parseDouble(String)} or the XML schema
+    * infinity <code>INF</code>. The numbers whose mantissa has at most 15 significant digits and whose decimal exponent
+    * is at most 22 are computed exactly with a single multiplication or division, the other numbers are parsed by
+    * {@link Double#parseDouble(String)}.
+    *
+    * @param s the sequence to parse
+    * @return the parsed value
+    * @throws NumberFormatException if the sequence is not a number
+    */
+   static double parseDouble(CharSequence s) throws NumberFormatException
+   {
+      int to = end(s);
+      int from = start(s, to);
+      int index = from;
+      boolean negative = false;
+      if (index < to && (s.charAt(index) == '-' || s.charAt(index) == '+'))
+      {
+         negative = s.charAt(index++) == '-';
+      }
+
+      // The mantissa digits, the leading zeros are not significant
+      long mantissa = 0;
+      int digits = 0;
+      int significant = 0;
+      int exponent = 0;
+      boolean point = false;
+      for (;index < to;index++)
+      {
+         char c = s.charAt(index);
+         if (c >= '0' && c <= '9')
+         {
+            digits++;
+            if (mantissa != 0 || c != '0')
+            {
+               if (++significant > MAX_EXACT_DIGITS)
+               {
+                  return parseDouble(s, from, to);
+               }
+               mantissa = mantissa * 10 + (c - '0');
+            }
+            if (point)
+            {
+               exponent--;
+            }
+         }
+         else if (c == '.' && !point)
+         {
+            point = true;
+         }
+         else
+         {
+            break;
+         }
+      }
+      if (digits == 0)
+      {
+         return parseDouble(s, from, to);
+      }
+
+      //
+      if (index < to)
+      {
+         char c = s.charAt(index);
+         if (c != 'e' && c != 'E' || ++index == to)
+         {
+            return parseDouble(s, from, to);
+         }
+         boolean negativeExponent = false;
+         c = s.charAt(index);
+         if (c == '-' || c == '+')
+         {
+            negativeExponent = c == '-';
+            if (++index == to)
+            {
+               return parseDouble(s, from, to);
+            }
+         }
+         int value = 0;
+         for (;index < to;index++)
+         {
+            c = s.charAt(index);
+            if (c < '0' || c > '9' || value > POWERS_OF_TEN.length * 2)
+            {
+               return parseDouble(s, from, to);
+            }
+            value = value * 10 + (c - '0');
+         }
+         exponent += negativeExponent ? -value : value;
+      }
+
+      //
+      double value;
+      if (mantissa == 0)
+      {
+         value = 0;
+      }
+      else if (exponent >= 0 && exponent < POWERS_OF_TEN.length)
+      {
+         value = mantissa * POWERS_OF_TEN[exponent];
+      }
+      else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+      {
+         value = mantissa / POWERS_OF_TEN[-exponent];
+      }
+      else
+      {
+         return parseDouble(s, from, to);
+      }
+      return negative ? -value : value;
+   }
+
+   /**
+    * Parses a boolean, the values <code>true</code> and <code>false</code> are accepted regardless of their case as
+    * well as the XML schema values <code>1</code> and <code>0</code>.
+    *
+    * @param s the sequence to parse
+    * @return the parsed value
+    * @throws IllegalArgumentException if the sequence is not a boolean
+    */
+   static boolean parseBoolean(CharSequence s) throws IllegalArgumentException
+   {
+      int to = end(s);
+      int from = start(s, to);
+      if (matches(s, from, to, "true") || matches(s, from, to, "1"))
+      {
+         return true;
+      }
+      else if (matches(s, from, to, "false") || matches(s, from, to, "0"))
+      {
+         return false;
+      }
+      else
+      {
+         throw new IllegalArgumentException("Invalid boolean " + s);
+      }
+   }
+
+   private static double parseDouble(CharSequence s, int from, int to) throws NumberFormatException
+   {
+      if (matches(s, from, to, "INF") || matches(s, from, to, "+INF"))
+      {
+         return Double.POSITIVE_INFINITY;
+      }
+      else if (matches(s, from, to, "-INF"))
+      {
+         return Double.NEGATIVE_INFINITY;
+      }
+      return Double.parseDouble(s.subSequence(from, to).toString());
+   }
+
+   private static boolean matches(CharSequence s, int from, int to, String value)
+   {
+      if (to - from != value.length())
+      {
+         return false;
+      }
+      for (int i = 0;i < value.length();i++)
+      {
+         char c = s.charAt(from + i);
+         if (c != value.charAt(i) && Character.toLowerCase(c) != value.charAt(i))
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static int end(CharSequence s)
+   {
+      int to = s.length();
+      while (to > 0 && s.charAt(to - 1) <= ' ')
+      {
+         to--;
+      }
+      return to;
+   }
+
+   private static int start(CharSequence s, int to)
+   {
+      int from = 0;
+      while (from < to && s.charAt(from) <= ' ')
+      {
+         from++;
+      }
+      return from;
+   }
+
+   private static NumberFormatException invalid(CharSequence s)
+   {
+      return new NumberFormatException("For input string: \"" + s + "\"");
+   }
+}
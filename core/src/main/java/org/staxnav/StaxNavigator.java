@@ -21,8 +21,13 @@ package org.staxnav;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.Location;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * @author <a href="mailto:alain.defrance@exoplatform.com">Alain Defrance</a>
@@ -64,7 +69,8 @@ public interface StaxNavigator<N>
    QName getQName() throws StaxNavException;
 
    /**
-    * Returns the location of the start tag of the currently navigated element.
+    * Returns the location of the start tag of the currently navigated element or null when location tracking
+    * is disabled.
     *
     * @return the element location
     * @throws StaxNavException any StaxNavException
@@ -89,7 +95,61 @@ public interface StaxNavigator<N>
    String getContent() throws StaxNavException;
 
    /**
-    * Configures the content trimming when {@link #getContent()} method is invoked.
+    * Returns the current navigated element textual content as a read only sequence of the characters buffered by the
+    * navigator, the characters are not copied and the trimming does not copy them either. The content is null when
+    * an element has a mixed content as for {@link #getContent()}.
+    *
+    * @return the element text content
+    * @throws StaxNavException any StaxNavException
+    */
+   CharSequence getContentSequence() throws StaxNavException;
+
+   /**
+    * <p>Returns a reader of the current navigated element textual content, the content is not trimmed.</p>
+    *
+    * <p>When content skipping is enabled and the content was not read yet, the reader streams the content from the
+    * parser as it is read: the content is not buffered by the navigator and is consumed once, obtaining the content
+    * of the element afterwards raises a {@link StaxNavException}. The reader is valid until the navigator moves, the
+    * navigation passes over the content that was not read. When the element has a mixed content, reading it raises
+    * an {@link java.io.IOException}.</p>
+    *
+    * <p>Otherwise the reader reads the content retained by the navigator, the content of an element without text or
+    * with a mixed content is empty.</p>
+    *
+    * @return the element text content reader
+    * @throws StaxNavException any StaxNavException
+    */
+   Reader getContentReader() throws StaxNavException;
+
+   /**
+    * Decodes the base64 content of the current navigated element to an output stream. The content is read and
+    * decoded in chunks of a fixed size through the {@link #getContentReader() content reader}, so when the content
+    * is streamed the memory used does not depend on the content size. The output stream is not closed.
+    *
+    * @param out the output stream
+    * @return the number of decoded bytes
+    * @throws NullPointerException if the output stream is null
+    * @throws IOException if the content cannot be read or the output stream cannot be written
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the content is not valid base64
+    */
+   long readBinaryContent(OutputStream out) throws NullPointerException, IOException, StaxNavException, TypeConversionException;
+
+   /**
+    * Decodes the base64 content of the current navigated element to a channel, see
+    * {@link #readBinaryContent(OutputStream)}. The channel is not closed.
+    *
+    * @param channel the channel
+    * @return the number of decoded bytes
+    * @throws NullPointerException if the channel is null
+    * @throws IOException if the content cannot be read or the channel cannot be written
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the content is not valid base64
+    */
+   long readBinaryContent(WritableByteChannel channel) throws NullPointerException, IOException, StaxNavException, TypeConversionException;
+
+   /**
+    * Configures the content trimming when the {@link #getContent()} or {@link #getContentSequence()} method is invoked.
     *
     * @param trimContent true to trim content
     */
@@ -115,6 +175,54 @@ public interface StaxNavigator<N>
     */
    <V> V parseContent(ValueType<V> valueType) throws IllegalStateException, NullPointerException, StaxNavException, TypeConversionException;
 
+   /**
+    * <p>Parses the content of the currently navigated element as an <code>int</code>. The content is parsed in place
+    * without creating a string or a boxed value, the leading and trailing whitespace are ignored.</p>
+    *
+    * <p>When content skipping is enabled and the content was not read yet, the content is read in a buffer and
+    * parsed from it, the content remains available for parsing it again or obtaining it.</p>
+    *
+    * @return the parsed content value
+    * @throws IllegalStateException if the current element does not point to a content
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the content is not an <code>int</code>
+    */
+   int parseIntContent() throws IllegalStateException, StaxNavException, TypeConversionException;
+
+   /**
+    * Parses the content of the currently navigated element as a <code>long</code>, see {@link #parseIntContent()}.
+    *
+    * @return the parsed content value
+    * @throws IllegalStateException if the current element does not point to a content
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the content is not a <code>long</code>
+    */
+   long parseLongContent() throws IllegalStateException, StaxNavException, TypeConversionException;
+
+   /**
+    * Parses the content of the currently navigated element as a <code>double</code> with the syntax of
+    * {@link Double#parseDouble(String)} or the XML schema infinity <code>INF</code>, see {@link #parseIntContent()}.
+    * The common decimal numbers are parsed in place, the other ones are parsed by {@link Double#parseDouble(String)}.
+    *
+    * @return the parsed content value
+    * @throws IllegalStateException if the current element does not point to a content
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the content is not a <code>double</code>
+    */
+   double parseDoubleContent() throws IllegalStateException, StaxNavException, TypeConversionException;
+
+   /**
+    * Parses the content of the currently navigated element as a <code>boolean</code>, see {@link #parseIntContent()}.
+    * The values <code>true</code> and <code>false</code> are accepted regardless of their case as well as the XML
+    * schema values <code>1</code> and <code>0</code>.
+    *
+    * @return the parsed content value
+    * @throws IllegalStateException if the current element does not point to a content
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the content is not a <code>boolean</code>
+    */
+   boolean parseBooleanContent() throws IllegalStateException, StaxNavException, TypeConversionException;
+
    /**
     * Creates a navigator scoped around the currently navigated element. The returned navigator will uses the current
     * element as navigation root and the navigation scope is the set of descendants of its root. The forked navigator
@@ -145,6 +253,9 @@ public interface StaxNavigator<N>
     *    <li>The current element is added if it matches the specified name.</li>
     *    <li>Subsequent elements are found thanks to the {@link #sibling(Object)} method.</li>
     * </ul>
+    * The elements are found as the iterator is consumed, each iteration moves this navigator to the next element,
+    * so this navigator should not be navigated while the forks are iterated. The returned iterable can be iterated
+    * once.
     *
     * @param name the name of the root elements of the forked navigator
     * @return an iterable of the forks
@@ -159,6 +270,9 @@ public interface StaxNavigator<N>
     *    <li>The current element is added if it matches the specified name.</li>
     *    <li>Subsequent elements are found thanks to the provided axis.</li>
     * </ul>
+    * The elements are found as the iterator is consumed, each iteration moves this navigator to the next element,
+    * so this navigator should not be navigated while the forks are iterated. The returned iterable can be iterated
+    * once.
     *
     * @param axis the axis of navigation for the forks
     * @param name the name of the root elements of the forked navigator
@@ -167,6 +281,102 @@ public interface StaxNavigator<N>
     */
    Iterable<StaxNavigator<N>> fork(Axis axis, N name) throws NullPointerException;
 
+   /**
+    * Parses the elements found like {@link #fork(Object)} with a parser, see {@link #fork(Axis, Object, Parser)}.
+    *
+    * @param name the name of the parsed elements
+    * @param parser the parser
+    * @return the number of parsed elements
+    * @throws NullPointerException if any argument is null
+    * @throws StaxNavException any StaxNavException
+    */
+   int fork(N name, Parser<N> parser) throws NullPointerException, StaxNavException;
+
+   /**
+    * <p>Parses the elements found like {@link #fork(Axis, Object)} with a parser. The parser is invoked for each
+    * element with a navigator scoped to the element, the element subtree is navigated in place: it is not pinned nor
+    * retained, so the memory used does not depend on the number of parsed elements. The scoped navigator is valid
+    * until the parser returns.</p>
+    *
+    * <p>When the parser returns, this navigator resumes after the element subtree whether or not the parser navigated
+    * all of it, the part of the subtree that was not navigated is skipped at the stream level when subtree skipping
+    * is enabled. A runtime exception thrown by the parser is rethrown as is, any other exception is wrapped in a
+    * {@link StaxNavException}, the parsing stops then.</p>
+    *
+    * @param axis the axis of navigation for the parsed elements
+    * @param name the name of the parsed elements
+    * @param parser the parser
+    * @return the number of parsed elements
+    * @throws NullPointerException if any argument is null
+    * @throws StaxNavException any StaxNavException
+    */
+   int fork(Axis axis, N name, Parser<N> parser) throws NullPointerException, StaxNavException;
+
+   /**
+    * <p>Processes the forks of the elements found like {@link #fork(Object)} in parallel. Each matched subtree is read
+    * by the thread iterating the results and copied into a fork that does not share any state with this navigator,
+    * the fork is then processed by the task on the executor. The returned iterable provides the task results.</p>
+    *
+    * <p>The stream is parsed as the results are iterated, a bounded number of tasks are in flight at a time. When the
+    * results are ordered they are provided in the document order, otherwise they are provided as the tasks complete.
+    * A task failure is rethrown when its result is iterated, as is when it is a runtime exception or wrapped in a
+    * {@link StaxNavException} otherwise.</p>
+    *
+    * @param name the name of the root elements of the forks
+    * @param executor the executor of the tasks
+    * @param task the task processing a fork
+    * @param ordered true if the results should be provided in the document order
+    * @param <V> the result type
+    * @return an iterable of the results
+    * @throws NullPointerException if any argument is null
+    */
+   <V> Iterable<V> forkParallel(N name, Executor executor, ForkTask<N, V> task, boolean ordered) throws NullPointerException;
+
+   /**
+    * <p>Returns an iterable of the forks of the elements selected by a path. The path is evaluated in a single forward
+    * pass over the subtree of the current element: the elements are matched in the document order as the iterator is
+    * consumed and each iteration moves this navigator to the matched element, so this navigator should not be
+    * navigated while the forks are iterated. The returned iterable can be iterated once.</p>
+    *
+    * <p>The subtrees where the path cannot match are passed over, they are skipped at the stream level when subtree
+    * skipping is enabled.</p>
+    *
+    * @param path the path
+    * @return an iterable of the forks
+    * @throws NullPointerException if the path argument is null
+    * @throws IllegalArgumentException if the path selects attributes
+    */
+   Iterable<StaxNavigator<N>> fork(PathExpression<N> path) throws NullPointerException, IllegalArgumentException;
+
+   /**
+    * Returns an iterable of the values selected by a path, the path is evaluated like {@link #fork(PathExpression)}.
+    * The values are the parsed attribute values when the path ends with an attribute step, otherwise they are the
+    * parsed trimmed contents of the matched elements, an element without content provides a null value. A value
+    * that cannot be parsed raises a {@link TypeConversionException} when it is iterated.
+    *
+    * @param path the path
+    * @param valueType the value type
+    * @param <V> the value type
+    * @return an iterable of the values
+    * @throws NullPointerException if any argument is null
+    */
+   <V> Iterable<V> select(PathExpression<N> path, ValueType<V> valueType) throws NullPointerException;
+
+   /**
+    * <p>Dispatches the elements matched by the paths of a dispatcher to their parsers in a single forward pass over
+    * the subtree of the current element. Each parser is invoked with a fork scoped to the matched element, the pass
+    * resumes after the parser returns whether or not the fork was fully navigated. The subtrees where no path can
+    * match are passed over, they are skipped at the stream level when subtree skipping is enabled.</p>
+    *
+    * <p>The navigator is moved to the matched elements as the pass goes. A runtime exception thrown by a parser is
+    * rethrown as is, any other exception is wrapped in a {@link StaxNavException}, the pass stops then.</p>
+    *
+    * @param dispatcher the dispatcher
+    * @throws NullPointerException if the dispatcher argument is null
+    * @throws StaxNavException any StaxNavException
+    */
+   void dispatch(Dispatcher<N> dispatcher) throws NullPointerException, StaxNavException;
+
    /**
     * Attempts to navigate to an element following the current one when it has the specified name.
     * If the navigation occurs, the navigator now points to that element and the method returns true.
@@ -295,6 +505,71 @@ public interface StaxNavigator<N>
     */
    String getAttribute(QName name) throws NullPointerException, StaxNavException;
 
+   /**
+    * Parses an attribute of the current element or returns null if such attribute does not exist.
+    *
+    * @param name the attribute name
+    * @param valueType the attribute value type
+    * @param <V> the generic type of the value
+    * @return the parsed attribute value
+    * @throws NullPointerException if any argument is null
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the a type conversion error occured
+    */
+   <V> V getAttribute(String name, ValueType<V> valueType) throws NullPointerException, StaxNavException, TypeConversionException;
+
+   /**
+    * Parses an attribute of the current element as an <code>int</code> or returns the default value if such
+    * attribute does not exist. The value is parsed without creating a boxed value, the leading and trailing
+    * whitespace are ignored.
+    *
+    * @param name the attribute name
+    * @param defaultValue the default value
+    * @return the parsed attribute value
+    * @throws NullPointerException if the name argument is null
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the value is not an <code>int</code>
+    */
+   int getIntAttribute(String name, int defaultValue) throws NullPointerException, StaxNavException, TypeConversionException;
+
+   /**
+    * Parses an attribute of the current element as a <code>long</code>, see {@link #getIntAttribute(String, int)}.
+    *
+    * @param name the attribute name
+    * @param defaultValue the default value
+    * @return the parsed attribute value
+    * @throws NullPointerException if the name argument is null
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the value is not a <code>long</code>
+    */
+   long getLongAttribute(String name, long defaultValue) throws NullPointerException, StaxNavException, TypeConversionException;
+
+   /**
+    * Parses an attribute of the current element as a <code>double</code> with the syntax of
+    * {@link #parseDoubleContent()}, see {@link #getIntAttribute(String, int)}.
+    *
+    * @param name the attribute name
+    * @param defaultValue the default value
+    * @return the parsed attribute value
+    * @throws NullPointerException if the name argument is null
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the value is not a <code>double</code>
+    */
+   double getDoubleAttribute(String name, double defaultValue) throws NullPointerException, StaxNavException, TypeConversionException;
+
+   /**
+    * Parses an attribute of the current element as a <code>boolean</code> with the syntax of
+    * {@link #parseBooleanContent()}, see {@link #getIntAttribute(String, int)}.
+    *
+    * @param name the attribute name
+    * @param defaultValue the default value
+    * @return the parsed attribute value
+    * @throws NullPointerException if the name argument is null
+    * @throws StaxNavException any StaxNavException
+    * @throws TypeConversionException when the value is not a <code>boolean</code>
+    */
+   boolean getBooleanAttribute(String name, boolean defaultValue) throws NullPointerException, StaxNavException, TypeConversionException;
+
    /**
     * Returns all attributes of the current element or null when the no valid node is being navigated.
     *
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Creates navigators for a naming with an input factory created once and reused for each navigator, which avoids
+ * the lookup of the input factory implementation performed by {@link XMLInputFactory#newInstance()}. The builder
+ * exposes the input factory properties that matter for the parsing performance:</p>
+ *
+ * <ul>
+ *    <li>coalescing, disabled by default, merges the adjacent text and CDATA sections in a single event</li>
+ *    <li>namespace awareness, by default it is disabled for the {@link Naming.Local} naming that ignores the
+ *    namespaces and enabled for the other namings</li>
+ *    <li>DTD support, disabled by default, the DTD and the external entities are not processed</li>
+ *    <li>the input buffer size, applied with the implementation specific properties supported by the input factory
+ *    and ignored otherwise</li>
+ *    <li>any other implementation specific property</li>
+ * </ul>
+ *
+ * <p>When the namespace awareness is disabled the prefix is part of the name of the elements, the namespace
+ * declarations are not processed and the namespace lookups return null.</p>
+ *
+ * <p>The builder is thread safe, once configured it can be shared to create navigators concurrently. The input factory
+ * is created when the first navigator is created and is never modified afterwards, modifying the configuration
+ * creates a new input factory for the next navigators.</p>
+ *
+ * @param <N> the name type
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class StaxNavigatorBuilder<N>
+{
+
+   /** The Woodstox input buffer length property. */
+   private static final String WOODSTOX_INPUT_BUFFER_LENGTH = "com.ctc.wstx.inputBufferLength";
+
+   /** The Xerces input buffer size property. */
+   private static final String XERCES_INPUT_BUFFER_SIZE = "http://apache.org/xml/properties/input-buffer-size";
+
+   /** . */
+   private final Naming<N> naming;
+
+   /** . */
+   private StaxNavigatorOptions options;
+
+   /** . */
+   private boolean coalescing;
+
+   /** . */
+   private Boolean namespaceAware;
+
+   /** . */
+   private boolean supportDTD;
+
+   /** . */
+   private int bufferSize;
+
+   /** . */
+   private final Map<String, Object> properties;
+
+   /** . */
+   private volatile XMLInputFactory factory;
+
+   public StaxNavigatorBuilder(Naming<N> naming) throws NullPointerException
+   {
+      if (naming == null)
+      {
+         throw new NullPointerException("No null naming accepted");
+      }
+
+      //
+      this.naming = naming;
+      this.options = new StaxNavigatorOptions();
+      this.coalescing = false;
+      this.namespaceAware = null;
+      this.supportDTD = false;
+      this.bufferSize = 0;
+      this.properties = new LinkedHashMap<String, Object>();
+      this.factory = null;
+   }
+
+   /**
+    * Returns the naming of the navigators.
+    *
+    * @return the naming
+    */
+   public Naming<N> getNaming()
+   {
+      return naming;
+   }
+
+   /**
+    * Returns the options of the navigators.
+    *
+    * @return the options
+    */
+   public synchronized StaxNavigatorOptions getOptions()
+   {
+      return options;
+   }
+
+   /**
+    * Configures the options of the navigators, the options are read each time a navigator is created.
+    *
+    * @param options the options
+    * @return this object
+    * @throws NullPointerException if the options are null
+    */
+   public synchronized StaxNavigatorBuilder<N> setOptions(StaxNavigatorOptions options) throws NullPointerException
+   {
+      if (options == null)
+      {
+         throw new NullPointerException("No null options accepted");
+      }
+      this.options = options;
+      return this;
+   }
+
+   /**
+    * Returns the coalescing configuration.
+    *
+    * @return true when coalescing is enabled
+    */
+   public synchronized boolean getCoalescing()
+   {
+      return coalescing;
+   }
+
+   /**
+    * Configures the coalescing of the adjacent text and CDATA sections.
+    *
+    * @param coalescing true to enable coalescing
+    * @return this object
+    */
+   public synchronized StaxNavigatorBuilder<N> setCoalescing(boolean coalescing)
+   {
+      this.coalescing = coalescing;
+      this.factory = null;
+      return this;
+   }
+
+   /**
+    * Returns the namespace awareness configuration.
+    *
+    * @return the namespace awareness or null when it depends on the naming
+    */
+   public synchronized Boolean getNamespaceAware()
+   {
+      return namespaceAware;
+   }
+
+   /**
+    * Configures the namespace awareness, when it is null the namespace awareness is disabled for the
+    * {@link Naming.Local} naming and enabled for the other namings.
+    *
+    * @param namespaceAware the namespace awareness or null
+    * @return this object
+    */
+   public synchronized StaxNavigatorBuilder<N> setNamespaceAware(Boolean namespaceAware)
+   {
+      this.namespaceAware = namespaceAware;
+      this.factory = null;
+      return this;
+   }
+
+   /**
+    * Returns the DTD support configuration.
+    *
+    * @return true when the DTD are supported
+    */
+   public synchronized boolean getSupportDTD()
+   {
+      return supportDTD;
+   }
+
+   /**
+    * Configures the DTD support, when it is disabled the DTD and the external entities are not processed.
+    *
+    * @param supportDTD true to support the DTD
+    * @return this object
+    */
+   public synchronized StaxNavigatorBuilder<N> setSupportDTD(boolean supportDTD)
+   {
+      this.supportDTD = supportDTD;
+      this.factory = null;
+      return this;
+   }
+
+   /**
+    * Returns the input buffer size.
+    *
+    * @return the input buffer size or 0 when the implementation default is used
+    */
+   public synchronized int getBufferSize()
+   {
+      return bufferSize;
+   }
+
+   /**
+    * Configures the size of the buffer the stream reader reads its input with. The size is set with the
+    * implementation specific properties supported by the input factory, Woodstox and Xerces for now, it is
+    * ignored by the other implementations.
+    *
+    * @param bufferSize the input buffer size or 0 to use the implementation default
+    * @return this object
+    * @throws IllegalArgumentException if the size is negative
+    */
+   public synchronized StaxNavigatorBuilder<N> setBufferSize(int bufferSize) throws IllegalArgumentException
+   {
+      if (bufferSize < 0)
+      {
+         throw new IllegalArgumentException("No negative buffer size accepted");
+      }
+      this.bufferSize = bufferSize;
+      this.factory = null;
+      return this;
+   }
+
+   /**
+    * Returns an input factory property configured by this builder.
+    *
+    * @param name the property name
+    * @return the property value or null
+    * @throws NullPointerException if the name is null
+    */
+   public synchronized Object getProperty(String name) throws NullPointerException
+   {
+      if (name == null)
+      {
+         throw new NullPointerException("No null name accepted");
+      }
+      return properties.get(name);
+   }
+
+   /**
+    * Configures an input factory property, the property overrides the configuration of this builder. The property
+    * must be supported by the input factory otherwise the navigator creation fails.
+    *
+    * @param name the property name
+    * @param value the property value or null to remove the property
+    * @return this object
+    * @throws NullPointerException if the name is null
+    */
+   public synchronized StaxNavigatorBuilder<N> setProperty(String name, Object value) throws NullPointerException
+   {
+      if (name == null)
+      {
+         throw new NullPointerException("No null name accepted");
+      }
+      if (value != null)
+      {
+         properties.put(name, value);
+      }
+      else
+      {
+         properties.remove(name);
+      }
+      this.factory = null;
+      return this;
+   }
+
+   public StaxNavigator<N> build(InputStream is) throws NullPointerException, StaxNavException
+   {
+      if (is == null)
+      {
+         throw new NullPointerException("No null input stream accepted");
+      }
+      return StaxNavigatorFactory.create(naming, getFactory(), is, getOptions());
+   }
+
+   public StaxNavigator<N> build(Reader reader) throws NullPointerException, StaxNavException
+   {
+      if (reader == null)
+      {
+         throw new NullPointerException("No null reader accepted");
+      }
+      return StaxNavigatorFactory.create(naming, getFactory(), reader, getOptions());
+   }
+
+   public StaxNavigator<N> build(FileChannel channel) throws NullPointerException, StaxNavException
+   {
+      if (channel == null)
+      {
+         throw new NullPointerException("No null channel accepted");
+      }
+      return build(StaxNavigatorFactory.map(channel));
+   }
+
+   public StaxNavigator<N> build(Path path) throws NullPointerException, StaxNavException
+   {
+      if (path == null)
+      {
+         throw new NullPointerException("No null path accepted");
+      }
+      return build(StaxNavigatorFactory.map(path));
+   }
+
+   private XMLInputFactory getFactory() throws StaxNavException
+   {
+      XMLInputFactory factory = this.factory;
+      if (factory == null)
+      {
+         synchronized (this)
+         {
+            factory = this.factory;
+            if (factory == null)
+            {
+               this.factory = factory = createFactory();
+            }
+         }
+      }
+      return factory;
+   }
+
+   private XMLInputFactory createFactory() throws StaxNavException
+   {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      boolean aware = namespaceAware != null ? namespaceAware : !(naming instanceof Naming.Local);
+      try
+      {
+         factory.setProperty(XMLInputFactory.IS_COALESCING, coalescing);
+         factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, aware);
+         factory.setProperty(XMLInputFactory.SUPPORT_DTD, supportDTD);
+         factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, supportDTD);
+         if (bufferSize > 0)
+         {
+            if (factory.isPropertySupported(WOODSTOX_INPUT_BUFFER_LENGTH))
+            {
+               factory.setProperty(WOODSTOX_INPUT_BUFFER_LENGTH, bufferSize);
+            }
+            if (factory.isPropertySupported(XERCES_INPUT_BUFFER_SIZE))
+            {
+               factory.setProperty(XERCES_INPUT_BUFFER_SIZE, bufferSize);
+            }
+         }
+         for (Map.Entry<String, Object> property : properties.entrySet())
+         {
+            factory.setProperty(property.getKey(), property.getValue());
+         }
+      }
+      catch (IllegalArgumentException e)
+      {
+         throw new StaxNavException("Could not configure the input factory", e);
+      }
+      return factory;
+   }
+}
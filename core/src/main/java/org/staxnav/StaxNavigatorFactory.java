@@ -21,10 +21,18 @@ package org.staxnav;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
+ * Creates navigators with static methods, the stream readers are created by an input factory with the default
+ * configuration that is looked up once. The {@link StaxNavigatorBuilder} creates navigators with a configured
+ * input factory.
+ *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
@@ -32,6 +40,31 @@ public class StaxNavigatorFactory
 {
 
    public static <N> StaxNavigator<N> create(Naming<N> naming, XMLStreamReader stream) throws NullPointerException, StaxNavException
+   {
+      return create(naming, stream, new StaxNavigatorOptions());
+   }
+
+   public static <N> StaxNavigator<N> create(Naming<N> naming, InputStream is) throws NullPointerException, StaxNavException
+   {
+      return create(naming, is, new StaxNavigatorOptions());
+   }
+
+   public static <N> StaxNavigator<N> create(Naming<N> naming, Reader reader) throws NullPointerException, StaxNavException
+   {
+      return create(naming, reader, new StaxNavigatorOptions());
+   }
+
+   public static <N> StaxNavigator<N> create(Naming<N> naming, FileChannel channel) throws NullPointerException, StaxNavException
+   {
+      return create(naming, channel, new StaxNavigatorOptions());
+   }
+
+   public static <N> StaxNavigator<N> create(Naming<N> naming, Path path) throws NullPointerException, StaxNavException
+   {
+      return create(naming, path, new StaxNavigatorOptions());
+   }
+
+   public static <N> StaxNavigator<N> create(Naming<N> naming, XMLStreamReader stream, StaxNavigatorOptions options) throws NullPointerException, StaxNavException
    {
       if (naming == null)
       {
@@ -41,9 +74,13 @@ public class StaxNavigatorFactory
       {
          throw new NullPointerException("No null stream accepted");
       }
+      if (options == null)
+      {
+         throw new NullPointerException("No null options accepted");
+      }
       try
       {
-         return new StaxNavigatorImpl<N>(naming, stream);
+         return new StaxNavigatorImpl<N>(naming, stream, options);
       }
       catch (XMLStreamException e)
       {
@@ -51,7 +88,7 @@ public class StaxNavigatorFactory
       }
    }
 
-   public static <N> StaxNavigator<N> create(Naming<N> naming, InputStream is) throws NullPointerException, StaxNavException
+   public static <N> StaxNavigator<N> create(Naming<N> naming, InputStream is, StaxNavigatorOptions options) throws NullPointerException, StaxNavException
    {
       if (naming == null)
       {
@@ -61,19 +98,14 @@ public class StaxNavigatorFactory
       {
          throw new NullPointerException("No null input stream accepted");
       }
-      try
+      if (options == null)
       {
-         XMLInputFactory factory = XMLInputFactory.newInstance();
-         XMLStreamReader stream = factory.createXMLStreamReader(is);
-         return new StaxNavigatorImpl<N>(naming, stream);
-      }
-      catch (XMLStreamException e)
-      {
-         throw new StaxNavException(e);
+         throw new NullPointerException("No null options accepted");
       }
+      return create(naming, DefaultFactory.INSTANCE, is, options);
    }
 
-   public static <N> StaxNavigator<N> create(Naming<N> naming, Reader reader) throws NullPointerException, StaxNavException
+   public static <N> StaxNavigator<N> create(Naming<N> naming, Reader reader, StaxNavigatorOptions options) throws NullPointerException, StaxNavException
    {
       if (naming == null)
       {
@@ -83,15 +115,122 @@ public class StaxNavigatorFactory
       {
          throw new NullPointerException("No null reader accepted");
       }
+      if (options == null)
+      {
+         throw new NullPointerException("No null options accepted");
+      }
+      return create(naming, DefaultFactory.INSTANCE, reader, options);
+   }
+
+   /**
+    * Creates a navigator parsing a file channel from its current position, the file is mapped in memory and the
+    * navigator parses the mapping. Files larger than 2GB are mapped in several windows. The mapping does not depend
+    * on the channel once the navigator is created.
+    *
+    * @param naming the naming
+    * @param channel the file channel
+    * @param options the options
+    * @param <N> the name type
+    * @return the navigator
+    * @throws NullPointerException if any argument is null
+    * @throws StaxNavException if the file cannot be mapped or parsed
+    */
+   public static <N> StaxNavigator<N> create(Naming<N> naming, FileChannel channel, StaxNavigatorOptions options) throws NullPointerException, StaxNavException
+   {
+      if (channel == null)
+      {
+         throw new NullPointerException("No null channel accepted");
+      }
+      return create(naming, map(channel), options);
+   }
+
+   /**
+    * Creates a navigator parsing a file, the file is mapped in memory and the navigator parses the mapping. Files
+    * larger than 2GB are mapped in several windows.
+    *
+    * @param naming the naming
+    * @param path the file path
+    * @param options the options
+    * @param <N> the name type
+    * @return the navigator
+    * @throws NullPointerException if any argument is null
+    * @throws StaxNavException if the file cannot be mapped or parsed
+    */
+   public static <N> StaxNavigator<N> create(Naming<N> naming, Path path, StaxNavigatorOptions options) throws NullPointerException, StaxNavException
+   {
+      if (path == null)
+      {
+         throw new NullPointerException("No null path accepted");
+      }
+      return create(naming, map(path), options);
+   }
+
+   static <N> StaxNavigator<N> create(Naming<N> naming, XMLInputFactory factory, InputStream is, StaxNavigatorOptions options) throws StaxNavException
+   {
+      try
+      {
+         XMLStreamReader stream = factory.createXMLStreamReader(is);
+         return new StaxNavigatorImpl<N>(naming, stream, options);
+      }
+      catch (XMLStreamException e)
+      {
+         throw new StaxNavException(e);
+      }
+   }
+
+   static <N> StaxNavigator<N> create(Naming<N> naming, XMLInputFactory factory, Reader reader, StaxNavigatorOptions options) throws StaxNavException
+   {
       try
       {
-         XMLInputFactory factory = XMLInputFactory.newInstance();
          XMLStreamReader stream = factory.createXMLStreamReader(reader);
-         return new StaxNavigatorImpl<N>(naming, stream);
+         return new StaxNavigatorImpl<N>(naming, stream, options);
       }
       catch (XMLStreamException e)
       {
          throw new StaxNavException(e);
       }
    }
+
+   static InputStream map(FileChannel channel) throws StaxNavException
+   {
+      try
+      {
+         return new MappedInputStream(channel, channel.position());
+      }
+      catch (IOException e)
+      {
+         throw new StaxNavException("Could not map the file channel", e);
+      }
+   }
+
+   static InputStream map(Path path) throws StaxNavException
+   {
+      try
+      {
+         FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+         try
+         {
+            return new MappedInputStream(channel, 0);
+         }
+         finally
+         {
+            channel.close();
+         }
+      }
+      catch (IOException e)
+      {
+         throw new StaxNavException("Could not map the file " + path, e);
+      }
+   }
+
+   /**
+    * Holds the input factory used by the static methods, it is created once with its default configuration when
+    * it is first needed and is never modified afterwards so it can create stream readers concurrently.
+    */
+   private static class DefaultFactory
+   {
+
+      /** . */
+      private static final XMLInputFactory INSTANCE = XMLInputFactory.newInstance();
+   }
 }
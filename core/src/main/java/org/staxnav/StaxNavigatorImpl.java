@@ -25,14 +25,30 @@ import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -41,6 +57,9 @@ import java.util.Set;
 class StaxNavigatorImpl<N> implements StaxNavigator<N>
 {
 
+   /** The number of base64 characters decoded at once. */
+   private static final int BINARY_CHUNK_SIZE = 8192;
+
    /** . */
    private final Naming<N> naming;
 
@@ -53,7 +72,19 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
    /** . */
    private boolean trimContent;
 
-   StaxNavigatorImpl(Naming<N> naming, XMLStreamReader stream) throws XMLStreamException
+   /** True when the navigator is validated before it is used, see {@link StaxNavigatorOptions#setStreaming(boolean)}. */
+   private final boolean streaming;
+
+   /** The root entry of a streaming fork or null. */
+   private final Entry root;
+
+   /** The sequence number of the root entry of a streaming fork. */
+   private final long rootSequence;
+
+   /** The sequence number of the current entry. */
+   private long sequence;
+
+   StaxNavigatorImpl(Naming<N> naming, XMLStreamReader stream, StaxNavigatorOptions options) throws XMLStreamException
    {
       if (naming == null)
       {
@@ -63,12 +94,33 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       {
          throw new NullPointerException();
       }
+      if (options == null)
+      {
+         throw new NullPointerException();
+      }
+
+      //
+      Entry current;
+      if (options.getIndexed())
+      {
+         current = new Index(stream, options).getRoot();
+      }
+      else
+      {
+         Context context = new Context(stream, options);
+         context.owner = this;
+         current = new HeadEntry(context);
+      }
 
       //
       this.naming = naming;
-      this.current = new HeadEntry(stream);
+      this.current = current;
       this.depth = 0;
       this.trimContent = false;
+      this.streaming = current.isStreaming();
+      this.root = null;
+      this.rootSequence = 0;
+      this.sequence = current.getSequence();
    }
 
    private StaxNavigatorImpl(Naming<N> naming, Entry current, boolean trimContent)
@@ -77,10 +129,59 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       this.current = current;
       this.depth = current.getElement().getDepth();
       this.trimContent = trimContent;
+      this.streaming = current.isStreaming();
+      this.root = streaming ? current : null;
+      this.rootSequence = current.getSequence();
+      this.sequence = rootSequence;
+   }
+
+   /**
+    * Checks that a streaming navigator is still valid and makes it the owner of the stream, so its current element
+    * and the ancestors of that element are not recycled. A navigator is not valid anymore when its current element
+    * was recycled, a fork is not valid anymore when the navigator owning the stream moved past the fork root.
+    *
+    * @throws StaxNavException when the navigator is not valid anymore
+    */
+   private void check() throws StaxNavException
+   {
+      if (streaming)
+      {
+         StaxNavigatorImpl<?> owner = current.setOwner(this);
+         if (owner != this && owner != null)
+         {
+            String failure = null;
+            if (current.getSequence() != sequence)
+            {
+               failure = "its current element was recycled";
+            }
+            else if (root != null && (root.getSequence() != rootSequence || !isAncestorOrSelf(root.getElement(), owner.current.getElement())))
+            {
+               failure = "the navigation moved past the element it was forked from";
+            }
+            if (failure != null)
+            {
+               current.setOwner(owner);
+               throw new StaxNavException("The navigator is not valid anymore, " + failure);
+            }
+         }
+      }
+   }
+
+   private static boolean isAncestorOrSelf(Element ancestor, Element element)
+   {
+      for (;element != null && element.getDepth() >= ancestor.getDepth();element = element.getParent())
+      {
+         if (element == ancestor)
+         {
+            return true;
+         }
+      }
+      return false;
    }
 
    public N getName() throws StaxNavException
    {
+      check();
       return current.getElement().getName(naming);
    }
 
@@ -91,21 +192,25 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
 
    public String getLocalName() throws StaxNavException
    {
-      return current.getElement().getName().getLocalPart();
+      check();
+      return current.getElement().getLocalName();
    }
 
    public QName getQName() throws StaxNavException
    {
-      return current.getElement().getName();
+      check();
+      return current.getElement().getQName();
    }
 
    public Location getLocation() throws StaxNavException
    {
+      check();
       return current.getElement().getLocation();
    }
 
    public int getDepth() throws StaxNavException
    {
+      check();
       return current.getElement().getDepth();
    }
 
@@ -121,7 +226,61 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
 
    public String getContent() throws StaxNavException
    {
-      return current.getElement().getContent(trimContent);
+      check();
+      return current.getContent(trimContent);
+   }
+
+   public Reader getContentReader() throws StaxNavException
+   {
+      check();
+      return current.getContentReader();
+   }
+
+   public long readBinaryContent(OutputStream out) throws NullPointerException, IOException, StaxNavException, TypeConversionException
+   {
+      if (out == null)
+      {
+         throw new NullPointerException("No null output stream accepted");
+      }
+      check();
+      Reader reader = current.getContentReader();
+      char[] chars = new char[BINARY_CHUNK_SIZE];
+      byte[] bytes = new byte[Base64Decoder.getMaxDecodedLength(BINARY_CHUNK_SIZE)];
+      Base64Decoder decoder = new Base64Decoder();
+      long size = 0;
+      try
+      {
+         for (int count = reader.read(chars);count != -1;count = reader.read(chars))
+         {
+            int length = decoder.decode(chars, 0, count, bytes);
+            out.write(bytes, 0, length);
+            size += length;
+         }
+         int length = decoder.finish(bytes, 0);
+         out.write(bytes, 0, length);
+         size += length;
+      }
+      catch (IllegalArgumentException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not decode the base64 content");
+      }
+      return size;
+   }
+
+   public long readBinaryContent(WritableByteChannel channel) throws NullPointerException, IOException, StaxNavException, TypeConversionException
+   {
+      if (channel == null)
+      {
+         throw new NullPointerException("No null channel accepted");
+      }
+      return readBinaryContent(Channels.newOutputStream(channel));
+   }
+
+   public CharSequence getContentSequence() throws StaxNavException
+   {
+      check();
+      CharSequence content = current.getContentSequence(true);
+      return content != null && trimContent ? ContentSequence.trim(content) : content;
    }
 
    public <V> V parseContent(ValueType<V> valueType) throws IllegalStateException, NullPointerException, StaxNavException
@@ -130,8 +289,9 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       {
          throw new NullPointerException();
       }
+      check();
       Entry element = current;
-      String content = element.getElement().getContent(true);
+      String content = element.getContent(true);
       if (content == null)
       {
          throw new IllegalStateException("No content available for parsing");
@@ -153,17 +313,84 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       }
    }
 
-   public String getAttribute(String name) throws NullPointerException, IllegalStateException, StaxNavException
+   public int parseIntContent() throws IllegalStateException, StaxNavException, TypeConversionException
+   {
+      CharSequence content = getParsableContent();
+      try
+      {
+         return Primitives.parseInt(content);
+      }
+      catch (NumberFormatException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse string value " + content);
+      }
+   }
+
+   public long parseLongContent() throws IllegalStateException, StaxNavException, TypeConversionException
    {
-      Map<String, String> attributes = current.getElement().getAttributes();
-      if (attributes.isEmpty())
+      CharSequence content = getParsableContent();
+      try
       {
-         return null;
+         return Primitives.parseLong(content);
       }
-      else
+      catch (NumberFormatException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse string value " + content);
+      }
+   }
+
+   public double parseDoubleContent() throws IllegalStateException, StaxNavException, TypeConversionException
+   {
+      CharSequence content = getParsableContent();
+      try
+      {
+         return Primitives.parseDouble(content);
+      }
+      catch (NumberFormatException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse string value " + content);
+      }
+   }
+
+   public boolean parseBooleanContent() throws IllegalStateException, StaxNavException, TypeConversionException
+   {
+      CharSequence content = getParsableContent();
+      try
+      {
+         return Primitives.parseBoolean(content);
+      }
+      catch (IllegalArgumentException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse string value " + content);
+      }
+   }
+
+   /**
+    * Returns the content of the current element for parsing it.
+    *
+    * @return the content
+    * @throws IllegalStateException if the current element has no content
+    * @throws StaxNavException any StaxNavException
+    */
+   private CharSequence getParsableContent() throws IllegalStateException, StaxNavException
+   {
+      check();
+      CharSequence content = current.getContentSequence(false);
+      if (content == null)
+      {
+         throw new IllegalStateException("No content available for parsing");
+      }
+      return content;
+   }
+
+   public String getAttribute(String name) throws NullPointerException, IllegalStateException, StaxNavException
+   {
+      if (name == null)
       {
-         return attributes.get(name);
+         throw new NullPointerException("No null attribute name expected");
       }
+      check();
+      return current.getElement().getAttribute(XMLConstants.NULL_NS_URI, name);
    }
 
    public StaxNavigator<N> fork() throws StaxNavException
@@ -177,11 +404,22 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       {
          throw new NullPointerException("No null axis accepted");
       }
-      StaxNavigatorImpl<N> fork = new StaxNavigatorImpl<N>(naming, current, trimContent);
+      check();
+      Entry root;
+      if (streaming && (axis == Axis.FOLLOWING_SIBLING || axis == Axis.NEXT && !hasChild(current)))
+      {
+         // The navigation moves past the forked element, the fork navigates a copy of its subtree
+         root = detach(current);
+      }
+      else
+      {
+         root = current.fork();
+      }
+      StaxNavigatorImpl<N> fork = new StaxNavigatorImpl<N>(naming, root, trimContent);
       Entry next = _navigate(current, axis, null);
       if (next != null)
       {
-         current = next;
+         setCurrent(next);
       }
       return fork;
    }
@@ -191,7 +429,7 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       return fork(Axis.FOLLOWING_SIBLING, name);
    }
 
-   public Iterable<StaxNavigator<N>> fork(Axis axis, N name)
+   public Iterable<StaxNavigator<N>> fork(final Axis axis, final N name)
    {
       if (axis == null)
       {
@@ -202,48 +440,51 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
          throw new NullPointerException("No null name accepted");
       }
 
-      //
-      List<Entry> elements;
-      if (name.equals(getName()))
-      {
-         elements = new ArrayList<Entry>();
-         elements.add(current);
-      }
-      else
-      {
-         elements = Collections.emptyList();
-      }
-
-      //
-      while (navigate(axis, name))
-      {
-         if (elements.isEmpty())
-         {
-            elements = new LinkedList<Entry>();
-         }
-         elements.add(current);
-      }
-
       // Freeze what we need
-      final List<Entry> a = elements;
       final boolean trimContent = this.trimContent;
 
-      //
+      // The forks are found as the iterator is consumed
       return new Iterable<StaxNavigator<N>>()
       {
+         boolean iterated = false;
          public Iterator<StaxNavigator<N>> iterator()
          {
+            if (iterated)
+            {
+               throw new IllegalStateException("The forks can be iterated once");
+            }
+            iterated = true;
             return new Iterator<StaxNavigator<N>>()
             {
-               Iterator<Entry> i = a.iterator();
+               boolean first = true;
+               boolean done = false;
+               StaxNavigator<N> next = null;
                public boolean hasNext()
                {
-                  return i.hasNext();
+                  if (next == null && !done)
+                  {
+                     boolean found = _fork(axis, name, first);
+                     first = false;
+                     if (found)
+                     {
+                        next = new StaxNavigatorImpl<N>(naming, current.fork(), trimContent);
+                     }
+                     else
+                     {
+                        done = true;
+                     }
+                  }
+                  return next != null;
                }
                public StaxNavigator<N> next()
                {
-                  Entry next = i.next();
-                  return new StaxNavigatorImpl<N>(naming, next, trimContent);
+                  if (!hasNext())
+                  {
+                     throw new NoSuchElementException();
+                  }
+                  StaxNavigator<N> fork = next;
+                  next = null;
+                  return fork;
                }
                public void remove()
                {
@@ -254,598 +495,3021 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       };
    }
 
-   public String getAttribute(QName name) throws NullPointerException, IllegalStateException, StaxNavException
+   public int fork(N name, Parser<N> parser) throws NullPointerException, StaxNavException
+   {
+      return fork(Axis.FOLLOWING_SIBLING, name, parser);
+   }
+
+   public int fork(Axis axis, N name, Parser<N> parser) throws NullPointerException, StaxNavException
    {
+      if (axis == null)
+      {
+         throw new NullPointerException("No null axis accepted");
+      }
       if (name == null)
       {
-         throw new NullPointerException("No null attribute name expected");
+         throw new NullPointerException("No null name accepted");
       }
-      if (XMLConstants.NULL_NS_URI.equals(name.getNamespaceURI()))
+      if (parser == null)
       {
-         return getAttribute(name.getLocalPart());
+         throw new NullPointerException("No null parser accepted");
       }
-      else
+      int count = 0;
+      for (boolean found = _fork(axis, name, true);found;found = navigate(axis, name))
       {
-         Map<QName, String> qualifiedAttributes = current.getElement().getQualifiedAttributes();
-         if (qualifiedAttributes.isEmpty())
+         // The scoped navigator owns the stream while it navigates the subtree in place
+         StaxNavigatorImpl<N> scoped = new StaxNavigatorImpl<N>(naming, current, trimContent);
+         StaxNavigatorImpl<?> owner = current.setOwner(scoped);
+         try
          {
-            return null;
+            parse(parser, scoped);
          }
-         else
+         finally
          {
-            return qualifiedAttributes.get(name);
+            current.setOwner(owner);
          }
+         count++;
       }
+      return count;
    }
 
-   public Map<String, String> getAttributes() throws NullPointerException, IllegalStateException, StaxNavException
+   public <V> Iterable<V> forkParallel(final N name, final Executor executor, final ForkTask<N, V> task, final boolean ordered) throws NullPointerException
    {
-      Map<String, String> attributes = current.getElement().getAttributes();
-      if (attributes.isEmpty())
+      if (name == null)
       {
-         return Collections.emptyMap();
+         throw new NullPointerException("No null name accepted");
       }
-      else
+      if (executor == null)
       {
-         return attributes;
-      }
-   }
-
-   public Map<QName, String> getQualifiedAttributes() throws NullPointerException, IllegalStateException, StaxNavException
-   {
-      Map<QName, String> qualifiedAttributes = current.getElement().getQualifiedAttributes();
-      Map<String, String> attributes = getAttributes();
-      if (!attributes.isEmpty()) {
-        if (qualifiedAttributes.isEmpty()) {
-          qualifiedAttributes = new HashMap<QName, String>(qualifiedAttributes);
-        }
-        for (String key : attributes.keySet()) {
-           qualifiedAttributes.put(new QName(key), attributes.get(key));
-        }
+         throw new NullPointerException("No null executor accepted");
       }
-      if (qualifiedAttributes.isEmpty())
+      if (task == null)
       {
-         return Collections.emptyMap();
+         throw new NullPointerException("No null task accepted");
       }
-      else
+
+      // Freeze what we need
+      final boolean trimContent = this.trimContent;
+      final int maxInFlight = Runtime.getRuntime().availableProcessors() << 1;
+
+      //
+      return new Iterable<V>()
       {
-         return qualifiedAttributes;
-      }
+         boolean iterated = false;
+         public Iterator<V> iterator()
+         {
+            if (iterated)
+            {
+               throw new IllegalStateException("The results can be iterated once");
+            }
+            iterated = true;
+            return new Iterator<V>()
+            {
+               boolean first = true;
+               boolean done = false;
+               int inFlight = 0;
+               LinkedList<Future<V>> submitted = new LinkedList<Future<V>>();
+               CompletionService<V> completion = ordered ? null : new ExecutorCompletionService<V>(executor);
+               public boolean hasNext()
+               {
+                  while (!done && inFlight < maxInFlight)
+                  {
+                     if (_fork(Axis.FOLLOWING_SIBLING, name, first))
+                     {
+                        final StaxNavigator<N> fork = new StaxNavigatorImpl<N>(naming, detach(current), trimContent);
+                        Callable<V> callable = new Callable<V>()
+                        {
+                           public V call() throws Exception
+                           {
+                              return task.execute(fork);
+                           }
+                        };
+                        if (ordered)
+                        {
+                           FutureTask<V> future = new FutureTask<V>(callable);
+                           executor.execute(future);
+                           submitted.addLast(future);
+                        }
+                        else
+                        {
+                           completion.submit(callable);
+                        }
+                        inFlight++;
+                     }
+                     else
+                     {
+                        done = true;
+                     }
+                     first = false;
+                  }
+                  return inFlight > 0;
+               }
+               public V next()
+               {
+                  if (!hasNext())
+                  {
+                     throw new NoSuchElementException();
+                  }
+                  inFlight--;
+                  try
+                  {
+                     Future<V> future = ordered ? submitted.removeFirst() : completion.take();
+                     return future.get();
+                  }
+                  catch (InterruptedException e)
+                  {
+                     Thread.currentThread().interrupt();
+                     throw new StaxNavException("Interrupted while waiting for a fork task", e);
+                  }
+                  catch (ExecutionException e)
+                  {
+                     Throwable cause = e.getCause();
+                     if (cause instanceof RuntimeException)
+                     {
+                        throw (RuntimeException)cause;
+                     }
+                     else if (cause instanceof Error)
+                     {
+                        throw (Error)cause;
+                     }
+                     else
+                     {
+                        throw new StaxNavException("The fork task failed", cause);
+                     }
+                  }
+               }
+               public void remove()
+               {
+                  throw new UnsupportedOperationException();
+               }
+            };
+         }
+      };
    }
 
-  public String getNamespaceByPrefix(String prefix) throws NullPointerException, StaxNavException
+   public Iterable<StaxNavigator<N>> fork(final PathExpression<N> path) throws NullPointerException, IllegalArgumentException
    {
-      if (prefix == null)
+      if (path == null)
       {
-         throw new NullPointerException();
+         throw new NullPointerException("No null path accepted");
+      }
+      if (path.selectsAttribute())
+      {
+         throw new IllegalArgumentException("The path " + path + " selects attributes");
       }
-      return current.getElement().getNamespaceByPrefix(prefix);
-   }
 
-   // Axis methods
+      // Freeze what we need
+      final boolean trimContent = this.trimContent;
 
-   public N next() throws StaxNavException
-   {
-      return navigate(Axis.NEXT);
+      // The forks are found as the iterator is consumed
+      return new Iterable<StaxNavigator<N>>()
+      {
+         boolean iterated = false;
+         public Iterator<StaxNavigator<N>> iterator()
+         {
+            if (iterated)
+            {
+               throw new IllegalStateException("The forks can be iterated once");
+            }
+            iterated = true;
+            final PathMatcher matcher = new PathMatcher(path);
+            return new Iterator<StaxNavigator<N>>()
+            {
+               StaxNavigator<N> next = null;
+               public boolean hasNext()
+               {
+                  if (next == null && matcher.find())
+                  {
+                     next = new StaxNavigatorImpl<N>(naming, current.fork(), trimContent);
+                  }
+                  return next != null;
+               }
+               public StaxNavigator<N> next()
+               {
+                  if (!hasNext())
+                  {
+                     throw new NoSuchElementException();
+                  }
+                  StaxNavigator<N> fork = next;
+                  next = null;
+                  return fork;
+               }
+               public void remove()
+               {
+                  throw new UnsupportedOperationException();
+               }
+            };
+         }
+      };
    }
 
-   public boolean next(N name) throws StaxNavException
+   public <V> Iterable<V> select(final PathExpression<N> path, final ValueType<V> valueType) throws NullPointerException
    {
-      return navigate(Axis.NEXT, name);
-   }
+      if (path == null)
+      {
+         throw new NullPointerException("No null path accepted");
+      }
+      if (valueType == null)
+      {
+         throw new NullPointerException("No null value type accepted");
+      }
 
-   public N child() throws StaxNavException
-   {
-      return navigate(Axis.CHILD);
-   }
-
-   public boolean child(N name) throws NullPointerException, StaxNavException
-   {
-      return navigate(Axis.CHILD, name);
-   }
-
-   public N sibling() throws StaxNavException
-   {
-      return navigate(Axis.FOLLOWING_SIBLING);
-   }
-
-   public boolean sibling(N name) throws NullPointerException, StaxNavException
-   {
-      return navigate(Axis.FOLLOWING_SIBLING, name);
+      // The values are found as the iterator is consumed
+      return new Iterable<V>()
+      {
+         boolean iterated = false;
+         public Iterator<V> iterator()
+         {
+            if (iterated)
+            {
+               throw new IllegalStateException("The values can be iterated once");
+            }
+            iterated = true;
+            final PathMatcher matcher = new PathMatcher(path);
+            return new Iterator<V>()
+            {
+               boolean ready = false;
+               V next = null;
+               public boolean hasNext()
+               {
+                  if (!ready && matcher.find())
+                  {
+                     next = matcher.getValue(valueType);
+                     ready = true;
+                  }
+                  return ready;
+               }
+               public V next()
+               {
+                  if (!hasNext())
+                  {
+                     throw new NoSuchElementException();
+                  }
+                  V value = next;
+                  next = null;
+                  ready = false;
+                  return value;
+               }
+               public void remove()
+               {
+                  throw new UnsupportedOperationException();
+               }
+            };
+         }
+      };
    }
 
-   public N navigate(Axis axis) throws StaxNavException
+   public void dispatch(Dispatcher<N> dispatcher) throws NullPointerException, StaxNavException
    {
-      Entry entry = _navigate(current, axis, null);
-      if (entry != null)
+      if (dispatcher == null)
       {
-         current = entry;
-         return getName();
+         throw new NullPointerException("No null dispatcher accepted");
       }
-      else
+      check();
+      PathExpression<N>[] paths = dispatcher.getPaths();
+      Parser<N>[] parsers = dispatcher.getParsers();
+      if (paths.length > 0)
       {
-         return null;
+         PathMatcher matcher = new PathMatcher(paths);
+         while (matcher.find())
+         {
+            for (int i = 0;i < paths.length;i++)
+            {
+               if (matcher.isMatched(i))
+               {
+                  parse(parsers[i], new StaxNavigatorImpl<N>(naming, current.fork(), trimContent));
+               }
+            }
+         }
       }
    }
 
-   public boolean navigate(Axis axis, N name) throws StaxNavException
+   /**
+    * Invokes a parser, the exceptions that are not runtime exceptions are wrapped in a {@link StaxNavException}.
+    *
+    * @param parser the parser
+    * @param navigator the navigator
+    * @param <N> the name type
+    * @throws StaxNavException any StaxNavException
+    */
+   private static <N> void parse(Parser<N> parser, StaxNavigator<N> navigator) throws StaxNavException
    {
-      if (name == null)
+      try
       {
-         throw new NullPointerException("No null name accepted");
+         parser.parse(navigator);
       }
-      Entry entry = _navigate(current, axis, name);
-      if (entry != null)
+      catch (RuntimeException e)
       {
-         current = entry;
-         return true;
+         throw e;
       }
-      else
+      catch (Error e)
       {
-         return false;
+         throw e;
+      }
+      catch (Exception e)
+      {
+         throw new StaxNavException("The parser failed", e);
       }
    }
 
-   private Entry _navigate(Entry current, Axis axis, N name)
+   /**
+    * Moves to the next element of a fork iteration.
+    *
+    * @param axis the axis
+    * @param name the name
+    * @param first true for the first element, the current element is then matched
+    * @return true when an element was found
+    * @throws StaxNavException any StaxNavException
+    */
+   private boolean _fork(Axis axis, N name, boolean first) throws StaxNavException
    {
-      switch (axis)
+      if (first && name.equals(getName()))
       {
-         case SELF:
-            return _current(current, name);
-         case NEXT:
-            return _next(current, name);
-         case CHILD:
-            return _child(current, name);
-         case FOLLOWING_SIBLING:
-            return _sibling(current, name);
-         case FOLLOWING:
-            return _following(current, name);
-         default:
-            throw new AssertionError();
+         return true;
       }
+      return navigate(axis, name);
    }
 
-   private Entry _current(Entry current, N name) throws StaxNavException
+   /**
+    * Returns true when the element of an entry has a child element.
+    *
+    * @param entry the entry
+    * @return true if the element has a child
+    * @throws StaxNavException any StaxNavException
+    */
+   private static boolean hasChild(Entry entry) throws StaxNavException
    {
-      if (current != null)
-      {
-         if (name == null ||name.equals(naming.getName(current.getElement().getName())))
-         {
-            return current;
-         }
-      }
-      return null;
+      Entry next = entry.next();
+      return next != null && next.getElement().getDepth() > entry.getElement().getDepth();
    }
 
-   private Entry _next(Entry current, N name) throws StaxNavException
+   /**
+    * Detaches the subtree of an entry: the subtree is read from the stream and copied into entries that do not
+    * share any state with the stream entries, they can be navigated by another thread.
+    *
+    * @param entry the entry to detach
+    * @return the detached entry
+    * @throws StaxNavException any StaxNavException
+    */
+   private static Entry detach(Entry entry) throws StaxNavException
    {
-      if (current != null)
+      entry.pin();
+      Element root = entry.getElement();
+      Context context = new Context(null, new StaxNavigatorOptions());
+
+      // The copies of the subtree elements by depth level, starting with the copied ancestors of the root
+      Element[] copies = new Element[root.getDepth() + 1];
+      for (Element ancestor = root;ancestor != null;ancestor = ancestor.getParent())
       {
-         Entry next = current.next(depth);
-         if (next != null && (name == null || name.equals(naming.getName(next.getElement().getName()))))
+         copies[ancestor.getDepth()] = ancestor;
+      }
+      for (int i = 1;i < root.getDepth();i++)
+      {
+         copies[i] = copies[i].copy(copies[i - 1]);
+      }
+
+      // An element is copied once the next entry is obtained, its content is read then
+      StreamEntry head = null;
+      StreamEntry last = null;
+      Entry next = entry;
+      do
+      {
+         Entry following = next.next();
+         Element element = next.getElement();
+         if (element.getDepth() >= copies.length)
          {
-            current = next;
-            return current;
+            Element[] tmp = new Element[copies.length << 1];
+            System.arraycopy(copies, 0, tmp, 0, copies.length);
+            copies = tmp;
+         }
+         copies[element.getDepth()] = element.copy(copies[element.getDepth() - 1]);
+         StreamEntry copy = new StreamEntry(context, copies[element.getDepth()]);
+         copy.seq = ++context.count;
+         if (last == null)
+         {
+            head = copy;
+         }
+         else
+         {
+            last.next = copy;
          }
+         last = copy;
+         next = following;
       }
-      return null;
+      while (next != null && next.getElement().getDepth() > root.getDepth());
+      context.tail = last;
+      return head;
    }
 
-   private Entry _child(Entry current, N name) throws StaxNavException
+   /**
+    * The evaluation of paths over the subtree of the current element, the elements matched by any of the paths are
+    * found in a single forward pass. The states of a path active for an element are the bits of a long computed from
+    * the states active for its parent: a state is active when its step can match the element children. The subtree
+    * of an element for which no state of any path is active is skipped.
+    */
+   private class PathMatcher
    {
-      if (current != null)
+
+      /** . */
+      private final PathExpression<N>[] paths;
+
+      /** . */
+      private final int rootDepth;
+
+      /** The states of each path by level, the level of an element is its depth relative to the root plus one. */
+      private long[][] states;
+
+      /** The paths matched by the last matched entry. */
+      private final boolean[] matches;
+
+      /** The entry to evaluate or the last matched entry, null when the evaluation is done. */
+      private Entry entry;
+
+      /** The states of all paths active for the last matched entry. */
+      private long active;
+
+      /** True when the entry was matched, the evaluation resumes after the entry. */
+      private boolean matched;
+
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      private PathMatcher(PathExpression<N> path) throws StaxNavException
       {
-         Entry element = current;
-         while (true)
+         this(new PathExpression[]{path});
+      }
+
+      private PathMatcher(PathExpression<N>[] paths) throws StaxNavException
+      {
+         this.paths = paths;
+         this.rootDepth = current.getElement().getDepth();
+         this.states = new long[8][paths.length];
+         this.matches = new boolean[paths.length];
+         boolean absolute = false;
+         for (int i = 0;i < paths.length;i++)
          {
-            Entry next = element.next();
-            if (next != null && next.getElement().getDepth() > current.getElement().getDepth())
+            if (paths[i].absolute)
             {
-               if (next.getElement().getDepth() == current.getElement().getDepth() + 1)
-               {
-                  N nextName = naming.getName(next.getElement().getName());
-                  if (name == null)
-                  {
-                     current = next;
-                     return current;
-                  }
-                  else if (name.equals(nextName))
-                  {
-                     current = next;
-                     return current;
-                  }
-                  else
-                  {
-                     element = next;
-                  }
-               }
-               else
-               {
-                  element = next;
-               }
+               states[0][i] = 1L;
+               absolute = true;
             }
             else
             {
-               break;
+               states[1][i] = 1L;
             }
          }
+
+         // The root is evaluated when a path is absolute, the relative paths start with the root children
+         this.entry = absolute ? current : advance(current, 1L);
+         this.active = 0;
+         this.matched = false;
       }
-      return null;
-   }
 
-   private Entry _sibling(Entry current, N name) throws StaxNavException
-   {
-      if (current != null)
+      /**
+       * Moves the navigator to the next element matched by any of the paths.
+       *
+       * @return true when an element was matched
+       * @throws StaxNavException any StaxNavException
+       */
+      private boolean find() throws StaxNavException
       {
-         Entry element = current;
-         while (true)
+         check();
+         if (matched)
          {
-            Entry next = element.next();
-            if (next != null && next.getElement().getDepth() >= current.getElement().getDepth())
+            matched = false;
+            entry = advance(entry, active);
+         }
+         while (entry != null)
+         {
+            Element element = entry.getElement();
+            int level = element.getDepth() - rootDepth + 1;
+            if (level >= states.length)
             {
-               if (next.getElement().getDepth() == current.getElement().getDepth())
+               long[][] tmp = new long[states.length << 1][];
+               System.arraycopy(states, 0, tmp, 0, states.length);
+               for (int i = states.length;i < tmp.length;i++)
                {
-                  if (name == null)
+                  tmp[i] = new long[paths.length];
+               }
+               states = tmp;
+            }
+            long[] parentStates = states[level - 1];
+            long[] elementStates = states[level];
+            boolean match = false;
+            active = 0;
+            for (int i = 0;i < paths.length;i++)
+            {
+               PathExpression<N> path = paths[i];
+               if (level == 1 && !path.absolute)
+               {
+                  // The relative paths start with the root children
+                  elementStates[i] = 1L;
+                  active |= 1L;
+                  matches[i] = false;
+                  continue;
+               }
+               long bits = parentStates[i];
+               PathExpression.Step[] steps = path.steps;
+               long pathActive = 0;
+               boolean pathMatch = false;
+               for (;bits != 0;bits &= bits - 1)
+               {
+                  int j = Long.numberOfTrailingZeros(bits);
+                  PathExpression.Step step = steps[j];
+                  if (step.descendant)
                   {
-                     current = next;
-                     return current;
+                     pathActive |= 1L << j;
                   }
-                  else
+                  if (matches(step, element))
                   {
-                     N siblingName = naming.getName(next.getElement().getName());
-                     if (name.equals(siblingName))
+                     if (j + 1 < steps.length)
                      {
-                        current = next;
-                        return current;
+                        pathActive |= 1L << (j + 1);
                      }
                      else
                      {
-                        element = next;
+                        pathMatch = path.attributeName == null || element.getAttribute(path.attributeURI, path.attributeName) != null;
                      }
                   }
                }
-               else
-               {
-                  element = next;
-               }
+               elementStates[i] = pathActive;
+               active |= pathActive;
+               matches[i] = pathMatch;
+               match |= pathMatch;
             }
-            else
+            if (match)
             {
-               break;
+               setCurrent(entry);
+               matched = true;
+               return true;
             }
+            entry = advance(entry, active);
          }
+         return false;
       }
-      return null;
-   }
 
-   private Entry _following(Entry current, N name) throws StaxNavException
-   {
-      if (name == null)
-      {
-         throw new UnsupportedOperationException("todo");
-      }
-      if (current != null)
-      {
-         Entry entry = current.next();
-         while (entry != null)
+      /**
+       * Returns true when the path at the specified index matched the current element.
+       *
+       * @param index the path index
+       * @return true when the path matched
+       */
+      private boolean isMatched(int index)
+      {
+         return matched && matches[index];
+      }
+
+      /**
+       * Returns the value selected by the first path for the current element.
+       *
+       * @param valueType the value type
+       * @param <V> the value type
+       * @return the value
+       * @throws StaxNavException any StaxNavException
+       * @throws TypeConversionException if the value cannot be parsed
+       */
+      private <V> V getValue(ValueType<V> valueType) throws StaxNavException, TypeConversionException
+      {
+         PathExpression<N> path = paths[0];
+         Element element = current.getElement();
+         String value = path.attributeName != null ? element.getAttribute(path.attributeURI, path.attributeName) : current.getContent(true);
+         if (value == null)
          {
-            N findName = naming.getName(entry.getElement().getName());
-            if (name.equals(findName))
+            return null;
+         }
+         try
+         {
+            return valueType.parse(value);
+         }
+         catch (Exception e)
+         {
+            if (e instanceof TypeConversionException)
             {
-               current = entry;
-               return current;
+               throw (TypeConversionException)e;
             }
             else
             {
-               entry = entry.next();
+               throw new TypeConversionException(element.getLocation(), e, "Could not parse string value " + value);
             }
          }
       }
-      return null;
-   }
-
-   // Other methods
 
-   public boolean find(N name) throws StaxNavException
-   {
-      if (name == null)
+      private boolean matches(PathExpression.Step step, Element element)
       {
-         throw new NullPointerException("No null name accepted");
+         if (step.name != null && !step.name.equals(element.getName(naming)))
+         {
+            return false;
+         }
+         String[] predicates = step.predicates;
+         for (int i = 0;i < predicates.length;i += 3)
+         {
+            String value = element.getAttribute(predicates[i], predicates[i + 1]);
+            if (value == null || (predicates[i + 2] != null && !predicates[i + 2].equals(value)))
+            {
+               return false;
+            }
+         }
+         return true;
       }
-      if (name.equals(naming.getName(current.getElement().getName())))
+
+      /**
+       * Returns the entry following an entry in the root subtree, the entry subtree is skipped when no state is
+       * active for it.
+       *
+       * @param entry the entry
+       * @param active the states active for the entry
+       * @return the following entry or null
+       * @throws StaxNavException any StaxNavException
+       */
+      private Entry advance(Entry entry, long active) throws StaxNavException
       {
-         return true;
+         Entry next = active == 0 ? entry.skip() : entry.next();
+         return next != null && next.getElement().getDepth() > rootDepth ? next : null;
       }
-      else
+   }
+
+   public String getAttribute(QName name) throws NullPointerException, IllegalStateException, StaxNavException
+   {
+      if (name == null)
       {
-         return navigate(Axis.FOLLOWING, name);
+         throw new NullPointerException("No null attribute name expected");
       }
+      check();
+      return current.getElement().getAttribute(name.getNamespaceURI(), name.getLocalPart());
    }
 
-   public N next(Set<N> names) throws StaxNavException
+   public <V> V getAttribute(String name, ValueType<V> valueType) throws NullPointerException, StaxNavException, TypeConversionException
    {
-      if (names == null)
+      if (valueType == null)
       {
-         throw new NullPointerException();
+         throw new NullPointerException("No null value type accepted");
       }
-      Entry next = current.next(depth);
-      if (next != null)
+      String value = getAttribute(name);
+      if (value == null)
       {
-         N name = naming.getName(next.getElement().getName());
-         if (names.contains(name))
+         return null;
+      }
+      try
+      {
+         return valueType.parse(value);
+      }
+      catch (Exception e)
+      {
+         if (e instanceof TypeConversionException)
          {
-            current = next;
-            return name;
+            throw (TypeConversionException)e;
+         }
+         else
+         {
+            throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse attribute " + name + " value " + value);
          }
       }
-      return null;
    }
 
-   public int descendant(N name) throws NullPointerException, StaxNavException
+   public int getIntAttribute(String name, int defaultValue) throws NullPointerException, StaxNavException, TypeConversionException
+   {
+      String value = getAttribute(name);
+      if (value == null)
+      {
+         return defaultValue;
+      }
+      try
+      {
+         return Primitives.parseInt(value);
+      }
+      catch (NumberFormatException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse attribute " + name + " value " + value);
+      }
+   }
+
+   public long getLongAttribute(String name, long defaultValue) throws NullPointerException, StaxNavException, TypeConversionException
+   {
+      String value = getAttribute(name);
+      if (value == null)
+      {
+         return defaultValue;
+      }
+      try
+      {
+         return Primitives.parseLong(value);
+      }
+      catch (NumberFormatException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse attribute " + name + " value " + value);
+      }
+   }
+
+   public double getDoubleAttribute(String name, double defaultValue) throws NullPointerException, StaxNavException, TypeConversionException
+   {
+      String value = getAttribute(name);
+      if (value == null)
+      {
+         return defaultValue;
+      }
+      try
+      {
+         return Primitives.parseDouble(value);
+      }
+      catch (NumberFormatException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse attribute " + name + " value " + value);
+      }
+   }
+
+   public boolean getBooleanAttribute(String name, boolean defaultValue) throws NullPointerException, StaxNavException, TypeConversionException
+   {
+      String value = getAttribute(name);
+      if (value == null)
+      {
+         return defaultValue;
+      }
+      try
+      {
+         return Primitives.parseBoolean(value);
+      }
+      catch (IllegalArgumentException e)
+      {
+         throw new TypeConversionException(current.getElement().getLocation(), e, "Could not parse attribute " + name + " value " + value);
+      }
+   }
+
+   public Map<String, String> getAttributes() throws NullPointerException, IllegalStateException, StaxNavException
+   {
+      check();
+      return current.getElement().getAttributes();
+   }
+
+   public Map<QName, String> getQualifiedAttributes() throws NullPointerException, IllegalStateException, StaxNavException
+   {
+      check();
+      return current.getElement().getQualifiedAttributes();
+   }
+
+  public String getNamespaceByPrefix(String prefix) throws NullPointerException, StaxNavException
+   {
+      if (prefix == null)
+      {
+         throw new NullPointerException();
+      }
+      check();
+      return current.getElement().getNamespaceByPrefix(prefix);
+   }
+
+   // Axis methods
+
+   public N next() throws StaxNavException
+   {
+      return navigate(Axis.NEXT);
+   }
+
+   public boolean next(N name) throws StaxNavException
+   {
+      return navigate(Axis.NEXT, name);
+   }
+
+   public N child() throws StaxNavException
+   {
+      return navigate(Axis.CHILD);
+   }
+
+   public boolean child(N name) throws NullPointerException, StaxNavException
+   {
+      return navigate(Axis.CHILD, name);
+   }
+
+   public N sibling() throws StaxNavException
+   {
+      return navigate(Axis.FOLLOWING_SIBLING);
+   }
+
+   public boolean sibling(N name) throws NullPointerException, StaxNavException
+   {
+      return navigate(Axis.FOLLOWING_SIBLING, name);
+   }
+
+   public N navigate(Axis axis) throws StaxNavException
+   {
+      check();
+      Entry entry = _navigate(current, axis, null);
+      if (entry != null)
+      {
+         setCurrent(entry);
+         return getName();
+      }
+      else
+      {
+         return null;
+      }
+   }
+
+   public boolean navigate(Axis axis, N name) throws StaxNavException
    {
       if (name == null)
       {
          throw new NullPointerException("No null name accepted");
       }
-      return _descendant(name);
+      check();
+      Entry entry = _navigate(current, axis, name);
+      if (entry != null)
+      {
+         setCurrent(entry);
+         return true;
+      }
+      else
+      {
+         return false;
+      }
    }
 
-   private int _descendant(N name) throws StaxNavException
+   /**
+    * Moves the navigator to the specified entry, the content of the entry element is retained.
+    *
+    * @param entry the new current entry
+    * @throws StaxNavException any StaxNavException
+    */
+   private void setCurrent(Entry entry) throws StaxNavException
    {
-      Entry element = current;
-      while (true)
+      entry.getElement().keepContent = true;
+      current = entry;
+      sequence = entry.getSequence();
+   }
+
+   private Entry _navigate(Entry current, Axis axis, N name)
+   {
+      switch (axis)
       {
-         Entry next = element.next();
-         if (next != null && next.getElement().getDepth() >= current.getElement().getDepth())
+         case SELF:
+            return _current(current, name);
+         case NEXT:
+            return _next(current, name);
+         case CHILD:
+            return _child(current, name);
+         case FOLLOWING_SIBLING:
+            return _sibling(current, name);
+         case FOLLOWING:
+            return _following(current, name);
+         default:
+            throw new AssertionError();
+      }
+   }
+
+   private Entry _current(Entry current, N name) throws StaxNavException
+   {
+      if (current != null)
+      {
+         if (name == null ||name.equals(current.getElement().getName(naming)))
          {
-            N descendantName = naming.getName(next.getElement().getName());
-            if (name.equals(descendantName))
+            return current;
+         }
+      }
+      return null;
+   }
+
+   private Entry _next(Entry current, N name) throws StaxNavException
+   {
+      if (current != null)
+      {
+         Entry next = current.next(depth);
+         if (next != null && (name == null || name.equals(next.getElement().getName(naming))))
+         {
+            current = next;
+            return current;
+         }
+      }
+      return null;
+   }
+
+   private Entry _child(Entry current, N name) throws StaxNavException
+   {
+      if (current != null)
+      {
+         Entry element = current;
+         while (true)
+         {
+            // The children that do not match are searched without their subtree
+            Entry next = element == current ? element.next() : element.skip();
+            if (next != null && next.getElement().getDepth() > current.getElement().getDepth())
             {
-               int diff = next.getElement().getDepth() - current.getElement().getDepth();
-               current = next;
-               return diff;
+               if (next.getElement().getDepth() == current.getElement().getDepth() + 1)
+               {
+                  N nextName = next.getElement().getName(naming);
+                  if (name == null)
+                  {
+                     current = next;
+                     return current;
+                  }
+                  else if (name.equals(nextName))
+                  {
+                     current = next;
+                     return current;
+                  }
+                  else
+                  {
+                     element = next;
+                  }
+               }
+               else
+               {
+                  element = next;
+               }
             }
             else
             {
-               element = next;
+               break;
             }
          }
-         else
+      }
+      return null;
+   }
+
+   private Entry _sibling(Entry current, N name) throws StaxNavException
+   {
+      if (current != null)
+      {
+         Entry element = current;
+         while (true)
          {
-            break;
+            Entry next = element.skip();
+            if (next != null && next.getElement().getDepth() >= current.getElement().getDepth())
+            {
+               if (next.getElement().getDepth() == current.getElement().getDepth())
+               {
+                  if (name == null)
+                  {
+                     current = next;
+                     return current;
+                  }
+                  else
+                  {
+                     N siblingName = next.getElement().getName(naming);
+                     if (name.equals(siblingName))
+                     {
+                        current = next;
+                        return current;
+                     }
+                     else
+                     {
+                        element = next;
+                     }
+                  }
+               }
+               else
+               {
+                  element = next;
+               }
+            }
+            else
+            {
+               break;
+            }
          }
       }
-      return -1;
+      return null;
+   }
+
+   private Entry _following(Entry current, N name) throws StaxNavException
+   {
+      if (name == null)
+      {
+         throw new UnsupportedOperationException("todo");
+      }
+      if (current != null)
+      {
+         Entry entry = current.next();
+         while (entry != null)
+         {
+            N findName = entry.getElement().getName(naming);
+            if (name.equals(findName))
+            {
+               current = entry;
+               return current;
+            }
+            else
+            {
+               entry = entry.next();
+            }
+         }
+      }
+      return null;
+   }
+
+   // Other methods
+
+   public boolean find(N name) throws StaxNavException
+   {
+      if (name == null)
+      {
+         throw new NullPointerException("No null name accepted");
+      }
+      check();
+      if (name.equals(current.getElement().getName(naming)))
+      {
+         return true;
+      }
+      else
+      {
+         return navigate(Axis.FOLLOWING, name);
+      }
+   }
+
+   public N next(Set<N> names) throws StaxNavException
+   {
+      if (names == null)
+      {
+         throw new NullPointerException();
+      }
+      check();
+      Entry next = current.next(depth);
+      if (next != null)
+      {
+         N name = next.getElement().getName(naming);
+         if (names.contains(name))
+         {
+            setCurrent(next);
+            return name;
+         }
+      }
+      return null;
+   }
+
+   public int descendant(N name) throws NullPointerException, StaxNavException
+   {
+      if (name == null)
+      {
+         throw new NullPointerException("No null name accepted");
+      }
+      check();
+      return _descendant(name);
+   }
+
+   private int _descendant(N name) throws StaxNavException
+   {
+      Entry element = current;
+      while (true)
+      {
+         Entry next = element.next();
+         if (next != null && next.getElement().getDepth() >= current.getElement().getDepth())
+         {
+            N descendantName = next.getElement().getName(naming);
+            if (name.equals(descendantName))
+            {
+               int diff = next.getElement().getDepth() - current.getElement().getDepth();
+               setCurrent(next);
+               return diff;
+            }
+            else
+            {
+               element = next;
+            }
+         }
+         else
+         {
+            break;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Entry objects are a linked list Element.
+    *
+    * For instance for the XML stream:
+    *
+    * &lt;foo&gt;
+    *  &lt;bar&gt;
+    *  &lt;/bar&gt;
+    *  &lt;juu&gt;
+    *  &lt;/juu&gt;
+    * &lt;/foo&gt;
+    *
+    * will be modeled
+    *
+    *  Entry -> Element foo  <-
+    *    |         /|\        |
+    *   \|/         |         |
+    *  Entry -> Element bar   |
+    *    |                    |
+    *   \|/                   |
+    *  Entry -> Element juu --|
+    *
+    * When the navigator points on the juu Element, the bar Entry, the foo Entry and the bar Element are not referenced
+    * anymore and are available for the garbage collector.
+    *
+    * In cursor mode the entries that are not referenced anymore are recycled by the {@link Context} instead, the
+    * sequence number of an entry tells whether the next entry of an entry is still valid.
+    */
+   private static abstract class Entry
+   {
+
+      protected abstract Element getElement() throws StaxNavException;
+
+      protected abstract boolean hasNext(int depth) throws StaxNavException;
+
+      protected abstract Entry next(int depth) throws StaxNavException;
+
+      protected abstract Entry next() throws StaxNavException;
+
+      /**
+       * Returns the entry following the subtree of the entry element. The subtree is skipped at the stream level when
+       * subtree skipping is enabled and no entry of the subtree was created or is needed, otherwise this is equivalent
+       * to {@link #next()}.
+       *
+       * @return the entry following the entry subtree or a descendant entry
+       * @throws StaxNavException any StaxNavException
+       */
+      protected abstract Entry skip() throws StaxNavException;
+
+      /**
+       * Returns the content of the entry element, the content is read from the stream when it was not yet.
+       *
+       * @param trim true if the content should be trimmed
+       * @return the content
+       * @throws StaxNavException any StaxNavException
+       */
+      protected abstract String getContent(boolean trim) throws StaxNavException;
+
+      /**
+       * Returns the content of the entry element as a sequence, the content is read from the stream when it was not
+       * yet. When the content is not kept as a string, a pending content that is not needed by a fork is appended to
+       * the buffer shared by the passed over elements and the element retains the sequence over its range.
+       *
+       * @param keep true if the content should be retained as a string
+       * @return the content
+       * @throws StaxNavException any StaxNavException
+       */
+      protected abstract CharSequence getContentSequence(boolean keep) throws StaxNavException;
+
+      /**
+       * Returns a reader of the content of the entry element. A pending content that is not needed by a fork is
+       * streamed from the stream and is not retained, otherwise the reader reads the retained content.
+       *
+       * @return the content reader
+       * @throws StaxNavException any StaxNavException
+       */
+      protected abstract Reader getContentReader() throws StaxNavException;
+
+      /**
+       * Retains the entry and its subtree, they will not be recycled.
+       *
+       * @throws StaxNavException any StaxNavException
+       */
+      protected abstract void pin() throws StaxNavException;
+
+      /**
+       * Returns the root entry of a fork of this entry, the entry is pinned or its subtree is captured.
+       *
+       * @return the fork root entry
+       * @throws StaxNavException any StaxNavException
+       */
+      protected abstract Entry fork() throws StaxNavException;
+
+      /**
+       * Sets the navigator whose current element and its ancestors are not recycled in cursor mode, a scoped
+       * navigator owns the stream while it navigates a subtree that was not pinned.
+       *
+       * @param owner the new owner
+       * @return the previous owner or null when the entry is not read from a stream
+       */
+      protected abstract StaxNavigatorImpl<?> setOwner(StaxNavigatorImpl<?> owner);
+
+      /**
+       * Returns true when the entry is read from a stream in streaming mode.
+       *
+       * @return true in streaming mode
+       */
+      protected abstract boolean isStreaming();
+
+      /**
+       * Returns the sequence number of the entry, it changes when the entry is recycled.
+       *
+       * @return the sequence number
+       */
+      protected abstract long getSequence();
+
+   }
+
+   /**
+    * The state shared by the entries of a stream, the stream is null for the entries detached from the stream.
+    */
+   private static class Context
+   {
+
+      /** . */
+      private final XMLStreamReader stream;
+
+      /** . */
+      private final boolean cursor;
+
+      /** . */
+      private final boolean skipContent;
+
+      /** . */
+      private final boolean trackLocation;
+
+      /** . */
+      private final boolean skipSubtrees;
+
+      /** The symbol table or null. */
+      private final SymbolTable symbols;
+
+      /** . */
+      private final boolean captureForks;
+
+      /** . */
+      private final boolean streaming;
+
+      /** The buffer the captures are sliced from. */
+      private ByteBuffer slab;
+
+      /** The buffer the captures are encoded to. */
+      private ByteBuffer scratch;
+
+      /** The parent of the last captured subtree, the captures of its children share the copy of its path. */
+      private Element capturedParent;
+
+      /** . */
+      private Element capturedParentCopy;
+
+      /** The buffer the text of the passed over elements is appended to, it is replaced when it is full. */
+      private StringBuilder passed;
+
+      /** The namespace URIs of the elements of interest indexed by their local name. */
+      private final Map<String, Set<String>> interest;
+
+      /** The navigator driving the recycling in cursor mode. */
+      private StaxNavigatorImpl<?> owner;
+
+      /** The last created entry. */
+      private StreamEntry tail;
+
+      /** The number of created entries. */
+      private long count;
+
+      /** The recyclable entries, two per depth level. */
+      private StreamEntry[] slots;
+
+      /** Above this length the passed content buffer is replaced and a passed over text is skipped, a replaced buffer is released with the elements referencing it. */
+      private static final int MAX_PASSED_LENGTH = 16384;
+
+      private Context(XMLStreamReader stream, StaxNavigatorOptions options)
+      {
+         this.stream = stream;
+         this.cursor = options.getCursor() || options.getStreaming();
+         this.skipContent = options.getSkipContent() || options.getStreaming();
+         this.trackLocation = options.getTrackLocation();
+         this.skipSubtrees = options.getSkipSubtrees();
+         this.symbols = options.getSymbolTable();
+         this.captureForks = options.getCaptureForks();
+         this.streaming = options.getStreaming();
+         this.slab = null;
+         this.scratch = null;
+         this.capturedParent = null;
+         this.capturedParentCopy = null;
+         this.passed = null;
+         this.interest = new HashMap<String, Set<String>>();
+         for (QName name : options.getContentInterest())
+         {
+            Set<String> namespaceURIs = interest.get(name.getLocalPart());
+            if (namespaceURIs == null)
+            {
+               interest.put(name.getLocalPart(), namespaceURIs = new HashSet<String>());
+            }
+            namespaceURIs.add(name.getNamespaceURI());
+         }
+         this.owner = null;
+         this.tail = null;
+         this.count = 0;
+         this.slots = this.cursor ? new StreamEntry[16] : null;
+      }
+
+      /**
+       * Creates the entry for the start element the stream points to.
+       *
+       * @param parent the parent element
+       * @return the created entry
+       * @throws XMLStreamException any XMLStreamException
+       */
+      private StreamEntry create(Element parent) throws XMLStreamException
+      {
+         StreamEntry entry;
+         if (cursor)
+         {
+            int index = (parent != null ? parent.getDepth() + 1 : 1) << 1;
+            if (index + 1 >= slots.length)
+            {
+               StreamEntry[] copy = new StreamEntry[Math.max(slots.length << 1, index + 2)];
+               System.arraycopy(slots, 0, copy, 0, slots.length);
+               slots = copy;
+            }
+
+            // Order the slots from the oldest to the youngest, an empty slot comes first
+            if (slots[index] != null && (slots[index + 1] == null || slots[index].seq > slots[index + 1].seq))
+            {
+               StreamEntry tmp = slots[index];
+               slots[index] = slots[index + 1];
+               slots[index + 1] = tmp;
+            }
+
+            //
+            if (isRecyclable(slots[index]))
+            {
+               entry = slots[index];
+            }
+            else if (isRecyclable(slots[index + 1]))
+            {
+               entry = slots[index + 1];
+            }
+            else
+            {
+               entry = slots[index] = new StreamEntry(this, new Element());
+            }
+            entry.next = null;
+            entry.captured = null;
+            if (entry.element == capturedParent)
+            {
+               capturedParent = null;
+               capturedParentCopy = null;
+            }
+         }
+         else
+         {
+            entry = new StreamEntry(this, new Element());
+         }
+
+         //
+         entry.element.read(stream, parent, trackLocation, symbols);
+         if (!skipContent)
+         {
+            entry.element.readContent(stream, true);
+         }
+         entry.seq = ++count;
+         if (parent != null && parent.scoped)
+         {
+            entry.element.pinned = true;
+            entry.element.scoped = true;
+         }
+         tail = entry;
+         return entry;
+      }
+
+      /**
+       * Returns true when the entry is not referenced anymore by the owner or a fork.
+       *
+       * @param entry the entry
+       * @return true if the entry can be recycled
+       */
+      private boolean isRecyclable(StreamEntry entry)
+      {
+         if (entry == null || entry == tail || entry.element.pinned)
+         {
+            return false;
+         }
+         Element current = owner.current.getElement();
+         for (Element element = current;element != null && element.getDepth() >= entry.element.getDepth();element = element.getParent())
+         {
+            if (element == entry.element)
+            {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      /**
+       * Captures the subtree of an entry in a buffer, the subtree is read from the stream.
+       *
+       * @param entry the entry to capture
+       * @return the captured entry
+       * @throws StaxNavException any StaxNavException
+       */
+      private Entry capture(StreamEntry entry) throws StaxNavException
+      {
+         if (scratch == null)
+         {
+            scratch = ByteBuffer.allocate(Capture.SLAB_SIZE);
+         }
+         scratch.clear();
+         Map<String, Integer> ids = new HashMap<String, Integer>();
+
+         // The navigator forked from the entry walks the subtree again, its entries must not be recycled
+         if (cursor)
+         {
+            pin(entry);
+         }
+         List<String> symbols = new ArrayList<String>();
+
+         // The record starts of the elements whose subtree is not yet encoded, by relative depth
+         int[] open = new int[8];
+         int depth = entry.element.getDepth();
+
+         // An element is encoded once the next entry is obtained, its content is read then
+         Entry next = entry;
+         do
+         {
+            next.getElement().keepContent = true;
+            Entry following = next.next();
+            Element element = next.getElement();
+            int level = element.getDepth() - depth;
+            if (level >= open.length)
+            {
+               int[] tmp = new int[open.length << 1];
+               System.arraycopy(open, 0, tmp, 0, open.length);
+               open = tmp;
+            }
+            open[level] = scratch.position();
+            encode(element, ids, symbols);
+            next = following;
+
+            // Close the subtrees ending before the next element
+            int nextLevel = next != null ? Math.max(next.getElement().getDepth() - depth, 0) : 0;
+            for (int i = level;i >= nextLevel;i--)
+            {
+               scratch.putInt(open[i] + 4, scratch.position() - open[i]);
+            }
+         }
+         while (next != null && next.getElement().getDepth() > depth);
+
+         // Move the encoded subtree off heap, the small captures share a slab
+         scratch.flip();
+         int length = scratch.remaining();
+         ByteBuffer buffer;
+         if (length > Capture.SLAB_SIZE >> 2)
+         {
+            buffer = ByteBuffer.allocateDirect(length);
+         }
+         else
+         {
+            if (slab == null || slab.remaining() < length)
+            {
+               slab = ByteBuffer.allocateDirect(Capture.SLAB_SIZE);
+            }
+            buffer = slab.slice();
+            buffer.limit(length);
+            slab.position(slab.position() + length);
+         }
+         buffer.put(scratch);
+         buffer.flip();
+
+         //
+         Element parent = entry.element.getParent();
+         if (parent != capturedParent)
+         {
+            capturedParent = parent;
+            capturedParentCopy = parent != null ? parent.copyPath() : null;
+         }
+         Capture capture = new Capture(buffer, symbols.toArray(new String[symbols.size()]));
+         return new BufferEntry(capture, 0, capturedParentCopy);
+      }
+
+      /**
+       * Encodes an element record in the scratch buffer.
+       *
+       * @param element the element
+       * @param ids the symbol ids
+       * @param symbols the symbols
+       */
+      private void encode(Element element, Map<String, Integer> ids, List<String> symbols)
+      {
+         int start = scratch.position();
+         ensure(48);
+         scratch.putInt(0);
+         scratch.putInt(0);
+         scratch.putInt(element.getDepth());
+         scratch.putInt(symbol(element.namespaceURI, ids, symbols));
+         scratch.putInt(symbol(element.localName, ids, symbols));
+         scratch.putInt(symbol(element.prefix, ids, symbols));
+         scratch.putInt(element.lineNumber);
+         scratch.putInt(element.columnNumber);
+         scratch.putInt(element.characterOffset);
+         scratch.putInt(symbol(element.publicId, ids, symbols));
+         scratch.putInt(symbol(element.systemId, ids, symbols));
+         element.resolveContent();
+         scratch.putInt(element.contentStatus);
+         encode(element.content != null ? element.content.toString() : null);
+         ensure(4);
+         scratch.putInt(element.attributeCount);
+         for (int i = 0, j = 0;i < element.attributeCount;i++, j += 4)
+         {
+            ensure(12);
+            scratch.putInt(symbol(element.attributes[j], ids, symbols));
+            scratch.putInt(symbol(element.attributes[j + 1], ids, symbols));
+            scratch.putInt(symbol(element.attributes[j + 2], ids, symbols));
+            encode(element.attributes[j + 3]);
+         }
+         ensure(4);
+         scratch.putInt(element.namespaces.size());
+         for (Map.Entry<String, String> namespace : element.namespaces.entrySet())
+         {
+            ensure(8);
+            scratch.putInt(symbol(namespace.getKey(), ids, symbols));
+            scratch.putInt(symbol(namespace.getValue(), ids, symbols));
+         }
+         scratch.putInt(start, scratch.position() - start);
+      }
+
+      private void encode(String s)
+      {
+         if (s == null)
+         {
+            ensure(4);
+            scratch.putInt(-1);
+         }
+         else
+         {
+            ByteBuffer bytes = Capture.UTF_8.encode(s);
+            ensure(4 + bytes.remaining());
+            scratch.putInt(bytes.remaining());
+            scratch.put(bytes);
+         }
+      }
+
+      private int symbol(String symbol, Map<String, Integer> ids, List<String> symbols)
+      {
+         if (symbol == null)
+         {
+            return -1;
+         }
+         Integer id = ids.get(symbol);
+         if (id == null)
+         {
+            id = symbols.size();
+            ids.put(symbol, id);
+            symbols.add(symbol);
+         }
+         return id;
+      }
+
+      private void ensure(int length)
+      {
+         if (scratch.remaining() < length)
+         {
+            ByteBuffer tmp = ByteBuffer.allocate(Math.max(scratch.capacity() << 1, scratch.position() + length));
+            scratch.flip();
+            tmp.put(scratch);
+            scratch = tmp;
+         }
+      }
+
+      /**
+       * Passes over the pending content of an element. The content of the elements of interest is retained. In
+       * cursor mode the text of the other elements is skipped, otherwise it is appended to a buffer shared by the
+       * passed over elements instead of being copied to a string, so the content remains available when a navigator
+       * stops on the element later. A text longer than the buffer limit is skipped.
+       *
+       * @param element the element
+       * @throws XMLStreamException any XMLStreamException
+       */
+      private void pass(Element element) throws XMLStreamException
+      {
+         if (isInterest(element))
+         {
+            element.readContent(stream, true);
+         }
+         else if (cursor)
+         {
+            // The passed over entries are recycled, their text would never be reached
+            element.readContent(stream, false);
+         }
+         else
+         {
+            element.passContent(stream, buffer(), MAX_PASSED_LENGTH);
+         }
+      }
+
+      /**
+       * Reads the pending content of an element a navigator stops on in the shared buffer, the text is retained
+       * whatever its length.
+       *
+       * @param element the element
+       * @throws XMLStreamException any XMLStreamException
+       */
+      private void buffer(Element element) throws XMLStreamException
+      {
+         element.passContent(stream, buffer(), Integer.MAX_VALUE);
+      }
+
+      private StringBuilder buffer()
+      {
+         if (passed == null || passed.length() >= MAX_PASSED_LENGTH)
+         {
+            passed = new StringBuilder();
+         }
+         return passed;
+      }
+
+      /**
+       * Returns true when the content of the element is retained when it is passed over.
+       *
+       * @param element the element
+       * @return true if the element name belongs to the content interest
+       */
+      private boolean isInterest(Element element)
+      {
+         if (interest.isEmpty())
+         {
+            return false;
+         }
+         Set<String> namespaceURIs = interest.get(element.localName);
+         return namespaceURIs != null && namespaceURIs.contains(element.namespaceURI != null ? element.namespaceURI : XMLConstants.NULL_NS_URI);
+      }
+
+      private void pin(StreamEntry entry)
+      {
+         if ((cursor || skipContent || skipSubtrees) && !entry.element.scoped)
+         {
+            entry.element.pinned = true;
+            entry.element.scoped = true;
+            for (Element parent = entry.element.getParent();parent != null && !parent.pinned;parent = parent.getParent())
+            {
+               parent.pinned = true;
+            }
+
+            // The subtree entries we already have
+            int depth = entry.element.getDepth();
+            for (StreamEntry next = entry.peek();next != null && next.element.getDepth() > depth;next = next.peek())
+            {
+               next.element.pinned = true;
+               next.element.scoped = true;
+            }
+         }
+      }
+   }
+
+   private static class HeadEntry extends Entry
+   {
+
+      /** . */
+      private final Context context;
+
+      /** . */
+      private StreamEntry root;
+
+      private HeadEntry(Context context)
+      {
+         this.context = context;
+         this.root = null;
+      }
+
+      private StreamEntry get()
+      {
+         if (root == null)
+         {
+            XMLStreamReader stream = context.stream;
+            try
+            {
+               while (stream.hasNext())
+               {
+                  int type = stream.getEventType();
+                  if (type == XMLStreamConstants.START_ELEMENT)
+                  {
+                     root = context.create(null);
+                     root.element.keepContent = true;
+                     break;
+                  }
+                  else
+                  {
+                     stream.next();
+                  }
+               }
+            }
+            catch (XMLStreamException e)
+            {
+               throw new StaxNavException(e);
+            }
+         }
+         if (root == null)
+         {
+            throw new StaxNavException(context.stream.getLocation(), "No head!!!!");
+         }
+         return root;
+      }
+
+      protected boolean hasNext(int depth) throws StaxNavException
+      {
+         return get().hasNext(depth);
+      }
+
+      protected Entry next(int depth) throws StaxNavException
+      {
+         return get().next(depth);
+      }
+
+      protected Entry next() throws StaxNavException
+      {
+         return get().next();
+      }
+
+      protected Entry skip() throws StaxNavException
+      {
+         return get().skip();
+      }
+
+      @Override
+      protected void pin() throws StaxNavException
+      {
+         get().pin();
+      }
+
+      @Override
+      protected Entry fork() throws StaxNavException
+      {
+         return get().fork();
+      }
+
+      @Override
+      protected String getContent(boolean trim) throws StaxNavException
+      {
+         return get().getContent(trim);
+      }
+
+      @Override
+      protected CharSequence getContentSequence(boolean keep) throws StaxNavException
+      {
+         return get().getContentSequence(keep);
+      }
+
+      @Override
+      protected Reader getContentReader() throws StaxNavException
+      {
+         return get().getContentReader();
+      }
+
+      @Override
+      protected Element getElement() throws StaxNavException
+      {
+         return get().getElement();
+      }
+
+      @Override
+      protected StaxNavigatorImpl<?> setOwner(StaxNavigatorImpl<?> owner)
+      {
+         StaxNavigatorImpl<?> previous = context.owner;
+         context.owner = owner;
+         return previous;
+      }
+
+      @Override
+      protected boolean isStreaming()
+      {
+         return context.streaming;
+      }
+
+      @Override
+      protected long getSequence()
+      {
+         // The head entry is never recycled
+         return 0;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "HeadEntry";
+      }
+   }
+
+   private static class StreamEntry extends Entry
+   {
+
+      /** . */
+      private final Context context;
+
+      /** . */
+      private final Element element;
+
+      /** The creation sequence number, entries are recycled in cursor mode and it changes then. */
+      private long seq;
+
+      /** . */
+      private StreamEntry next;
+
+      /** The captured subtree of the entry or null. */
+      private Entry captured;
+
+      private StreamEntry(Context context, Element element)
+      {
+         this.context = context;
+         this.next = null;
+         this.captured = null;
+         this.element = element;
+      }
+
+      protected Element getElement() throws StaxNavException
+      {
+         return element;
+      }
+
+      protected boolean hasNext(int depth) throws StaxNavException
+      {
+         return next(depth) != null;
+      }
+
+      protected Entry next(int depth) throws StaxNavException
+      {
+         Entry next = next();
+         if (next != null && next.getElement().getDepth() > depth)
+         {
+            return next;
+         }
+         else
+         {
+            return null;
+         }
+      }
+
+      /**
+       * Returns the next entry when it was already created and was not recycled.
+       *
+       * @return the next entry
+       */
+      private StreamEntry peek()
+      {
+         return next != null && next.seq == seq + 1 ? next : null;
+      }
+
+      protected Entry next() throws StaxNavException
+      {
+         if (element.skipped)
+         {
+            throw new StaxNavException(element.getLocation(), "The subtree of the element " + element.getQName() + " was skipped");
+         }
+         return following();
+      }
+
+      protected Entry skip() throws StaxNavException
+      {
+         if (next == null && context.skipSubtrees && !element.pinned)
+         {
+            try
+            {
+               XMLStreamReader stream = context.stream;
+               if (element.contentStatus == Element.CONTENT_PENDING)
+               {
+                  if (element.keepContent)
+                  {
+                     element.readContent(stream, true);
+                  }
+                  else
+                  {
+                     context.pass(element);
+                  }
+               }
+               else if (element.contentStatus == Element.CONTENT_STREAMING)
+               {
+                  element.readContent(stream, false);
+               }
+
+               // Move to the element end tracking the depth only, the stream is after the element content
+               int level = 1;
+               while (true)
+               {
+                  int type = stream.getEventType();
+                  if (type == XMLStreamConstants.START_ELEMENT)
+                  {
+                     if (level++ > 0)
+                     {
+                        element.skipped = true;
+                     }
+                  }
+                  else if (type == XMLStreamConstants.END_ELEMENT)
+                  {
+                     if (--level == 0)
+                     {
+                        break;
+                     }
+                  }
+                  else if (type == XMLStreamConstants.END_DOCUMENT)
+                  {
+                     break;
+                  }
+                  stream.next();
+               }
+            }
+            catch (XMLStreamException e)
+            {
+               throw new StaxNavException(e);
+            }
+         }
+         return following();
+      }
+
+      /**
+       * Returns the entry following this entry in the stream order, the entry is created when it does not exist yet.
+       *
+       * @return the following entry
+       * @throws StaxNavException any StaxNavException
+       */
+      private Entry following() throws StaxNavException
+      {
+         try
+         {
+            if (next == null)
+            {
+               XMLStreamReader stream = context.stream;
+               if (stream == null)
+               {
+                  // The entry was detached from the stream
+                  return null;
+               }
+               if (element.contentStatus == Element.CONTENT_PENDING)
+               {
+                  if (element.keepContent || element.scoped)
+                  {
+                     element.readContent(stream, true);
+                  }
+                  else
+                  {
+                     context.pass(element);
+                  }
+               }
+               else if (element.contentStatus == Element.CONTENT_STREAMING)
+               {
+                  element.readContent(stream, false);
+               }
+               Element parent = element;
+               while (true)
+               {
+                  int type = stream.getEventType();
+                  if (type == XMLStreamConstants.START_ELEMENT)
+                  {
+                     next = context.create(parent);
+                     break;
+                  }
+                  else if (type == XMLStreamConstants.END_ELEMENT)
+                  {
+                     parent = parent.getParent();
+                     stream.next();
+                  }
+                  else if (type == XMLStreamConstants.END_DOCUMENT)
+                  {
+                     break;
+                  }
+                  else
+                  {
+                     stream.next();
+                  }
+               }
+            }
+            else if (next.seq != seq + 1)
+            {
+               // The entries following this one were recycled, we resume at the stream position
+               return context.tail;
+            }
+            return next;
+         }
+         catch (XMLStreamException e)
+         {
+            throw new StaxNavException(e);
+         }
+      }
+
+      @Override
+      protected void pin() throws StaxNavException
+      {
+         context.pin(this);
+      }
+
+      @Override
+      protected Entry fork() throws StaxNavException
+      {
+         if (context.captureForks && context.stream != null)
+         {
+            if (captured == null)
+            {
+               captured = context.capture(this);
+            }
+            return captured;
+         }
+         else if (context.streaming)
+         {
+            // The fork navigates the entries in place and is validated when it is used
+            return this;
+         }
+         else
+         {
+            context.pin(this);
+            return this;
+         }
+      }
+
+      @Override
+      protected String getContent(boolean trim) throws StaxNavException
+      {
+         if (element.contentStatus == Element.CONTENT_PENDING)
+         {
+            try
+            {
+               element.readContent(context.stream, true);
+            }
+            catch (XMLStreamException e)
+            {
+               throw new StaxNavException(e);
+            }
+         }
+         return element.getContent(trim);
+      }
+
+      @Override
+      protected CharSequence getContentSequence(boolean keep) throws StaxNavException
+      {
+         if (element.contentStatus == Element.CONTENT_PENDING)
+         {
+            try
+            {
+               if (keep || element.pinned || element.scoped)
+               {
+                  element.readContent(context.stream, true);
+               }
+               else
+               {
+                  context.buffer(element);
+               }
+            }
+            catch (XMLStreamException e)
+            {
+               throw new StaxNavException(e);
+            }
+         }
+         return element.getContentSequence();
+      }
+
+      @Override
+      protected Reader getContentReader() throws StaxNavException
+      {
+         if (element.contentStatus == Element.CONTENT_PENDING && !element.pinned && !element.scoped)
+         {
+            element.content = null;
+            element.contentStatus = Element.CONTENT_STREAMING;
+            return new StreamReader(this);
+         }
+         return new SequenceReader(getContentSequence(true));
+      }
+
+      @Override
+      protected StaxNavigatorImpl<?> setOwner(StaxNavigatorImpl<?> owner)
+      {
+         StaxNavigatorImpl<?> previous = context.owner;
+         context.owner = owner;
+         return previous;
+      }
+
+      @Override
+      protected boolean isStreaming()
+      {
+         return context.streaming;
+      }
+
+      @Override
+      protected long getSequence()
+      {
+         return seq;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "StreamEntry[element=" + element + "]";
+      }
+   }
+
+   /**
+    * A subtree captured in a buffer. Each element of the subtree is a record made of the record length, the subtree
+    * length, the depth, the name, the location, the content, the attributes and the namespaces. The names and the
+    * namespaces are encoded as symbol identifiers, the content and the attribute values are encoded in UTF-8.
+    */
+   private static class Capture
+   {
+
+      /** . */
+      private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+      /** The size of the buffers shared by the small captures. */
+      private static final int SLAB_SIZE = 64 * 1024;
+
+      /** . */
+      private final ByteBuffer buffer;
+
+      /** . */
+      private final String[] symbols;
+
+      private Capture(ByteBuffer buffer, String[] symbols)
+      {
+         this.buffer = buffer;
+         this.symbols = symbols;
+      }
+
+      private String symbol(int position)
+      {
+         int id = buffer.getInt(position);
+         return id != -1 ? symbols[id] : null;
+      }
+
+      private String string(int position)
+      {
+         int length = buffer.getInt(position);
+         if (length == -1)
+         {
+            return null;
+         }
+         ByteBuffer bytes = buffer.duplicate();
+         bytes.limit(position + 4 + length);
+         bytes.position(position + 4);
+         return UTF_8.decode(bytes).toString();
+      }
+
+      private int skipString(int position)
+      {
+         int length = buffer.getInt(position);
+         return position + 4 + (length == -1 ? 0 : length);
+      }
+
+      /**
+       * Decodes the element of a record.
+       *
+       * @param position the record position
+       * @param parent the parent element
+       * @return the element
+       */
+      private Element decode(int position, Element parent)
+      {
+         Element element = new Element();
+         element.parent = parent;
+         element.depth = buffer.getInt(position + 8);
+         element.namespaceURI = symbol(position + 12);
+         element.localName = symbol(position + 16);
+         element.prefix = symbol(position + 20);
+         element.lineNumber = buffer.getInt(position + 24);
+         element.columnNumber = buffer.getInt(position + 28);
+         element.characterOffset = buffer.getInt(position + 32);
+         element.publicId = symbol(position + 36);
+         element.systemId = symbol(position + 40);
+         element.contentStatus = buffer.getInt(position + 44);
+         element.content = string(position + 48);
+         int next = skipString(position + 48);
+         int attributeCount = buffer.getInt(next);
+         next += 4;
+         if (attributeCount > 0)
+         {
+            String[] attributes = new String[attributeCount << 2];
+            for (int i = 0, j = 0;i < attributeCount;i++)
+            {
+               attributes[j++] = symbol(next);
+               attributes[j++] = symbol(next + 4);
+               attributes[j++] = symbol(next + 8);
+               attributes[j++] = string(next + 12);
+               next = skipString(next + 12);
+            }
+            element.attributes = attributes;
+         }
+         element.attributeCount = attributeCount;
+         int namespaceCount = buffer.getInt(next);
+         next += 4;
+         if (namespaceCount > 0)
+         {
+            Map<String, String> namespaces = new HashMap<String, String>();
+            for (int i = 0;i < namespaceCount;i++, next += 8)
+            {
+               namespaces.put(symbol(next), symbol(next + 4));
+            }
+            element.namespaces = namespaces;
+         }
+         else
+         {
+            element.namespaces = Collections.emptyMap();
+         }
+         return element;
+      }
+   }
+
+   /**
+    * An entry reading a captured subtree, the entries and the elements are decoded when they are navigated and are
+    * not retained by the capture.
+    */
+   private static class BufferEntry extends Entry
+   {
+
+      /** . */
+      private final Capture capture;
+
+      /** . */
+      private final int position;
+
+      /** . */
+      private final Element element;
+
+      private BufferEntry(Capture capture, int position, Element parent)
+      {
+         this.capture = capture;
+         this.position = position;
+         this.element = capture.decode(position, parent);
+      }
+
+      protected Element getElement() throws StaxNavException
+      {
+         return element;
+      }
+
+      protected boolean hasNext(int depth) throws StaxNavException
+      {
+         return next(depth) != null;
+      }
+
+      protected Entry next(int depth) throws StaxNavException
+      {
+         Entry next = next();
+         if (next != null && next.getElement().getDepth() > depth)
+         {
+            return next;
+         }
+         else
+         {
+            return null;
+         }
+      }
+
+      protected Entry next() throws StaxNavException
+      {
+         return entry(position + capture.buffer.getInt(position));
+      }
+
+      protected Entry skip() throws StaxNavException
+      {
+         return entry(position + capture.buffer.getInt(position + 4));
+      }
+
+      private Entry entry(int next)
+      {
+         if (next < capture.buffer.limit())
+         {
+            int depth = capture.buffer.getInt(next + 8);
+            Element parent = element;
+            while (parent != null && parent.getDepth() >= depth)
+            {
+               parent = parent.getParent();
+            }
+            return new BufferEntry(capture, next, parent);
+         }
+         else
+         {
+            return null;
+         }
+      }
+
+      @Override
+      protected String getContent(boolean trim) throws StaxNavException
+      {
+         return element.getContent(trim);
+      }
+
+      @Override
+      protected CharSequence getContentSequence(boolean keep) throws StaxNavException
+      {
+         return element.getContentSequence();
+      }
+
+      @Override
+      protected Reader getContentReader() throws StaxNavException
+      {
+         return new SequenceReader(element.getContentSequence());
+      }
+
+      @Override
+      protected void pin() throws StaxNavException
+      {
+      }
+
+      @Override
+      protected Entry fork() throws StaxNavException
+      {
+         return this;
+      }
+
+      @Override
+      protected StaxNavigatorImpl<?> setOwner(StaxNavigatorImpl<?> owner)
+      {
+         return null;
+      }
+
+      @Override
+      protected boolean isStreaming()
+      {
+         return false;
+      }
+
+      @Override
+      protected long getSequence()
+      {
+         return 0;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "BufferEntry[element=" + element + "]";
+      }
    }
 
    /**
-    * Entry objects are a linked list Element.
-    *
-    * For instance for the XML stream:
-    *
-    * &lt;foo&gt;
-    *  &lt;bar&gt;
-    *  &lt;/bar&gt;
-    *  &lt;juu&gt;
-    *  &lt;/juu&gt;
-    * &lt;/foo&gt;
-    *
-    * will be modeled
-    *
-    *  Entry -> Element foo  <-
-    *    |         /|\        |
-    *   \|/         |         |
-    *  Entry -> Element bar   |
-    *    |                    |
-    *   \|/                   |
-    *  Entry -> Element juu --|
+    * <p>The index of a document: the elements are numbered in the document order and modelled by flat arrays, the
+    * arrays are built in a single pass over the stream. The first child of an element is the element following it
+    * when it is deeper, the end of an element subtree provides the next sibling so navigating the subtrees of the
+    * index does not scan the descendants.</p>
     *
-    * When the navigator points on the juu Element, the bar Entry, the foo Entry and the bar Element are not referenced
-    * anymore and are available for the garbage collector.
+    * <p>The entries and the elements are created on demand and are cached by the index so repeated navigations do
+    * not create new objects.</p>
     */
-   private static abstract class Entry
+   private static class Index
    {
 
-      protected abstract Element getElement() throws StaxNavException;
+      /** . */
+      private final int size;
 
-      protected abstract boolean hasNext(int depth) throws StaxNavException;
+      /** The namespace URI, local name and prefix symbol identifiers of the elements. */
+      private final int[] names;
 
-      protected abstract Entry next(int depth) throws StaxNavException;
+      /** . */
+      private final int[] depth;
 
-      protected abstract Entry next() throws StaxNavException;
+      /** . */
+      private final int[] parent;
 
-   }
+      /** The next sibling of the elements or -1. */
+      private final int[] nextSibling;
 
-   private static class HeadEntry extends Entry
-   {
+      /** The element following the subtree of the elements, it is the size of the index for the last subtree. */
+      private final int[] end;
+
+      /** The content offset in the text. */
+      private final int[] contentOffset;
+
+      /** The content length or -1 when the element has no content. */
+      private final int[] contentLength;
+
+      /** The offset of the attribute tuples of the elements. */
+      private final int[] attributeOffset;
 
       /** . */
-      private final XMLStreamReader stream;
+      private final int[] attributeCount;
+
+      /** The offset of the namespace pairs of the elements. */
+      private final int[] namespaceOffset;
 
       /** . */
-      private Entry root;
+      private final int[] namespaceCount;
 
-      private HeadEntry(XMLStreamReader stream)
-      {
-         this.stream = stream;
-         this.root = null;
-      }
+      /** The line number, column number, character offset, public id and system id symbols or null. */
+      private final int[] locations;
+
+      /** . */
+      private final String[] symbols;
+
+      /** The (namespace URI, local name, prefix, value) tuples. */
+      private final String[] attributes;
+
+      /** The (prefix, namespace URI) pairs. */
+      private final String[] namespaces;
+
+      /** The contents of the elements. */
+      private final String text;
+
+      /** . */
+      private final Element[] elements;
+
+      /** . */
+      private final Entry[] entries;
 
-      private Entry get()
+      private Index(XMLStreamReader stream, StaxNavigatorOptions options) throws XMLStreamException
       {
-         if (root == null)
+         SymbolTable symbolTable = options.getSymbolTable();
+         boolean trackLocation = options.getTrackLocation();
+         Map<String, Integer> ids = new HashMap<String, Integer>();
+         List<String> symbols = new ArrayList<String>();
+         List<String> attributes = new ArrayList<String>();
+         List<String> namespaces = new ArrayList<String>();
+         StringBuilder text = new StringBuilder();
+
+         //
+         int capacity = 64;
+         int[] names = new int[capacity * 3];
+         int[] depth = new int[capacity];
+         int[] parent = new int[capacity];
+         int[] nextSibling = new int[capacity];
+         int[] end = new int[capacity];
+         int[] contentOffset = new int[capacity];
+         int[] contentLength = new int[capacity];
+         int[] attributeOffset = new int[capacity];
+         int[] attributeCount = new int[capacity];
+         int[] namespaceOffset = new int[capacity];
+         int[] namespaceCount = new int[capacity];
+         int[] locations = trackLocation ? new int[capacity * 5] : null;
+
+         // The open elements and their last child
+         int[] open = new int[16];
+         int[] lastChild = new int[16];
+         int top = -1;
+
+         // The element whose content is read, the content ends at the element end or at the start of a child
+         int reading = -1;
+
+         //
+         int size = 0;
+         while (true)
          {
-            try
+            int type = stream.getEventType();
+            if (type == XMLStreamConstants.START_ELEMENT)
             {
-               while (stream.hasNext())
+               if (reading != -1)
                {
-                  int type = stream.getEventType();
-                  if (type == XMLStreamConstants.START_ELEMENT)
-                  {
-                     root = new StreamEntry(stream, new Element(stream, null));
-                     break;
-                  }
-                  else
+                  text.setLength(contentOffset[reading]);
+                  contentLength[reading] = -1;
+               }
+               if (size == capacity)
+               {
+                  capacity <<= 1;
+                  names = copyOf(names, capacity * 3);
+                  depth = copyOf(depth, capacity);
+                  parent = copyOf(parent, capacity);
+                  nextSibling = copyOf(nextSibling, capacity);
+                  end = copyOf(end, capacity);
+                  contentOffset = copyOf(contentOffset, capacity);
+                  contentLength = copyOf(contentLength, capacity);
+                  attributeOffset = copyOf(attributeOffset, capacity);
+                  attributeCount = copyOf(attributeCount, capacity);
+                  namespaceOffset = copyOf(namespaceOffset, capacity);
+                  namespaceCount = copyOf(namespaceCount, capacity);
+                  locations = locations != null ? copyOf(locations, capacity * 5) : null;
+               }
+               if (top + 1 == open.length)
+               {
+                  open = copyOf(open, open.length << 1);
+                  lastChild = copyOf(lastChild, lastChild.length << 1);
+               }
+
+               //
+               int index = size++;
+               depth[index] = top + 2;
+               parent[index] = top >= 0 ? open[top] : -1;
+               nextSibling[index] = -1;
+               if (top >= 0)
+               {
+                  if (lastChild[top] != -1)
                   {
-                     stream.next();
+                     nextSibling[lastChild[top]] = index;
                   }
+                  lastChild[top] = index;
+               }
+               open[++top] = index;
+               lastChild[top] = -1;
+
+               //
+               String namespaceURI = stream.getNamespaceURI();
+               String prefix = stream.getPrefix();
+               names[index * 3] = symbol(namespaceURI != null ? namespaceURI : XMLConstants.NULL_NS_URI, ids, symbols, symbolTable);
+               names[index * 3 + 1] = symbol(stream.getLocalName(), ids, symbols, symbolTable);
+               names[index * 3 + 2] = symbol(prefix != null ? prefix : XMLConstants.DEFAULT_NS_PREFIX, ids, symbols, symbolTable);
+
+               //
+               if (locations != null)
+               {
+                  Location location = stream.getLocation();
+                  locations[index * 5] = location.getLineNumber();
+                  locations[index * 5 + 1] = location.getColumnNumber();
+                  locations[index * 5 + 2] = location.getCharacterOffset();
+                  locations[index * 5 + 3] = symbol(location.getPublicId(), ids, symbols, symbolTable);
+                  locations[index * 5 + 4] = symbol(location.getSystemId(), ids, symbols, symbolTable);
+               }
+
+               //
+               attributeOffset[index] = attributes.size();
+               attributeCount[index] = stream.getAttributeCount();
+               for (int i = 0;i < attributeCount[index];i++)
+               {
+                  String attributeURI = stream.getAttributeNamespace(i);
+                  attributes.add(symbols.get(symbol(attributeURI != null ? attributeURI : XMLConstants.NULL_NS_URI, ids, symbols, symbolTable)));
+                  attributes.add(symbols.get(symbol(stream.getAttributeLocalName(i), ids, symbols, symbolTable)));
+                  String attributePrefix = stream.getAttributePrefix(i);
+                  attributes.add(attributePrefix != null ? symbols.get(symbol(attributePrefix, ids, symbols, symbolTable)) : null);
+                  attributes.add(stream.getAttributeValue(i));
+               }
+
+               //
+               namespaceOffset[index] = namespaces.size();
+               namespaceCount[index] = stream.getNamespaceCount();
+               for (int i = 0;i < namespaceCount[index];i++)
+               {
+                  String namespacePrefix = stream.getNamespacePrefix(i);
+                  namespaces.add(namespacePrefix != null ? namespacePrefix : "");
+                  namespaces.add(stream.getNamespaceURI(i));
                }
+
+               //
+               contentOffset[index] = text.length();
+               contentLength[index] = -1;
+               reading = index;
             }
-            catch (XMLStreamException e)
+            else if (type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.CDATA)
             {
-               throw new StaxNavException(e);
+               if (reading != -1)
+               {
+                  int length = stream.getTextLength();
+                  text.append(stream.getTextCharacters(), stream.getTextStart(), length);
+                  contentLength[reading] = (contentLength[reading] == -1 ? 0 : contentLength[reading]) + length;
+               }
+            }
+            else if (type == XMLStreamConstants.END_ELEMENT)
+            {
+               reading = -1;
+               end[open[top--]] = size;
+            }
+            else if (type == XMLStreamConstants.END_DOCUMENT)
+            {
+               break;
             }
+            stream.next();
          }
-         if (root == null)
+
+         //
+         if (size == 0)
          {
             throw new StaxNavException(stream.getLocation(), "No head!!!!");
          }
-         return root;
+
+         //
+         this.size = size;
+         this.names = names;
+         this.depth = depth;
+         this.parent = parent;
+         this.nextSibling = nextSibling;
+         this.end = end;
+         this.contentOffset = contentOffset;
+         this.contentLength = contentLength;
+         this.attributeOffset = attributeOffset;
+         this.attributeCount = attributeCount;
+         this.namespaceOffset = namespaceOffset;
+         this.namespaceCount = namespaceCount;
+         this.locations = locations;
+         this.symbols = symbols.toArray(new String[symbols.size()]);
+         this.attributes = attributes.toArray(new String[attributes.size()]);
+         this.namespaces = namespaces.toArray(new String[namespaces.size()]);
+         this.text = text.toString();
+         this.elements = new Element[size];
+         this.entries = new Entry[size];
+      }
+
+      private static int symbol(String symbol, Map<String, Integer> ids, List<String> symbols, SymbolTable symbolTable)
+      {
+         if (symbol == null)
+         {
+            return -1;
+         }
+         Integer id = ids.get(symbol);
+         if (id == null)
+         {
+            id = symbols.size();
+            ids.put(symbol, id);
+            symbols.add(symbolTable != null ? symbolTable.get(symbol) : symbol);
+         }
+         return id;
+      }
+
+      private static int[] copyOf(int[] array, int length)
+      {
+         int[] copy = new int[length];
+         System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+         return copy;
+      }
+
+      private String symbol(int id)
+      {
+         return id != -1 ? symbols[id] : null;
+      }
+
+      private Entry getRoot()
+      {
+         return getEntry(0);
+      }
+
+      private Entry getEntry(int index)
+      {
+         if (index >= size)
+         {
+            return null;
+         }
+         Entry entry = entries[index];
+         if (entry == null)
+         {
+            entries[index] = entry = new IndexEntry(this, index);
+         }
+         return entry;
+      }
+
+      private Element getElement(int index)
+      {
+         Element element = elements[index];
+         if (element == null)
+         {
+            element = new Element();
+            element.parent = parent[index] != -1 ? getElement(parent[index]) : null;
+            element.depth = depth[index];
+            element.namespaceURI = symbols[names[index * 3]];
+            element.localName = symbols[names[index * 3 + 1]];
+            element.prefix = symbols[names[index * 3 + 2]];
+            if (locations != null)
+            {
+               element.lineNumber = locations[index * 5];
+               element.columnNumber = locations[index * 5 + 1];
+               element.characterOffset = locations[index * 5 + 2];
+               element.publicId = symbol(locations[index * 5 + 3]);
+               element.systemId = symbol(locations[index * 5 + 4]);
+            }
+            else
+            {
+               element.lineNumber = -1;
+               element.columnNumber = -1;
+               element.characterOffset = -1;
+            }
+            if (contentLength[index] != -1)
+            {
+               element.content = new ContentSequence(text, contentOffset[index], contentOffset[index] + contentLength[index]);
+            }
+            element.contentStatus = Element.CONTENT_READ;
+            int count = attributeCount[index];
+            if (count > 0)
+            {
+               element.attributes = new String[count << 2];
+               System.arraycopy(attributes, attributeOffset[index], element.attributes, 0, count << 2);
+            }
+            element.attributeCount = count;
+            count = namespaceCount[index];
+            if (count > 0)
+            {
+               Map<String, String> map = new HashMap<String, String>();
+               for (int i = 0, j = namespaceOffset[index];i < count;i++, j += 2)
+               {
+                  map.put(namespaces[j], namespaces[j + 1]);
+               }
+               element.namespaces = map;
+            }
+            else
+            {
+               element.namespaces = Collections.emptyMap();
+            }
+            elements[index] = element;
+         }
+         return element;
+      }
+   }
+
+   /**
+    * An entry of an index.
+    */
+   private static class IndexEntry extends Entry
+   {
+
+      /** . */
+      private final Index index;
+
+      /** . */
+      private final int position;
+
+      private IndexEntry(Index index, int position)
+      {
+         this.index = index;
+         this.position = position;
+      }
+
+      protected Element getElement() throws StaxNavException
+      {
+         return index.getElement(position);
       }
 
       protected boolean hasNext(int depth) throws StaxNavException
       {
-         return get().hasNext(depth);
+         return position + 1 < index.size && index.depth[position + 1] > depth;
       }
 
       protected Entry next(int depth) throws StaxNavException
       {
-         return get().next(depth);
+         return hasNext(depth) ? index.getEntry(position + 1) : null;
       }
 
       protected Entry next() throws StaxNavException
       {
-         return get().next();
+         return index.getEntry(position + 1);
+      }
+
+      protected Entry skip() throws StaxNavException
+      {
+         return index.getEntry(index.end[position]);
       }
 
       @Override
-      protected Element getElement() throws StaxNavException
+      protected String getContent(boolean trim) throws StaxNavException
       {
-         return get().getElement();
+         return getElement().getContent(trim);
+      }
+
+      @Override
+      protected CharSequence getContentSequence(boolean keep) throws StaxNavException
+      {
+         return getElement().getContentSequence();
+      }
+
+      @Override
+      protected Reader getContentReader() throws StaxNavException
+      {
+         return new SequenceReader(getElement().getContentSequence());
+      }
+
+      @Override
+      protected void pin() throws StaxNavException
+      {
+      }
+
+      @Override
+      protected Entry fork() throws StaxNavException
+      {
+         return this;
+      }
+
+      @Override
+      protected StaxNavigatorImpl<?> setOwner(StaxNavigatorImpl<?> owner)
+      {
+         return null;
+      }
+
+      @Override
+      protected boolean isStreaming()
+      {
+         return false;
+      }
+
+      @Override
+      protected long getSequence()
+      {
+         return 0;
       }
 
       @Override
       public String toString()
       {
-         return "HeadEntry";
+         return "IndexEntry[position=" + position + "]";
       }
    }
 
-   private static class StreamEntry extends Entry
+   /**
+    * Reads the content of an element from the stream, the text events are copied to the read buffers without being
+    * retained. The reader is valid until the navigator moves, the navigation passes over the content that was not
+    * read.
+    */
+   private static class StreamReader extends Reader
    {
 
       /** . */
-      private final XMLStreamReader stream;
+      private final StreamEntry entry;
 
       /** . */
-      private final Element element;
+      private final long seq;
+
+      /** The position in the current text. */
+      private int position;
+
+      /** The length of the current text. */
+      private int length;
 
       /** . */
-      private StreamEntry next;
+      private boolean done;
 
-      private StreamEntry(XMLStreamReader stream, Element element)
+      private StreamReader(StreamEntry entry)
       {
-         this.stream = stream;
-         this.next = null;
-         this.element = element;
+         this.entry = entry;
+         this.seq = entry.seq;
+         this.position = 0;
+         this.length = 0;
+         this.done = false;
       }
 
-      protected Element getElement() throws StaxNavException
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException
       {
-         return element;
+         if (off < 0 || len < 0 || off + len > cbuf.length)
+         {
+            throw new IndexOutOfBoundsException();
+         }
+         if (done)
+         {
+            return -1;
+         }
+         Element element = entry.element;
+         if (entry.seq != seq || element.contentStatus != Element.CONTENT_STREAMING)
+         {
+            throw new IOException("The content of the element " + element.getQName() + " is not available anymore");
+         }
+         if (len == 0)
+         {
+            return 0;
+         }
+         XMLStreamReader stream = entry.context.stream;
+         try
+         {
+            while (position == length)
+            {
+               stream.next();
+               int type = stream.getEventType();
+               if (type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.CDATA)
+               {
+                  position = 0;
+                  length = stream.getTextLength();
+               }
+               else if (type == XMLStreamConstants.END_ELEMENT || type == XMLStreamConstants.END_DOCUMENT)
+               {
+                  element.contentStatus = Element.CONTENT_SKIPPED;
+                  done = true;
+                  return -1;
+               }
+               else if (type == XMLStreamConstants.START_ELEMENT)
+               {
+                  element.contentStatus = Element.CONTENT_SKIPPED;
+                  done = true;
+                  throw new IOException("The element " + element.getQName() + " has a mixed content");
+               }
+            }
+            int count = stream.getTextCharacters(position, cbuf, off, Math.min(len, length - position));
+            position += count;
+            return count;
+         }
+         catch (XMLStreamException e)
+         {
+            throw new IOException(e);
+         }
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+         done = true;
       }
+   }
 
-      protected boolean hasNext(int depth) throws StaxNavException
+   /**
+    * Reads a sequence of characters, a null sequence is read as an empty sequence.
+    */
+   private static class SequenceReader extends Reader
+   {
+
+      /** . */
+      private final CharSequence chars;
+
+      /** . */
+      private int position;
+
+      private SequenceReader(CharSequence chars)
       {
-         return next(depth) != null;
+         this.chars = chars != null ? chars : "";
+         this.position = 0;
       }
 
-      protected Entry next(int depth) throws StaxNavException
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException
       {
-         Entry next = next();
-         if (next != null && next.getElement().getDepth() > depth)
-         {
-            return next;
-         }
-         else
+         if (off < 0 || len < 0 || off + len > cbuf.length)
          {
-            return null;
+            throw new IndexOutOfBoundsException();
          }
-      }
-
-      protected Entry next() throws StaxNavException
-      {
-         try
+         if (position == chars.length())
          {
-            if (next == null)
-            {
-               Element parent = element;
-               while (true)
-               {
-                  int type = stream.getEventType();
-                  if (type == XMLStreamConstants.START_ELEMENT)
-                  {
-                     next = new StreamEntry(stream, new Element(stream, parent));
-                     break;
-                  }
-                  else if (type == XMLStreamConstants.END_ELEMENT)
-                  {
-                     parent = parent.getParent();
-                     stream.next();
-                  }
-                  else if (type == XMLStreamConstants.END_DOCUMENT)
-                  {
-                     break;
-                  }
-                  else
-                  {
-                     stream.next();
-                  }
-               }
-            }
-            return next;
+            return len == 0 ? 0 : -1;
          }
-         catch (XMLStreamException e)
+         int count = Math.min(len, chars.length() - position);
+         for (int i = 0;i < count;i++)
          {
-            throw new StaxNavException(e);
+            cbuf[off + i] = chars.charAt(position++);
          }
+         return count;
       }
 
       @Override
-      public String toString()
+      public void close() throws IOException
       {
-         return "StreamEntry[element=" + element + "]";
       }
    }
 
    private static class Element
    {
 
+      /** The content was not read yet, the stream points to the element start. */
+      private static final int CONTENT_PENDING = 0;
+
+      /** The content was read. */
+      private static final int CONTENT_READ = 1;
+
+      /** The content was passed over without being retained. */
+      private static final int CONTENT_SKIPPED = 2;
+
+      /** The content is being read by a reader, the stream points to the element start or to a text of the content. */
+      private static final int CONTENT_STREAMING = 3;
+
+      /** The content was passed over, its text is a range of a buffer shared with other elements. */
+      private static final int CONTENT_PASSED = 4;
+
+      /** Above this count the attribute lookups use the attribute maps instead of scanning the attributes. */
+      private static final int MAX_SCANNED_ATTRIBUTES = 8;
+
+      /** . */
+      private Element parent;
+
+      /** . */
+      private String namespaceURI;
+
+      /** . */
+      private String localName;
+
+      /** . */
+      private String prefix;
+
+      /** The qualified name, created on demand. */
+      private QName qname;
+
+      /** . */
+      private int depth;
+
+      /** The naming that resolved the cached name. */
+      private Naming<?> resolvedNaming;
+
+      /** The name resolved by the naming. */
+      private Object resolvedName;
+
+      /** The content as a string or as a sequence over a buffer, the sequence is replaced by its string when needed. */
+      private CharSequence content;
+
+      /** . */
+      private int contentStatus;
+
+      /** The buffer containing the passed over content. */
+      private StringBuilder contentBuffer;
+
       /** . */
-      private final Element parent;
+      private int contentOffset;
 
       /** . */
-      private final QName name;
+      private int contentLength;
+
+      /** True when the content should be retained when the element is passed over. */
+      private boolean keepContent;
+
+      /** The line number or -1 when the location is not tracked. */
+      private int lineNumber;
 
       /** . */
-      private final int depth;
+      private int columnNumber;
 
-      /** The content is not null. */
-      private final Object content;
+      /** . */
+      private int characterOffset;
 
       /** . */
-      private final Location location;
+      private String publicId;
 
       /** . */
-      private final Map<String, String> attributes;
+      private String systemId;
+
+      /** The attributes as consecutive (namespace URI, local name, prefix, value) tuples. */
+      private String[] attributes;
 
       /** . */
-      private final Map<QName, String> qualifiedAttributes;
+      private int attributeCount;
+
+      /** The unqualified attributes map, created on demand. */
+      private Map<String, String> attributeMap;
+
+      /** The qualified attributes map, created on demand. */
+      private Map<QName, String> qualifiedAttributeMap;
 
       /** . */
-      private final Map<String, String> namespaces;
+      private Map<String, String> namespaces;
+
+      /** True when the element cannot be recycled. */
+      private boolean pinned;
+
+      /** True when the element belongs to the subtree of a fork, the subtree elements are pinned and keep their content. */
+      private boolean scoped;
+
+      /** True when the descendants of the element were skipped. */
+      private boolean skipped;
+
+      private Element()
+      {
+      }
 
-      private Element(XMLStreamReader stream, Element parent) throws XMLStreamException
+      /**
+       * Reads the element start from the stream, the existing state is discarded. The stream remains positioned on the
+       * element start, the content is read by {@link #readContent(XMLStreamReader, boolean)}.
+       *
+       * @param stream the stream
+       * @param parent the parent element
+       * @param trackLocation true if the element location should be retained
+       * @param symbols the symbol table providing the canonical names or null
+       * @throws XMLStreamException any XMLStreamException
+       */
+      private void read(XMLStreamReader stream, Element parent, boolean trackLocation, SymbolTable symbols) throws XMLStreamException
       {
          // We assume that the stream points to the start of the modelled element
          if (stream.getEventType() != XMLStreamConstants.START_ELEMENT)
@@ -853,33 +3517,61 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
             throw new AssertionError();
          }
 
-         //
-         QName name = stream.getName();
-         Location location = stream.getLocation();
+         // Read the name parts, the qualified name is created on demand
+         String elementURI = stream.getNamespaceURI();
+         String localName = stream.getLocalName();
+         String prefix = stream.getPrefix();
+         if (symbols != null)
+         {
+            elementURI = symbols.get(elementURI);
+            localName = symbols.get(localName);
+            prefix = symbols.get(prefix);
+         }
 
-         //
-         Map<String, String> attributes = Collections.emptyMap();
-         Map<QName, String> qualifiedAttributes = Collections.emptyMap();
+         // Only retain the location coordinates
+         if (trackLocation)
+         {
+            Location location = stream.getLocation();
+            this.lineNumber = location.getLineNumber();
+            this.columnNumber = location.getColumnNumber();
+            this.characterOffset = location.getCharacterOffset();
+            this.publicId = location.getPublicId();
+            this.systemId = location.getSystemId();
+         }
+         else
+         {
+            this.lineNumber = -1;
+            this.columnNumber = -1;
+            this.characterOffset = -1;
+            this.publicId = null;
+            this.systemId = null;
+         }
+
+         // The attribute array is reused when the element is recycled
          int attributeCount = stream.getAttributeCount();
-         for (int i = 0;i < attributeCount;i++)
+         String[] attributes = this.attributes;
+         if (attributeCount > 0)
          {
-            String attributeValue = stream.getAttributeValue(i);
-            QName attributeName = stream.getAttributeName(i);
-            if (XMLConstants.NULL_NS_URI.equals(attributeName.getNamespaceURI()))
+            int length = attributeCount << 2;
+            if (attributes == null || attributes.length < length)
             {
-               if (attributes.isEmpty())
-               {
-                  attributes = new HashMap<String, String>();
-               }
-               attributes.put(attributeName.getLocalPart(), attributeValue);
+               attributes = new String[length];
             }
-            else
+            for (int i = 0, j = 0;i < attributeCount;i++)
             {
-               if (qualifiedAttributes.isEmpty())
+               String attributeURI = stream.getAttributeNamespace(i);
+               String attributeLocalName = stream.getAttributeLocalName(i);
+               String attributePrefix = stream.getAttributePrefix(i);
+               if (symbols != null)
                {
-                  qualifiedAttributes = new HashMap<QName, String>();
+                  attributeURI = symbols.get(attributeURI);
+                  attributeLocalName = symbols.get(attributeLocalName);
+                  attributePrefix = symbols.get(attributePrefix);
                }
-               qualifiedAttributes.put(attributeName, attributeValue);
+               attributes[j++] = attributeURI != null ? attributeURI : XMLConstants.NULL_NS_URI;
+               attributes[j++] = attributeLocalName;
+               attributes[j++] = attributePrefix;
+               attributes[j++] = stream.getAttributeValue(i);
             }
          }
 
@@ -897,6 +3589,11 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
                   namespacePrefix = "";
                }
                String namespaceURI = stream.getNamespaceURI(i);
+               if (symbols != null)
+               {
+                  namespacePrefix = symbols.get(namespacePrefix);
+                  namespaceURI = symbols.get(namespaceURI);
+               }
                namespaces.put(namespacePrefix, namespaceURI);
             }
          }
@@ -905,10 +3602,45 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
             namespaces = Collections.emptyMap();
          }
 
+         //
+         int depth = 1 + (parent != null ? parent.getDepth() : 0);
+
+         //
+         this.parent = parent;
+         this.namespaceURI = elementURI != null ? elementURI : XMLConstants.NULL_NS_URI;
+         this.localName = localName;
+         this.prefix = prefix != null ? prefix : XMLConstants.DEFAULT_NS_PREFIX;
+         this.qname = null;
+         this.depth = depth;
+         this.resolvedNaming = null;
+         this.resolvedName = null;
+         this.content = null;
+         this.contentStatus = CONTENT_PENDING;
+         this.contentBuffer = null;
+         this.keepContent = false;
+         this.attributes = attributes;
+         this.attributeCount = attributeCount;
+         this.attributeMap = null;
+         this.qualifiedAttributeMap = null;
+         this.namespaces = namespaces;
+         this.pinned = false;
+         this.scoped = false;
+         this.skipped = false;
+      }
+
+      /**
+       * Reads the element content, when the content is not kept the text is passed over without being copied.
+       *
+       * @param stream the stream
+       * @param keep true if the content should be retained
+       * @throws XMLStreamException any XMLStreamException
+       */
+      private void readContent(XMLStreamReader stream, boolean keep) throws XMLStreamException
+      {
          // When we leave we assume that we are positionned on the next element start or the document end
          StringBuilder sb = null;
          String chunk = null;
-         Object content = null;
+         CharSequence content = null;
          while (true)
          {
             stream.next();
@@ -917,7 +3649,7 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
             {
                break;
             }
-            else if (type == XMLStreamConstants.CHARACTERS)
+            else if ((type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.CDATA) && keep)
             {
                if (chunk == null)
                {
@@ -936,7 +3668,7 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
             {
                if (sb != null)
                {
-                  content = sb;
+                  content = new ContentSequence(sb, 0, sb.length());
                }
                else
                {
@@ -947,17 +3679,153 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
          }
 
          //
-         int depth = 1 + (parent != null ? parent.getDepth() : 0);
+         this.content = content;
+         this.contentStatus = keep ? CONTENT_READ : CONTENT_SKIPPED;
+      }
+
+      /**
+       * Reads the element content in the specified buffer, the content is not retained by the element. The text is
+       * appended to the buffer, the buffer is restored when the element has no text, a mixed content or a text longer
+       * than the limit, the content is skipped in the last case.
+       *
+       * @param stream the stream
+       * @param buffer the buffer
+       * @param limit the maximum length of the appended text
+       * @return true when the text of the element was appended to the buffer
+       * @throws XMLStreamException any XMLStreamException
+       */
+      private boolean readContent(XMLStreamReader stream, StringBuilder buffer, int limit) throws XMLStreamException
+      {
+         int offset = buffer.length();
+         boolean text = false;
+         boolean retained = true;
+         while (true)
+         {
+            stream.next();
+            int type = stream.getEventType();
+            if (type == XMLStreamConstants.END_DOCUMENT || type == XMLStreamConstants.START_ELEMENT)
+            {
+               text = false;
+               break;
+            }
+            else if (type == XMLStreamConstants.CHARACTERS || type == XMLStreamConstants.CDATA)
+            {
+               if (retained)
+               {
+                  int length = stream.getTextLength();
+                  if (buffer.length() - offset + length > limit)
+                  {
+                     // Stop copying, the remaining text is passed over
+                     buffer.setLength(offset);
+                     retained = false;
+                  }
+                  else
+                  {
+                     buffer.append(stream.getTextCharacters(), stream.getTextStart(), length);
+                  }
+               }
+               text = true;
+            }
+            else if (type == XMLStreamConstants.END_ELEMENT)
+            {
+               break;
+            }
+         }
 
          //
-         this.parent = parent;
-         this.name = name;
-         this.depth = depth;
-         this.content = content;
-         this.attributes = attributes;
-         this.qualifiedAttributes = qualifiedAttributes;
-         this.namespaces = namespaces;
-         this.location = location;
+         this.content = null;
+         if (text && retained)
+         {
+            this.contentStatus = CONTENT_SKIPPED;
+            return true;
+         }
+         else
+         {
+            buffer.setLength(offset);
+            this.contentStatus = text ? CONTENT_SKIPPED : CONTENT_READ;
+            return false;
+         }
+      }
+
+      /**
+       * Reads the element content and appends its text to a buffer shared with other elements, the element retains the
+       * range of its text in the buffer. A text longer than the limit is not copied and the content is skipped.
+       *
+       * @param stream the stream
+       * @param buffer the buffer
+       * @param limit the maximum length of the appended text
+       * @throws XMLStreamException any XMLStreamException
+       */
+      private void passContent(XMLStreamReader stream, StringBuilder buffer, int limit) throws XMLStreamException
+      {
+         int offset = buffer.length();
+         if (readContent(stream, buffer, limit))
+         {
+            this.contentBuffer = buffer;
+            this.contentOffset = offset;
+            this.contentLength = buffer.length() - offset;
+            this.contentStatus = CONTENT_PASSED;
+         }
+      }
+
+      /**
+       * Replaces a passed over content by a sequence over the range of the buffer it was appended to.
+       */
+      private void resolveContent()
+      {
+         if (contentStatus == CONTENT_PASSED)
+         {
+            content = new ContentSequence(contentBuffer, contentOffset, contentOffset + contentLength);
+            contentBuffer = null;
+            contentStatus = CONTENT_READ;
+         }
+      }
+
+      /**
+       * Returns a copy of this element that does not share mutable state with it, the content must have been read.
+       *
+       * @param parent the parent of the copy
+       * @return the copy
+       */
+      private Element copy(Element parent)
+      {
+         resolveContent();
+         Element copy = new Element();
+         copy.parent = parent;
+         copy.namespaceURI = namespaceURI;
+         copy.localName = localName;
+         copy.prefix = prefix;
+         copy.qname = qname;
+         copy.depth = depth;
+         copy.resolvedNaming = resolvedNaming;
+         copy.resolvedName = resolvedName;
+         copy.content = content;
+         copy.contentStatus = contentStatus;
+         copy.keepContent = false;
+         copy.lineNumber = lineNumber;
+         copy.columnNumber = columnNumber;
+         copy.characterOffset = characterOffset;
+         copy.publicId = publicId;
+         copy.systemId = systemId;
+         copy.attributes = attributeCount > 0 ? attributes.clone() : null;
+         copy.attributeCount = attributeCount;
+         copy.attributeMap = attributeMap;
+         copy.qualifiedAttributeMap = qualifiedAttributeMap;
+         copy.namespaces = namespaces;
+         copy.pinned = false;
+         copy.scoped = false;
+         copy.skipped = skipped;
+         return copy;
+      }
+
+      /**
+       * Returns a copy of this element and of its ancestors.
+       *
+       * @return the copy
+       */
+      private Element copyPath()
+      {
+         return copy(parent != null ? parent.copyPath() : null);
       }
 
       protected Element getParent()
@@ -965,9 +3833,31 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
          return parent;
       }
 
+      /**
+       * Returns the element name resolved by the naming, the resolved name is cached by the element so the naming
+       * resolves it once. The naming is given the name parts read from the stream, the qualified name is created only
+       * for the qualified naming.
+       *
+       * @param naming the naming
+       * @param <N> the name type
+       * @return the resolved name
+       */
+      @SuppressWarnings("unchecked")
       protected <N> N getName(Naming<N> naming)
       {
-         return naming.getName(getName());
+         if (naming != resolvedNaming)
+         {
+            if (naming instanceof Naming.Qualified)
+            {
+               resolvedName = naming.getName(getQName());
+            }
+            else
+            {
+               resolvedName = naming.getName(namespaceURI, prefix, localName);
+            }
+            resolvedNaming = naming;
+         }
+         return (N)resolvedName;
       }
 
       protected String getNamespaceByPrefix(String namespacePrefix)
@@ -983,11 +3873,20 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
          return null;
       }
 
-      protected String getContent(boolean trim)
+      protected String getContent(boolean trim) throws StaxNavException
       {
-         if (content != null)
+         resolveContent();
+         if (contentStatus == CONTENT_SKIPPED || contentStatus == CONTENT_STREAMING)
+         {
+            throw new StaxNavException(getLocation(), "The content of the element " + getQName() + " was not retained");
+         }
+         else if (content != null)
          {
-            String s = content.toString();
+            if (!(content instanceof String))
+            {
+               content = content.toString();
+            }
+            String s = (String)content;
             if (trim)
             {
                s = s.trim();
@@ -1000,9 +3899,28 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
          }
       }
 
-      protected QName getName()
+      protected CharSequence getContentSequence() throws StaxNavException
+      {
+         resolveContent();
+         if (contentStatus == CONTENT_SKIPPED || contentStatus == CONTENT_STREAMING)
+         {
+            throw new StaxNavException(getLocation(), "The content of the element " + getQName() + " was not retained");
+         }
+         return content;
+      }
+
+      protected String getLocalName()
+      {
+         return localName;
+      }
+
+      protected QName getQName()
       {
-         return name;
+         if (qname == null)
+         {
+            qname = new QName(namespaceURI, localName, prefix);
+         }
+         return qname;
       }
 
       protected int getDepth()
@@ -1010,19 +3928,84 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
          return depth;
       }
 
+      /**
+       * Returns the element location, a new location object is created for each invocation.
+       *
+       * @return the location or null when the location is not tracked
+       */
       protected Location getLocation()
       {
-         return location;
+         return lineNumber != -1 ? new ElementLocation(lineNumber, columnNumber, characterOffset, publicId, systemId) : null;
+      }
+
+      protected String getAttribute(String namespaceURI, String localName)
+      {
+         if (attributeCount > MAX_SCANNED_ATTRIBUTES)
+         {
+            if (XMLConstants.NULL_NS_URI.equals(namespaceURI))
+            {
+               return getAttributes().get(localName);
+            }
+            else
+            {
+               return getQualifiedAttributes().get(new QName(namespaceURI, localName));
+            }
+         }
+         else
+         {
+            for (int i = 0, j = 0;i < attributeCount;i++, j += 4)
+            {
+               if (localName.equals(attributes[j + 1]) && namespaceURI.equals(attributes[j]))
+               {
+                  return attributes[j + 3];
+               }
+            }
+            return null;
+         }
       }
 
       protected Map<String, String> getAttributes()
       {
-         return attributes;
+         if (attributeMap == null)
+         {
+            Map<String, String> map = null;
+            for (int i = 0, j = 0;i < attributeCount;i++, j += 4)
+            {
+               if (XMLConstants.NULL_NS_URI.equals(attributes[j]))
+               {
+                  if (map == null)
+                  {
+                     map = new HashMap<String, String>();
+                  }
+                  map.put(attributes[j + 1], attributes[j + 3]);
+               }
+            }
+            attributeMap = map != null ? Collections.unmodifiableMap(map) : Collections.<String, String>emptyMap();
+         }
+         return attributeMap;
       }
 
       protected Map<QName, String> getQualifiedAttributes()
       {
-         return qualifiedAttributes;
+         if (qualifiedAttributeMap == null)
+         {
+            if (attributeCount > 0)
+            {
+               Map<QName, String> map = new HashMap<QName, String>();
+               for (int i = 0, j = 0;i < attributeCount;i++, j += 4)
+               {
+                  String prefix = attributes[j + 2];
+                  QName name = prefix != null ? new QName(attributes[j], attributes[j + 1], prefix) : new QName(attributes[j], attributes[j + 1]);
+                  map.put(name, attributes[j + 3]);
+               }
+               qualifiedAttributeMap = Collections.unmodifiableMap(map);
+            }
+            else
+            {
+               qualifiedAttributeMap = Collections.emptyMap();
+            }
+         }
+         return qualifiedAttributeMap;
       }
 
       protected Map<String, String> getNamespaces()
@@ -1033,7 +4016,69 @@ class StaxNavigatorImpl<N> implements StaxNavigator<N>
       @Override
       public String toString()
       {
-         return "Element[name=" + name + ",location=" + location + "]";
+         return "Element[name=" + getQName() + ",location=" + getLocation() + "]";
+      }
+   }
+
+   /**
+    * A location created from the coordinates retained by an element.
+    */
+   private static class ElementLocation implements Location
+   {
+
+      /** . */
+      private final int lineNumber;
+
+      /** . */
+      private final int columnNumber;
+
+      /** . */
+      private final int characterOffset;
+
+      /** . */
+      private final String publicId;
+
+      /** . */
+      private final String systemId;
+
+      private ElementLocation(int lineNumber, int columnNumber, int characterOffset, String publicId, String systemId)
+      {
+         this.lineNumber = lineNumber;
+         this.columnNumber = columnNumber;
+         this.characterOffset = characterOffset;
+         this.publicId = publicId;
+         this.systemId = systemId;
+      }
+
+      public int getLineNumber()
+      {
+         return lineNumber;
+      }
+
+      public int getColumnNumber()
+      {
+         return columnNumber;
+      }
+
+      public int getCharacterOffset()
+      {
+         return characterOffset;
+      }
+
+      public String getPublicId()
+      {
+         return publicId;
+      }
+
+      public String getSystemId()
+      {
+         return systemId;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "[row,col]:[" + lineNumber + "," + columnNumber + "]";
       }
    }
 }
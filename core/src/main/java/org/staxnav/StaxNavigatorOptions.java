@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.namespace.QName;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The options used when a navigator is created by the {@link StaxNavigatorFactory}. The options are read when the
+ * navigator is created, modifying them afterwards does not affect existing navigators.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class StaxNavigatorOptions
+{
+
+   /** . */
+   private boolean cursor;
+
+   /** . */
+   private boolean skipContent;
+
+   /** . */
+   private boolean trackLocation;
+
+   /** . */
+   private boolean skipSubtrees;
+
+   /** . */
+   private boolean captureForks;
+
+   /** . */
+   private boolean indexed;
+
+   /** . */
+   private boolean streaming;
+
+   /** . */
+   private SymbolTable symbolTable;
+
+   /** . */
+   private Set<QName> contentInterest;
+
+   public StaxNavigatorOptions()
+   {
+      this.cursor = false;
+      this.skipContent = false;
+      this.trackLocation = true;
+      this.skipSubtrees = false;
+      this.captureForks = false;
+      this.indexed = false;
+      this.streaming = false;
+      this.symbolTable = null;
+      this.contentInterest = Collections.emptySet();
+   }
+
+   /**
+    * Returns the cursor mode configuration.
+    *
+    * @return true when cursor mode is enabled
+    */
+   public boolean getCursor()
+   {
+      return cursor;
+   }
+
+   /**
+    * <p>Configures the cursor mode. In cursor mode the navigator recycles the records it uses to model the elements
+    * of the stream: a couple of records per depth level are reused as the navigator moves forward instead of creating
+    * new objects for each element.</p>
+    *
+    * <p>The navigator behaves as a forward only cursor: the current element and its ancestors remain available but
+    * the elements passed over by a navigation may be recycled, even when the navigation fails. Navigating from the
+    * current element after such a failure resumes at the stream position.</p>
+    *
+    * <p>Forks remain supported: the subtree of a forked element is retained and is never recycled. The navigation
+    * of a fork should remain in the scope of the forked element.</p>
+    *
+    * @param cursor true to enable cursor mode
+    * @return this object
+    */
+   public StaxNavigatorOptions setCursor(boolean cursor)
+   {
+      this.cursor = cursor;
+      return this;
+   }
+
+   /**
+    * Returns the content skipping configuration.
+    *
+    * @return true when content skipping is enabled
+    */
+   public boolean getSkipContent()
+   {
+      return skipContent;
+   }
+
+   /**
+    * Configures content skipping. When content skipping is enabled the text of an element is copied only when a
+    * navigator stops on that element, when the element belongs to the subtree of a fork or when its name belongs to
+    * the {@link #setContentInterest content interest}. Outside of the cursor mode the short text of the elements
+    * passed over by a navigation is appended to a buffer they share instead of being copied to a string, it remains
+    * available when a later navigation stops on such an element. In cursor mode or when the text is long, the text of
+    * a passed over element is not retained. Obtaining the content of an element whose text was not retained raises a
+    * {@link StaxNavException}.
+    *
+    * @param skipContent true to enable content skipping
+    * @return this object
+    */
+   public StaxNavigatorOptions setSkipContent(boolean skipContent)
+   {
+      this.skipContent = skipContent;
+      return this;
+   }
+
+   /**
+    * Returns the content interest configuration.
+    *
+    * @return the names of the elements whose content is retained when content skipping is enabled
+    */
+   public Set<QName> getContentInterest()
+   {
+      return contentInterest;
+   }
+
+   /**
+    * Configures the names of the elements whose content is always retained when content skipping is enabled, the
+    * text of these elements is copied even when a navigation passes over them. The set is copied, it is empty by
+    * default.
+    *
+    * @param contentInterest the names of the elements
+    * @return this object
+    * @throws NullPointerException if the set is null
+    */
+   public StaxNavigatorOptions setContentInterest(Set<QName> contentInterest) throws NullPointerException
+   {
+      if (contentInterest == null)
+      {
+         throw new NullPointerException("No null content interest accepted");
+      }
+      this.contentInterest = Collections.unmodifiableSet(new HashSet<QName>(contentInterest));
+      return this;
+   }
+
+   /**
+    * Returns the location tracking configuration.
+    *
+    * @return true when location tracking is enabled
+    */
+   public boolean getTrackLocation()
+   {
+      return trackLocation;
+   }
+
+   /**
+    * Configures location tracking, it is enabled by default. When location tracking is enabled the line number,
+    * column number and character offset of each element start are retained and the {@link javax.xml.stream.Location}
+    * object is created when it is needed. When location tracking is disabled the stream location is never queried
+    * and the navigator returns a null location, the exceptions raised by the navigator do not carry a location either.
+    *
+    * @param trackLocation true to enable location tracking
+    * @return this object
+    */
+   public StaxNavigatorOptions setTrackLocation(boolean trackLocation)
+   {
+      this.trackLocation = trackLocation;
+      return this;
+   }
+
+   /**
+    * Returns the subtree skipping configuration.
+    *
+    * @return true when subtree skipping is enabled
+    */
+   public boolean getSkipSubtrees()
+   {
+      return skipSubtrees;
+   }
+
+   /**
+    * <p>Configures subtree skipping. When subtree skipping is enabled the sibling navigations pass over the subtrees of
+    * the current element and of the siblings that do not match, and the child navigations pass over the subtrees of
+    * the children that do not match: the descendants are skipped at the stream level without being modelled.</p>
+    *
+    * <p>A subtree is never skipped when it is needed by a fork. Navigating into the subtree of an element whose
+    * descendants were skipped raises a {@link StaxNavException}, for instance after a failed sibling navigation
+    * the descendants of the current element are not available anymore.</p>
+    *
+    * @param skipSubtrees true to enable subtree skipping
+    * @return this object
+    */
+   public StaxNavigatorOptions setSkipSubtrees(boolean skipSubtrees)
+   {
+      this.skipSubtrees = skipSubtrees;
+      return this;
+   }
+
+   /**
+    * Returns the fork capture configuration.
+    *
+    * @return true when the forks are captured
+    */
+   public boolean getCaptureForks()
+   {
+      return captureForks;
+   }
+
+   /**
+    * <p>Configures the capture of the forks. When the forks are captured, the subtree of a forked element is read
+    * from the stream when the fork is created and encoded in a compact form in a direct buffer: the names are
+    * encoded as symbol identifiers and the text in UTF-8. The fork navigates the buffer, its elements are decoded
+    * when they are navigated and are not retained, so the forks that outlive the navigator position cost a fraction
+    * of the heap used by the forks sharing the navigator elements.</p>
+    *
+    * <p>A captured fork does not share any state with the navigator it was forked from. In cursor mode the records
+    * of the captured subtree are not recycled, so the navigator it was forked from can still navigate into it.</p>
+    *
+    * @param captureForks true to capture the forks
+    * @return this object
+    */
+   public StaxNavigatorOptions setCaptureForks(boolean captureForks)
+   {
+      this.captureForks = captureForks;
+      return this;
+   }
+
+   /**
+    * Returns the indexed mode configuration.
+    *
+    * @return true when indexed mode is enabled
+    */
+   public boolean getIndexed()
+   {
+      return indexed;
+   }
+
+   /**
+    * <p>Configures the indexed mode. In indexed mode the whole document is read when the navigator is created and is
+    * modelled by flat arrays: the name, depth, parent, next sibling, subtree end and content offset of each element.
+    * The child and sibling navigations jump over the subtrees instead of scanning them and forks are created without
+    * any copy, which suits documents navigated many times.</p>
+    *
+    * <p>The stream is not used anymore once the navigator is created. The cursor, content skipping, subtree
+    * skipping, fork capture and streaming options do not apply to the indexed mode.</p>
+    *
+    * @param indexed true to enable the indexed mode
+    * @return this object
+    */
+   public StaxNavigatorOptions setIndexed(boolean indexed)
+   {
+      this.indexed = indexed;
+      return this;
+   }
+
+   /**
+    * Returns the streaming mode configuration.
+    *
+    * @return true when streaming mode is enabled
+    */
+   public boolean getStreaming()
+   {
+      return streaming;
+   }
+
+   /**
+    * <p>Configures the streaming mode, it guarantees that the memory used by the navigator is bounded by the depth
+    * of the document and by the text of the elements a navigator stops on rather than by the size of the document.
+    * The streaming mode implies the cursor mode and content skipping: the records modelling the elements are recycled
+    * and the text is retained only for the elements a navigator stops on. The text of the elements passed over by a
+    * navigation is not retained, even when a later navigation stops on such an element, unless their name belongs to
+    * the {@link #setContentInterest content interest}.</p>
+    *
+    * <p>The forks do not retain their subtree, they navigate the elements of the stream in place: a fork remains
+    * valid as long as the navigation stays in the subtree of the forked element. Once the navigator it was forked
+    * from moves past that element, using the fork raises a {@link StaxNavException}, so a fork that is still
+    * referenced does not retain the document. The forks of the navigator iterating forks or invoking a
+    * {@link Parser} are valid until the next iteration or until the parser returns. The forks created by
+    * {@link StaxNavigator#forkParallel} and the captured forks copy their subtree and are not affected. Likewise the
+    * {@link StaxNavigator#fork(Axis)} navigations that move the navigator past the forked element, along the
+    * {@link Axis#FOLLOWING_SIBLING} axis or along the {@link Axis#NEXT} axis from an element without children, copy
+    * the subtree of the forked element, the memory they use is bounded by the size of that subtree.</p>
+    *
+    * @param streaming true to enable streaming mode
+    * @return this object
+    */
+   public StaxNavigatorOptions setStreaming(boolean streaming)
+   {
+      this.streaming = streaming;
+      return this;
+   }
+
+   /**
+    * Returns the symbol table configuration.
+    *
+    * @return the symbol table or null when no symbol table is used
+    */
+   public SymbolTable getSymbolTable()
+   {
+      return symbolTable;
+   }
+
+   /**
+    * Configures the symbol table providing the canonical instances of the names, namespace URIs and prefixes read
+    * by the navigator. The same table can be shared by the navigators created with these options or with other
+    * options, it is not used by default.
+    *
+    * @param symbolTable the symbol table or null to not use a symbol table
+    * @return this object
+    */
+   public StaxNavigatorOptions setSymbolTable(SymbolTable symbolTable)
+   {
+      this.symbolTable = symbolTable;
+      return this;
+   }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A table of canonical symbols shared by navigators: the element names, attribute names, namespace URIs and prefixes
+ * read from the streams are replaced by their canonical instance so navigators parsing documents using the same
+ * vocabulary share the same strings and name comparisons succeed on the reference check.</p>
+ *
+ * <p>The canonical instance of a symbol is its {@link String#intern() interned} value, so a symbol read from a stream
+ * is the same instance as the equal string literal. The table is bounded: when its capacity is reached the new
+ * symbols are not retained anymore and they are returned as is.</p>
+ *
+ * <p>The table is thread safe and is meant to be shared by the navigators created with the same
+ * {@link StaxNavigatorOptions}.</p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class SymbolTable
+{
+
+   /** . */
+   public static final int DEFAULT_CAPACITY = 4096;
+
+   /** . */
+   private final ConcurrentMap<String, String> symbols;
+
+   /** . */
+   private final int capacity;
+
+   /** . */
+   private final AtomicInteger size;
+
+   public SymbolTable()
+   {
+      this(DEFAULT_CAPACITY);
+   }
+
+   public SymbolTable(int capacity) throws IllegalArgumentException
+   {
+      if (capacity < 0)
+      {
+         throw new IllegalArgumentException("No negative capacity accepted");
+      }
+
+      //
+      this.symbols = new ConcurrentHashMap<String, String>();
+      this.capacity = capacity;
+      this.size = new AtomicInteger();
+   }
+
+   /**
+    * Returns the canonical instance of a symbol, the symbol is added to the table when it is not present and the table
+    * capacity is not reached.
+    *
+    * @param symbol the symbol
+    * @return the canonical symbol or the symbol argument when the table is full
+    */
+   public String get(String symbol)
+   {
+      if (symbol == null)
+      {
+         return null;
+      }
+      String canonical = symbols.get(symbol);
+      if (canonical == null)
+      {
+         // Reserve a room before adding the symbol so the table never exceeds its capacity
+         for (int current = size.get();current < capacity;current = size.get())
+         {
+            if (size.compareAndSet(current, current + 1))
+            {
+               canonical = symbol.intern();
+               String previous = symbols.putIfAbsent(canonical, canonical);
+               if (previous != null)
+               {
+                  size.decrementAndGet();
+                  canonical = previous;
+               }
+               return canonical;
+            }
+         }
+         canonical = symbol;
+      }
+      return canonical;
+   }
+
+   /**
+    * Returns the number of symbols retained by the table.
+    *
+    * @return the size
+    */
+   public int getSize()
+   {
+      return size.get();
+   }
+
+   /**
+    * Returns the maximum number of symbols retained by the table.
+    *
+    * @return the capacity
+    */
+   public int getCapacity()
+   {
+      return capacity;
+   }
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Parses the XML schema date, time, date time and duration lexical forms to <code>java.time</code> values. The
+ * parsing scans the characters once, it does not use regular expressions, formatters or calendars. The leading and
+ * trailing characters trimmed by {@link String#trim()} are ignored.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+class Temporals
+{
+
+   /** The maximum number of fraction digits retained, the following digits are ignored. */
+   private static final int MAX_FRACTION_DIGITS = 9;
+
+   private Temporals()
+   {
+   }
+
+   /**
+    * Parses an <code>xsd:date</code>, the time zone is validated and ignored.
+    *
+    * @param s the string to parse
+    * @return the date
+    * @throws IllegalArgumentException if the string is not a date
+    */
+   static LocalDate parseDate(String s) throws IllegalArgumentException
+   {
+      Parser parser = new Parser(s);
+      LocalDate date = parser.date();
+      parser.offset();
+      parser.end();
+      return date;
+   }
+
+   /**
+    * Parses an <code>xsd:time</code>, the time zone is validated and ignored. The end of day
+    * <code>24:00:00</code> is parsed as midnight.
+    *
+    * @param s the string to parse
+    * @return the time
+    * @throws IllegalArgumentException if the string is not a time
+    */
+   static LocalTime parseTime(String s) throws IllegalArgumentException
+   {
+      Parser parser = new Parser(s);
+      LocalTime time = parser.time();
+      parser.offset();
+      parser.end();
+      return time != null ? time : LocalTime.MIDNIGHT;
+   }
+
+   /**
+    * Parses an <code>xsd:dateTime</code>, the time zone is validated and ignored. The end of day
+    * <code>24:00:00</code> is parsed as the midnight of the next day.
+    *
+    * @param s the string to parse
+    * @return the date time
+    * @throws IllegalArgumentException if the string is not a date time
+    */
+   static LocalDateTime parseDateTime(String s) throws IllegalArgumentException
+   {
+      Parser parser = new Parser(s);
+      LocalDateTime dateTime = parser.dateTime();
+      parser.offset();
+      parser.end();
+      return dateTime;
+   }
+
+   /**
+    * Parses an <code>xsd:dateTime</code> with a time zone.
+    *
+    * @param s the string to parse
+    * @return the date time
+    * @throws IllegalArgumentException if the string is not a date time or has no time zone
+    */
+   static OffsetDateTime parseOffsetDateTime(String s) throws IllegalArgumentException
+   {
+      Parser parser = new Parser(s);
+      LocalDateTime dateTime = parser.dateTime();
+      ZoneOffset offset = parser.offset();
+      parser.end();
+      if (offset == null)
+      {
+         throw new IllegalArgumentException("No time zone in " + s);
+      }
+      return OffsetDateTime.of(dateTime, offset);
+   }
+
+   /**
+    * Parses an <code>xsd:date</code> or an <code>xsd:dateTime</code> to a date, the values without time zone are
+    * interpreted in the default time zone.
+    *
+    * @param s the string to parse
+    * @param time true to parse a date time, false to parse a date
+    * @return the date
+    * @throws IllegalArgumentException if the string cannot be parsed
+    */
+   static Date parseLegacy(String s, boolean time) throws IllegalArgumentException
+   {
+      Parser parser = new Parser(s);
+      LocalDateTime dateTime = time ? parser.dateTime() : parser.date().atStartOfDay();
+      ZoneOffset offset = parser.offset();
+      parser.end();
+      ZoneId zone = offset != null ? offset : ZoneId.systemDefault();
+      return Date.from(dateTime.atZone(zone).toInstant());
+   }
+
+   /**
+    * Parses an <code>xsd:duration</code> made of days, hours, minutes and seconds such as a
+    * <code>xsd:dayTimeDuration</code>, a duration with years or months has no exact length and is rejected.
+    *
+    * @param s the string to parse
+    * @return the duration
+    * @throws IllegalArgumentException if the string is not a day time duration
+    */
+   static Duration parseDuration(String s) throws IllegalArgumentException
+   {
+      Parser parser = new Parser(s);
+      parser.duration();
+      if (parser.years != 0 || parser.months != 0)
+      {
+         throw new IllegalArgumentException("No years or months accepted in " + s);
+      }
+      Duration duration = Duration.ofSeconds(
+         Math.addExact(Math.multiplyExact(parser.days, 86400L),
+         Math.addExact(Math.multiplyExact(parser.hours, 3600L),
+         Math.addExact(Math.multiplyExact(parser.minutes, 60L), parser.seconds))), parser.nanos);
+      return parser.negative ? duration.negated() : duration;
+   }
+
+   /**
+    * Parses an <code>xsd:duration</code> made of years, months and days such as a
+    * <code>xsd:yearMonthDuration</code>, a duration with a time part is rejected.
+    *
+    * @param s the string to parse
+    * @return the period
+    * @throws IllegalArgumentException if the string is not a date duration
+    */
+   static Period parsePeriod(String s) throws IllegalArgumentException
+   {
+      Parser parser = new Parser(s);
+      parser.duration();
+      if (parser.hours != 0 || parser.minutes != 0 || parser.seconds != 0 || parser.nanos != 0)
+      {
+         throw new IllegalArgumentException("No time accepted in " + s);
+      }
+      Period period = Period.of(Math.toIntExact(parser.years), Math.toIntExact(parser.months), Math.toIntExact(parser.days));
+      return parser.negative ? period.negated() : period;
+   }
+
+   /**
+    * Scans a string, the parsing methods consume the characters they recognize and raise an
+    * {@link IllegalArgumentException} for an unexpected character.
+    */
+   private static class Parser
+   {
+
+      /** . */
+      private final String s;
+
+      /** . */
+      private final int end;
+
+      /** . */
+      private int index;
+
+      /** . */
+      private boolean negative;
+
+      /** . */
+      private long years;
+
+      /** . */
+      private long months;
+
+      /** . */
+      private long days;
+
+      /** . */
+      private long hours;
+
+      /** . */
+      private long minutes;
+
+      /** . */
+      private long seconds;
+
+      /** . */
+      private int nanos;
+
+      private Parser(String s)
+      {
+         int end = s.length();
+         while (end > 0 && s.charAt(end - 1) <= ' ')
+         {
+            end--;
+         }
+         int index = 0;
+         while (index < end && s.charAt(index) <= ' ')
+         {
+            index++;
+         }
+
+         //
+         this.s = s;
+         this.end = end;
+         this.index = index;
+      }
+
+      private LocalDate date()
+      {
+         boolean negative = accept('-');
+         int from = index;
+         int year = digits(4, 9);
+         if (index - from > 4 && s.charAt(from) == '0')
+         {
+            throw invalid();
+         }
+         expect('-');
+         int month = digits(2, 2);
+         expect('-');
+         int day = digits(2, 2);
+         try
+         {
+            return LocalDate.of(negative ? -year : year, month, day);
+         }
+         catch (RuntimeException e)
+         {
+            throw invalid();
+         }
+      }
+
+      /**
+       * Parses a time.
+       *
+       * @return the time or null for the end of day
+       */
+      private LocalTime time()
+      {
+         int hour = digits(2, 2);
+         expect(':');
+         int minute = digits(2, 2);
+         expect(':');
+         int second = digits(2, 2);
+         int nano = accept('.') ? fraction() : 0;
+         if (hour == 24 && minute == 0 && second == 0 && nano == 0)
+         {
+            return null;
+         }
+         try
+         {
+            return LocalTime.of(hour, minute, second, nano);
+         }
+         catch (RuntimeException e)
+         {
+            throw invalid();
+         }
+      }
+
+      private LocalDateTime dateTime()
+      {
+         LocalDate date = date();
+         expect('T');
+         LocalTime time = time();
+         return time != null ? LocalDateTime.of(date, time) : date.plusDays(1).atStartOfDay();
+      }
+
+      /**
+       * Parses an optional time zone.
+       *
+       * @return the time zone offset or null when there is no time zone
+       */
+      private ZoneOffset offset()
+      {
+         if (accept('Z'))
+         {
+            return ZoneOffset.UTC;
+         }
+         else if (index < end && (s.charAt(index) == '+' || s.charAt(index) == '-'))
+         {
+            int sign = s.charAt(index++) == '-' ? -1 : 1;
+            int hours = digits(2, 2);
+            expect(':');
+            int minutes = digits(2, 2);
+            if (hours > 14 || minutes > 59 || hours == 14 && minutes > 0)
+            {
+               throw invalid();
+            }
+            return ZoneOffset.ofHoursMinutes(sign * hours, sign * minutes);
+         }
+         else
+         {
+            return null;
+         }
+      }
+
+      private void duration()
+      {
+         negative = accept('-');
+         expect('P');
+         boolean empty = true;
+         int designator = 0;
+         boolean time = false;
+         while (index < end)
+         {
+            if (!time && accept('T'))
+            {
+               time = true;
+               if (index == end)
+               {
+                  throw invalid();
+               }
+               continue;
+            }
+            long value = number();
+            int nano = 0;
+            if (time && accept('.'))
+            {
+               nano = fraction();
+               if (index == end || s.charAt(index) != 'S')
+               {
+                  throw invalid();
+               }
+            }
+            if (index == end)
+            {
+               throw invalid();
+            }
+
+            // The designators must appear in order, the date designators before the time designators
+            int next = "YMDHMS".indexOf(s.charAt(index++), time ? 3 : 0) + 1;
+            if (next <= designator || !time && next > 3)
+            {
+               throw invalid();
+            }
+            designator = next;
+            switch (next)
+            {
+               case 1:
+                  years = value;
+                  break;
+               case 2:
+                  months = value;
+                  break;
+               case 3:
+                  days = value;
+                  break;
+               case 4:
+                  hours = value;
+                  break;
+               case 5:
+                  minutes = value;
+                  break;
+               default:
+                  seconds = value;
+                  nanos = nano;
+                  break;
+            }
+            empty = false;
+         }
+         if (empty)
+         {
+            throw invalid();
+         }
+      }
+
+      private void end()
+      {
+         if (index != end)
+         {
+            throw invalid();
+         }
+      }
+
+      private boolean accept(char c)
+      {
+         if (index < end && s.charAt(index) == c)
+         {
+            index++;
+            return true;
+         }
+         return false;
+      }
+
+      private void expect(char c)
+      {
+         if (!accept(c))
+         {
+            throw invalid();
+         }
+      }
+
+      private int digits(int min, int max)
+      {
+         int from = index;
+         int value = 0;
+         while (index < end && index - from < max)
+         {
+            int digit = s.charAt(index) - '0';
+            if (digit < 0 || digit > 9)
+            {
+               break;
+            }
+            value = value * 10 + digit;
+            index++;
+         }
+         if (index - from < min)
+         {
+            throw invalid();
+         }
+         return value;
+      }
+
+      private long number()
+      {
+         int from = index;
+         long value = 0;
+         while (index < end)
+         {
+            int digit = s.charAt(index) - '0';
+            if (digit < 0 || digit > 9)
+            {
+               break;
+            }
+            if (value > (Long.MAX_VALUE - digit) / 10)
+            {
+               throw invalid();
+            }
+            value = value * 10 + digit;
+            index++;
+         }
+         if (index == from)
+         {
+            throw invalid();
+         }
+         return value;
+      }
+
+      private int fraction()
+      {
+         int from = index;
+         int value = 0;
+         while (index < end)
+         {
+            int digit = s.charAt(index) - '0';
+            if (digit < 0 || digit > 9)
+            {
+               break;
+            }
+            if (index - from < MAX_FRACTION_DIGITS)
+            {
+               value = value * 10 + digit;
+            }
+            index++;
+         }
+         if (index == from)
+         {
+            throw invalid();
+         }
+         for (int i = index - from;i < MAX_FRACTION_DIGITS;i++)
+         {
+            value *= 10;
+         }
+         return value;
+      }
+
+      private IllegalArgumentException invalid()
+      {
+         return new IllegalArgumentException("Invalid value " + s);
+      }
+   }
+}
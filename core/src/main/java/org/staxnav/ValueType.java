@@ -19,7 +19,13 @@
 
 package org.staxnav;
 
-import javax.xml.bind.DatatypeConverter;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
 import java.util.Date;
 
 /**
@@ -69,30 +75,164 @@ public abstract class ValueType<V>
       }
    };
 
+   public static final ValueType<Short> SHORT = new ValueType<Short>()
+   {
+      @Override
+      protected Short parse(String s) throws Exception
+      {
+         return Primitives.parseShort(s);
+      }
+   };
+
    public static final ValueType<Integer> INTEGER = new ValueType<Integer>()
    {
       @Override
       protected Integer parse(String s) throws Exception
       {
-         return Integer.parseInt(s.trim());
+         return Primitives.parseInt(s);
+      }
+   };
+
+   public static final ValueType<Long> LONG = new ValueType<Long>()
+   {
+      @Override
+      protected Long parse(String s) throws Exception
+      {
+         return Primitives.parseLong(s);
+      }
+   };
+
+   /**
+    * An <code>xsd:double</code>, the syntax of {@link Double#parseDouble(String)} is accepted as well.
+    */
+   public static final ValueType<Double> DOUBLE = new ValueType<Double>()
+   {
+      @Override
+      protected Double parse(String s) throws Exception
+      {
+         return Primitives.parseDouble(s);
+      }
+   };
+
+   /**
+    * An <code>xsd:decimal</code>, the syntax of {@link BigDecimal#BigDecimal(String)} is accepted as well.
+    */
+   public static final ValueType<BigDecimal> DECIMAL = new ValueType<BigDecimal>()
+   {
+      @Override
+      protected BigDecimal parse(String s) throws Exception
+      {
+         return new BigDecimal(s.trim());
+      }
+   };
+
+   /**
+    * An <code>xsd:base64Binary</code>, the whitespace is ignored.
+    */
+   public static final ValueType<byte[]> BASE64_BINARY = new ValueType<byte[]>()
+   {
+      @Override
+      protected byte[] parse(String s) throws Exception
+      {
+         return Base64Decoder.decode(s);
       }
    };
 
+   /**
+    * An <code>xsd:date</code> at midnight, a date without time zone is interpreted in the default time zone.
+    */
    public static final ValueType<Date> DATE = new ValueType<Date>()
    {
       @Override
       protected Date parse(String s) throws Exception
       {
-         return DatatypeConverter.parseDate(s).getTime();
+         return Temporals.parseLegacy(s, false);
       }
    };
 
+   /**
+    * An <code>xsd:dateTime</code>, a date time without time zone is interpreted in the default time zone.
+    */
    public static final ValueType<Date> DATE_TIME = new ValueType<Date>()
    {
       @Override
       protected Date parse(String s) throws Exception
       {
-         return DatatypeConverter.parseDateTime(s).getTime();
+         return Temporals.parseLegacy(s, true);
+      }
+   };
+
+   /**
+    * An <code>xsd:date</code>, the time zone is ignored.
+    */
+   public static final ValueType<LocalDate> LOCAL_DATE = new ValueType<LocalDate>()
+   {
+      @Override
+      protected LocalDate parse(String s) throws Exception
+      {
+         return Temporals.parseDate(s);
+      }
+   };
+
+   /**
+    * An <code>xsd:time</code>, the time zone is ignored.
+    */
+   public static final ValueType<LocalTime> LOCAL_TIME = new ValueType<LocalTime>()
+   {
+      @Override
+      protected LocalTime parse(String s) throws Exception
+      {
+         return Temporals.parseTime(s);
+      }
+   };
+
+   /**
+    * An <code>xsd:dateTime</code>, the time zone is ignored.
+    */
+   public static final ValueType<LocalDateTime> LOCAL_DATE_TIME = new ValueType<LocalDateTime>()
+   {
+      @Override
+      protected LocalDateTime parse(String s) throws Exception
+      {
+         return Temporals.parseDateTime(s);
+      }
+   };
+
+   /**
+    * An <code>xsd:dateTime</code> with a time zone, a date time without time zone is rejected.
+    */
+   public static final ValueType<OffsetDateTime> OFFSET_DATE_TIME = new ValueType<OffsetDateTime>()
+   {
+      @Override
+      protected OffsetDateTime parse(String s) throws Exception
+      {
+         return Temporals.parseOffsetDateTime(s);
+      }
+   };
+
+   /**
+    * An <code>xsd:duration</code> made of days, hours, minutes and seconds, a duration with years or months is
+    * rejected.
+    */
+   public static final ValueType<Duration> DURATION = new ValueType<Duration>()
+   {
+      @Override
+      protected Duration parse(String s) throws Exception
+      {
+         return Temporals.parseDuration(s);
+      }
+   };
+
+   /**
+    * An <code>xsd:duration</code> made of years, months and days, a duration with hours, minutes or seconds is
+    * rejected.
+    */
+   public static final ValueType<Period> PERIOD = new ValueType<Period>()
+   {
+      @Override
+      protected Period parse(String s) throws Exception
+      {
+         return Temporals.parsePeriod(s);
       }
    };
 
@@ -19,8 +19,10 @@ package org.staxnav;/*
 
 import javax.xml.stream.XMLInputFactory;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -32,8 +34,13 @@ public abstract class AbstractBrowseTestCase<N> extends AbstractXMLTestCase
 
    protected abstract Naming<N> getNaming();
 
+   protected StaxNavigatorOptions getOptions()
+   {
+      return new StaxNavigatorOptions();
+   }
+
    /** . */
-   private StaxNavigator<N> navigator;
+   protected StaxNavigator<N> navigator;
 
    /** . */
    private Naming<N> naming;
@@ -45,13 +52,13 @@ public abstract class AbstractBrowseTestCase<N> extends AbstractXMLTestCase
       InputStream is = ClassLoader.getSystemClassLoader().getResourceAsStream("sample.xml");
 
       //
-      this.navigator = StaxNavigatorFactory.create(naming, is);
+      this.navigator = StaxNavigatorFactory.create(naming, is, getOptions());
       this.naming = naming;
    }
 
    protected final StaxNavigator<N> navigator(String document)
    {
-      return navigator(naming, document);
+      return StaxNavigatorFactory.create(naming, new StringReader(document), getOptions());
    }
 
    protected N createName(String localPart)
@@ -404,4 +411,36 @@ public abstract class AbstractBrowseTestCase<N> extends AbstractXMLTestCase
       assertFalse(i.hasNext());
       assertNameEquals("bar1", nav.getName());
    }
-}
\ No newline at end of file
+
+   public void testLazyNamedFork() throws Exception
+   {
+      StaxNavigator<N> nav = navigator("<foo1><bar1 id=\"0\"/><bar2/><bar1 id=\"1\"/><bar1 id=\"2\"/></foo1>");
+      assertTrue(nav.find(createName("bar2")));
+      Iterable<StaxNavigator<N>> iterable = nav.fork(createName("bar1"));
+      assertNameEquals("bar2", nav.getName());
+      Iterator<StaxNavigator<N>> iterator = iterable.iterator();
+      for (int i = 1;i < 3;i++)
+      {
+         assertTrue(iterator.hasNext());
+         assertEquals("" + i, nav.getAttribute("id"));
+         assertEquals("" + i, iterator.next().getAttribute("id"));
+      }
+      assertFalse(iterator.hasNext());
+      try
+      {
+         iterator.next();
+         fail();
+      }
+      catch (NoSuchElementException ignore)
+      {
+      }
+      try
+      {
+         iterable.iterator();
+         fail();
+      }
+      catch (IllegalStateException ignore)
+      {
+      }
+   }
+}
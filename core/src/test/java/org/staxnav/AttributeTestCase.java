@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.namespace.QName;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class AttributeTestCase extends AbstractXMLTestCase
+{
+
+   public void testNoAttributes()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo/>");
+      assertEquals(null, nav.getAttribute("a"));
+      assertEquals(null, nav.getAttribute(new QName("ns", "a")));
+      assertTrue(nav.getAttributes().isEmpty());
+      assertTrue(nav.getQualifiedAttributes().isEmpty());
+   }
+
+   public void testAttributes()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo a=\"1\" xmlns:ns=\"ns\" ns:a=\"2\" b=\"3\"/>");
+      assertEquals("1", nav.getAttribute("a"));
+      assertEquals("3", nav.getAttribute("b"));
+      assertEquals("1", nav.getAttribute(new QName("a")));
+      assertEquals("2", nav.getAttribute(new QName("ns", "a")));
+      assertEquals(null, nav.getAttribute(new QName("ns", "b")));
+      Map<String, String> attributes = nav.getAttributes();
+      assertEquals(2, attributes.size());
+      assertEquals("1", attributes.get("a"));
+      assertEquals("3", attributes.get("b"));
+      Map<QName, String> qualifiedAttributes = nav.getQualifiedAttributes();
+      assertEquals(3, qualifiedAttributes.size());
+      assertEquals("1", qualifiedAttributes.get(new QName("a")));
+      assertEquals("2", qualifiedAttributes.get(new QName("ns", "a")));
+      assertEquals("3", qualifiedAttributes.get(new QName("b")));
+   }
+
+   public void testQualifiedAttributesDoNotModifyElement()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo a=\"1\" xmlns:ns=\"ns\" ns:a=\"2\"/>");
+      assertEquals(2, nav.getQualifiedAttributes().size());
+      assertEquals(2, nav.getQualifiedAttributes().size());
+      assertEquals(1, nav.getAttributes().size());
+      assertEquals(null, nav.getAttribute(new QName("ns", "b")));
+   }
+
+   public void testReadOnly()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo a=\"1\" xmlns:ns=\"ns\" ns:a=\"2\"/>");
+      try
+      {
+         nav.getAttributes().put("b", "2");
+         fail();
+      }
+      catch (UnsupportedOperationException ignore)
+      {
+      }
+      try
+      {
+         nav.getQualifiedAttributes().remove(new QName("a"));
+         fail();
+      }
+      catch (UnsupportedOperationException ignore)
+      {
+      }
+   }
+
+   public void testManyAttributes()
+   {
+      StringBuilder sb = new StringBuilder("<foo xmlns:ns=\"ns\"");
+      for (int i = 0;i < 20;i++)
+      {
+         sb.append(" a").append(i).append("=\"").append(i).append("\"");
+         sb.append(" ns:b").append(i).append("=\"").append(i).append("\"");
+      }
+      StaxNavigator<String> nav = navigator(new Naming.Local(), sb.append("/>").toString());
+      for (int i = 0;i < 20;i++)
+      {
+         assertEquals("" + i, nav.getAttribute("a" + i));
+         assertEquals(null, nav.getAttribute("b" + i));
+         assertEquals("" + i, nav.getAttribute(new QName("ns", "b" + i)));
+      }
+      assertEquals(20, nav.getAttributes().size());
+      assertEquals(40, nav.getQualifiedAttributes().size());
+   }
+
+   public void testRecycledAttributes()
+   {
+      StringBuilder sb = new StringBuilder("<root>");
+      for (int i = 0;i < 10;i++)
+      {
+         sb.append("<foo");
+         for (int j = 0;j < i;j++)
+         {
+            sb.append(" a").append(j).append("=\"").append(i).append("\"");
+         }
+         sb.append("/>");
+      }
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader(sb.append("</root>").toString()), new StaxNavigatorOptions().setCursor(true));
+      for (int i = 0;i < 10;i++)
+      {
+         assertEquals("foo", nav.next());
+         Map<String, String> attributes = nav.getAttributes();
+         assertEquals(i, attributes.size());
+         assertEquals(null, nav.getAttribute("a" + i));
+         for (int j = 0;j < i;j++)
+         {
+            assertEquals("" + i, nav.getAttribute("a" + j));
+         }
+      }
+   }
+
+   public void testTypedAttributes()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo id=\" 12 \" count=\"9223372036854775807\" price=\"1.5\" flag=\"true\" date=\"2011-01-01\"/>");
+      assertEquals(12, nav.getIntAttribute("id", -1));
+      assertEquals(-1, nav.getIntAttribute("missing", -1));
+      assertEquals(Long.MAX_VALUE, nav.getLongAttribute("count", -1));
+      assertEquals(-1L, nav.getLongAttribute("missing", -1));
+      assertEquals(1.5, nav.getDoubleAttribute("price", 0));
+      assertEquals(2.5, nav.getDoubleAttribute("missing", 2.5));
+      assertTrue(nav.getBooleanAttribute("flag", false));
+      assertTrue(nav.getBooleanAttribute("missing", true));
+      assertEquals(12, (int)nav.getAttribute("id", ValueType.INTEGER));
+      assertEquals(LocalDate.of(2011, 1, 1), nav.getAttribute("date", ValueType.LOCAL_DATE));
+      assertNull(nav.getAttribute("missing", ValueType.INTEGER));
+   }
+
+   public void testTypedAttributeConversion()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo>\n<bar id=\"abc\" count=\"9223372036854775808\" flag=\"yes\"/></foo>");
+      assertEquals("bar", nav.child());
+      try
+      {
+         nav.getIntAttribute("id", 0);
+         fail();
+      }
+      catch (TypeConversionException e)
+      {
+         assertEquals(2, e.getLocation().getLineNumber());
+      }
+      try
+      {
+         nav.getLongAttribute("count", 0);
+         fail();
+      }
+      catch (TypeConversionException ignore)
+      {
+      }
+      try
+      {
+         nav.getDoubleAttribute("id", 0);
+         fail();
+      }
+      catch (TypeConversionException ignore)
+      {
+      }
+      try
+      {
+         nav.getBooleanAttribute("flag", false);
+         fail();
+      }
+      catch (TypeConversionException ignore)
+      {
+      }
+      try
+      {
+         nav.getAttribute("id", ValueType.LONG);
+         fail();
+      }
+      catch (TypeConversionException e)
+      {
+         assertEquals(2, e.getLocation().getLineNumber());
+      }
+   }
+
+   public void testTypedAttributesCaptured()
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setCaptureForks(true);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><bar id=\"1\"/><bar id=\"2\"/></foo>"), options);
+      assertEquals("bar", nav.child());
+      int expected = 0;
+      for (StaxNavigator<String> fork : nav.fork("bar"))
+      {
+         assertEquals(++expected, fork.getIntAttribute("id", 0));
+      }
+      assertEquals(2, expected);
+   }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class BinaryContentTestCase extends AbstractXMLTestCase
+{
+
+   private StaxNavigator<String> navigator(String content, boolean skipContent)
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setSkipContent(skipContent);
+      return StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><data>" + content + "</data><bar/></foo>"), options);
+   }
+
+   private byte[] bytes(int size)
+   {
+      byte[] bytes = new byte[size];
+      new Random(size).nextBytes(bytes);
+      return bytes;
+   }
+
+   private void assertDecoded(byte[] expected, String content) throws Exception
+   {
+      for (boolean skipContent : new boolean[]{false, true})
+      {
+         StaxNavigator<String> nav = navigator(content, skipContent);
+         assertEquals("data", nav.child());
+         ByteArrayOutputStream out = new ByteArrayOutputStream();
+         assertEquals(expected.length, nav.readBinaryContent(out));
+         assertTrue(Arrays.equals(expected, out.toByteArray()));
+         assertEquals("bar", nav.sibling());
+      }
+   }
+
+   public void testDecode() throws Exception
+   {
+      for (int size : new int[]{0, 1, 2, 3, 4, 5, 6143, 6144, 6145, 100000})
+      {
+         byte[] bytes = bytes(size);
+         assertDecoded(bytes, Base64.getEncoder().encodeToString(bytes));
+         assertDecoded(bytes, Base64.getMimeEncoder().encodeToString(bytes));
+         assertDecoded(bytes, Base64.getEncoder().withoutPadding().encodeToString(bytes));
+      }
+   }
+
+   public void testChannel() throws Exception
+   {
+      byte[] bytes = bytes(20000);
+      StaxNavigator<String> nav = navigator(Base64.getEncoder().encodeToString(bytes), true);
+      assertEquals("data", nav.child());
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(bytes.length, nav.readBinaryContent(Channels.newChannel(out)));
+      assertTrue(Arrays.equals(bytes, out.toByteArray()));
+   }
+
+   public void testInvalid() throws Exception
+   {
+      for (String content : new String[]{"A", "AB=C", "ABC*", "AB===", "A===", "ABC\u00e9", "ABCD=", "AB==CD=="})
+      {
+         StaxNavigator<String> nav = navigator(content, false);
+         assertEquals("data", nav.child());
+         try
+         {
+            nav.readBinaryContent(new ByteArrayOutputStream());
+            fail("Was expecting " + content + " to fail");
+         }
+         catch (TypeConversionException e)
+         {
+            assertNotNull(e.getLocation());
+         }
+      }
+   }
+
+   public void testValueType() throws Exception
+   {
+      byte[] bytes = bytes(100);
+      StaxNavigator<String> nav = navigator(Base64.getMimeEncoder().encodeToString(bytes), false);
+      assertEquals("data", nav.child());
+      assertTrue(Arrays.equals(bytes, nav.parseContent(ValueType.BASE64_BINARY)));
+   }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.namespace.QName;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class CaptureTestCase extends AbstractXMLTestCase
+{
+
+   private StaxNavigator<String> navigator(String document, StaxNavigatorOptions options)
+   {
+      return StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document), options);
+   }
+
+   private String records(int size)
+   {
+      StringBuilder sb = new StringBuilder("<records xmlns=\"foo\" xmlns:ns=\"bar\">");
+      for (int i = 0;i < size;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\" ns:flag=\"\u00e9t\u00e9\">");
+         sb.append("<name>name").append(i).append("</name>");
+         sb.append("<ns:payload xmlns:ns=\"juu\"><a>a</a><b><c/></b></ns:payload>");
+         sb.append("<value>").append(i).append("</value>");
+         sb.append("</record>");
+      }
+      return sb.append("</records>").toString();
+   }
+
+   private void assertSameNavigation(StaxNavigator<String> expected, StaxNavigator<String> navigator)
+   {
+      while (true)
+      {
+         assertEquals(expected.getName(), navigator.getName());
+         assertEquals(expected.getQName(), navigator.getQName());
+         assertEquals(expected.getQName().getPrefix(), navigator.getQName().getPrefix());
+         assertEquals(expected.getDepth(), navigator.getDepth());
+         assertEquals(expected.getAttributes(), navigator.getAttributes());
+         assertEquals(expected.getQualifiedAttributes(), navigator.getQualifiedAttributes());
+         assertEquals(expected.getNamespaceByPrefix("ns"), navigator.getNamespaceByPrefix("ns"));
+         assertEquals(expected.getNamespaceByPrefix(""), navigator.getNamespaceByPrefix(""));
+         assertEquals(expected.getContent(), navigator.getContent());
+         assertEquals(expected.getLocation().getLineNumber(), navigator.getLocation().getLineNumber());
+         assertEquals(expected.getLocation().getColumnNumber(), navigator.getLocation().getColumnNumber());
+         String name = expected.next();
+         assertEquals(name, navigator.next());
+         if (name == null)
+         {
+            break;
+         }
+      }
+   }
+
+   public void testFork()
+   {
+      StaxNavigator<String> expected = navigator(records(20), new StaxNavigatorOptions());
+      StaxNavigator<String> nav = navigator(records(20), new StaxNavigatorOptions().setCaptureForks(true));
+      assertEquals("record", expected.child());
+      assertEquals("record", nav.child());
+      List<StaxNavigator<String>> forks = new ArrayList<StaxNavigator<String>>();
+      for (StaxNavigator<String> fork : nav.fork("record"))
+      {
+         forks.add(fork);
+      }
+      assertEquals("19", nav.getAttribute("id"));
+      int count = 0;
+      for (StaxNavigator<String> fork : expected.fork("record"))
+      {
+         assertSameNavigation(fork, forks.get(count++));
+      }
+      assertEquals(20, count);
+   }
+
+   public void testNavigation()
+   {
+      StaxNavigator<String> nav = navigator(records(3), new StaxNavigatorOptions().setCaptureForks(true).setCursor(true).setSkipContent(true));
+      assertEquals("record", nav.child());
+      StaxNavigator<String> fork = nav.fork(Axis.FOLLOWING_SIBLING);
+      assertEquals("1", nav.getAttribute("id"));
+      assertEquals("0", fork.getAttribute("id"));
+      assertEquals("\u00e9t\u00e9", fork.getAttribute(new QName("bar", "flag")));
+      assertTrue(fork.child("value"));
+      assertEquals("0", fork.getContent());
+      assertNull(fork.sibling());
+      assertNull(fork.next());
+
+      //
+      fork = nav.fork();
+      assertTrue(fork.child("payload"));
+      assertEquals("juu", fork.getNamespaceByPrefix("ns"));
+      StaxNavigator<String> payload = fork.fork(Axis.FOLLOWING_SIBLING);
+      assertEquals("value", fork.getName());
+      assertEquals("1", fork.getContent());
+      assertEquals("a", payload.next());
+      assertEquals("b", payload.sibling());
+      assertEquals("c", payload.child());
+      assertNull(payload.next());
+      assertEquals(3, nav.fork().descendant("c"));
+
+      //
+      assertEquals("record", nav.sibling());
+      assertEquals("2", nav.getAttribute("id"));
+      nav.fork();
+      assertEquals("name", nav.child());
+      assertEquals("name2", nav.getContent());
+      assertEquals("payload", nav.sibling());
+      assertEquals("a", nav.child());
+      assertEquals("b", nav.sibling());
+      assertEquals("c", nav.child());
+      assertEquals("value", nav.next());
+      assertEquals("2", nav.getContent());
+      assertNull(nav.next());
+   }
+
+   public void testNavigationCursor()
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setCaptureForks(true).setCursor(true);
+      StaxNavigator<String> nav = navigator("<r><c><e/></c><x/></r>", options);
+      nav.fork();
+      assertEquals("c", nav.child());
+      assertEquals("e", nav.child());
+      assertEquals("x", nav.next());
+
+      //
+      nav = navigator("<r><c><e><e><e/></e></e></c><x/><y/></r>", options);
+      StaxNavigator<String> fork = nav.fork();
+      assertEquals("c", nav.child());
+      assertEquals("x", nav.sibling());
+      assertEquals("y", nav.sibling());
+      assertNull(nav.sibling());
+      assertEquals(2, fork.descendant("e"));
+   }
+}
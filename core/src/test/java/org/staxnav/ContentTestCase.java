@@ -17,7 +17,13 @@ package org.staxnav;/*
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -41,4 +47,518 @@ public class ContentTestCase extends AbstractXMLTestCase
       nav.setTrimContent(true);
       assertEquals("abc", nav.getContent());
    }
+
+   private StaxNavigator<String> skipping(String document)
+   {
+      return StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document), new StaxNavigatorOptions().setSkipContent(true));
+   }
+
+   public void testSkipContent() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo><a>a</a><b>b</b><c>c</c></foo>");
+      assertEquals("a", nav.child());
+      assertEquals("a", nav.getContent());
+      assertTrue(nav.sibling("c"));
+      assertEquals("c", nav.getContent());
+   }
+
+   public void testSkipContentRetainsCurrent() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo><a>a</a><b>b</b></foo>");
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("c"));
+      assertEquals("a", nav.getContent());
+   }
+
+   public void testSkipContentPassedOver() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo><a>a</a><b>b</b><c><d>d</d></c></foo>");
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("e"));
+      assertEquals("b", nav.sibling());
+      assertEquals("b", nav.getContent());
+      assertEquals("c", nav.sibling());
+      assertEquals(null, nav.getContent());
+      assertEquals("d", nav.child());
+      assertEquals("d", nav.getContent());
+   }
+
+   public void testSkipContentPassedOverSkipSubtrees() throws XMLStreamException
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setSkipContent(true).setSkipSubtrees(true);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><a>a</a><b>b<c/></b><d>d</d></foo>"), options);
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("e"));
+      assertEquals("b", nav.sibling());
+      assertEquals(null, nav.getContent());
+      assertEquals("d", nav.sibling());
+      assertEquals("d", nav.getContent());
+   }
+
+   public void testSkipContentPassedOverLong() throws XMLStreamException
+   {
+      StringBuilder text = new StringBuilder();
+      while (text.length() <= 65536)
+      {
+         text.append("0123456789");
+      }
+      StaxNavigator<String> nav = skipping("<foo><a>a</a><b>" + text + "</b><c>c</c></foo>");
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("e"));
+      assertEquals("b", nav.sibling());
+      try
+      {
+         nav.getContent();
+         fail();
+      }
+      catch (StaxNavException expected)
+      {
+      }
+      assertEquals("c", nav.sibling());
+      assertEquals("c", nav.getContent());
+   }
+
+   public void testSkipContentPassedOverCursor() throws XMLStreamException
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setSkipContent(true).setCursor(true);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><a>a</a><b>b</b><c>c</c></foo>"), options);
+      assertEquals("a", nav.child());
+      StaxNavigator<String> fork = nav.fork();
+      assertTrue(nav.sibling("c"));
+      assertEquals("c", nav.getContent());
+      assertEquals("a", fork.getName());
+      assertEquals("a", fork.getContent());
+      assertEquals("b", fork.sibling());
+      try
+      {
+         fork.getContent();
+         fail();
+      }
+      catch (StaxNavException expected)
+      {
+      }
+   }
+
+   public void testContentInterest() throws XMLStreamException
+   {
+      StringBuilder text = new StringBuilder();
+      while (text.length() <= 65536)
+      {
+         text.append("0123456789");
+      }
+      Set<QName> interest = Collections.singleton(new QName("b"));
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setSkipContent(true).setContentInterest(interest);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><a>a</a><b>" + text + "</b><c>c</c></foo>"), options);
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("e"));
+      assertEquals("b", nav.sibling());
+      assertEquals(text.toString(), nav.getContent());
+      assertEquals("c", nav.sibling());
+      assertEquals("c", nav.getContent());
+   }
+
+   public void testContentInterestCursor() throws XMLStreamException
+   {
+      Set<QName> interest = Collections.singleton(new QName("b"));
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setSkipContent(true).setCursor(true).setContentInterest(interest);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><a>a</a><b>b</b><c>c</c></foo>"), options);
+      assertEquals("a", nav.child());
+      StaxNavigator<String> fork = nav.fork();
+      assertTrue(nav.sibling("c"));
+      assertEquals("b", fork.sibling());
+      assertEquals("b", fork.getContent());
+   }
+
+   public void testSkipContentMixed() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo>abc<def/></foo>");
+      assertEquals("foo", nav.getName());
+      assertEquals(null, nav.getContent());
+      assertEquals("def", nav.next());
+      assertEquals(null, nav.getContent());
+   }
+
+   public void testSkipContentFork() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo><bar><a>1</a></bar><bar><a>2</a></bar><juu/></foo>");
+      assertEquals("bar", nav.child());
+      int count = 0;
+      for (StaxNavigator<String> fork : nav.fork("bar"))
+      {
+         assertEquals("a", fork.child());
+         assertEquals("" + ++count, fork.getContent());
+      }
+      assertEquals(2, count);
+      assertEquals("juu", nav.sibling());
+   }
+
+   public void testParseInt() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo><a> 123 </a><a>-2147483648</a><a>+2147483647</a><a>0</a></foo>");
+      assertEquals("a", nav.child());
+      assertEquals(123, nav.parseIntContent());
+      assertEquals("a", nav.sibling());
+      assertEquals(Integer.MIN_VALUE, nav.parseIntContent());
+      assertEquals("a", nav.sibling());
+      assertEquals(Integer.MAX_VALUE, nav.parseIntContent());
+      assertEquals("a", nav.sibling());
+      assertEquals(0, nav.parseIntContent());
+   }
+
+   public void testParseLong() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo><a>9223372036854775807</a><a>-9223372036854775808</a></foo>");
+      assertEquals("a", nav.child());
+      assertEquals(Long.MAX_VALUE, nav.parseLongContent());
+      assertEquals("a", nav.sibling());
+      assertEquals(Long.MIN_VALUE, nav.parseLongContent());
+   }
+
+   public void testParseDouble() throws XMLStreamException
+   {
+      String[] values = {
+         "0", "-0", "1", "1.5", "-1.25", ".5", "5.", "3.14159", "1e10", "1E-5", "-2.5e+3", "123456789012345",
+         "1234567890123456789", "0.000000000000000000000000001", "1e300", "4.9e-324", "NaN", "-Infinity", "0x1p3",
+         "0.1", "0.2", "0.3", "99.99", "00012.500", "1e22", "1e23", "9007199254740993"
+      };
+      StringBuilder sb = new StringBuilder("<foo>");
+      for (String value : values)
+      {
+         sb.append("<a> ").append(value).append(" </a>");
+      }
+      StaxNavigator<String> nav = navigator(new Naming.Local(), sb.append("</foo>").toString());
+      assertEquals("a", nav.child());
+      for (String value : values)
+      {
+         double expected = Double.parseDouble(value);
+         assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(nav.parseDoubleContent()));
+         nav.sibling();
+      }
+   }
+
+   public void testParseBoolean() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo><a>true</a><a> FALSE </a><a>1</a><a>0</a></foo>");
+      assertEquals("a", nav.child());
+      assertTrue(nav.parseBooleanContent());
+      assertEquals("a", nav.sibling());
+      assertFalse(nav.parseBooleanContent());
+      assertEquals("a", nav.sibling());
+      assertTrue(nav.parseBooleanContent());
+      assertEquals("a", nav.sibling());
+      assertFalse(nav.parseBooleanContent());
+   }
+
+   public void testParseInvalid() throws XMLStreamException
+   {
+      String[] values = { "", " ", "-", "+", "1 2", "abc", "2147483648", "-2147483649", "1.0" };
+      StringBuilder sb = new StringBuilder("<foo>");
+      for (String value : values)
+      {
+         sb.append("<a>").append(value).append("</a>");
+      }
+      StaxNavigator<String> nav = navigator(new Naming.Local(), sb.append("<b>maybe</b><c>1.2.3</c></foo>").toString());
+      assertEquals("a", nav.child());
+      for (String value : values)
+      {
+         try
+         {
+            nav.parseIntContent();
+            fail("Was expecting " + value + " to fail");
+         }
+         catch (TypeConversionException e)
+         {
+            assertNotNull(e.getLocation());
+         }
+         catch (IllegalStateException e)
+         {
+            assertEquals("", value);
+         }
+         nav.sibling();
+      }
+      assertEquals("b", nav.getName());
+      try
+      {
+         nav.parseBooleanContent();
+         fail();
+      }
+      catch (TypeConversionException ignore)
+      {
+      }
+      assertEquals("c", nav.sibling());
+      try
+      {
+         nav.parseDoubleContent();
+         fail();
+      }
+      catch (TypeConversionException ignore)
+      {
+      }
+   }
+
+   public void testParseMixed() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo>1<def/></foo>");
+      try
+      {
+         nav.parseIntContent();
+         fail();
+      }
+      catch (IllegalStateException ignore)
+      {
+      }
+   }
+
+   public void testParseSkipContent() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo><a>1</a><b> 2 </b><c>3<d/></c><e>4</e></foo>");
+      assertEquals("a", nav.child());
+      assertEquals(1, nav.parseIntContent());
+      assertEquals(1, nav.parseIntContent());
+      assertEquals("1", nav.getContent());
+      assertEquals("b", nav.sibling());
+      assertEquals(2L, nav.parseLongContent());
+      assertEquals("c", nav.sibling());
+      try
+      {
+         nav.parseIntContent();
+         fail();
+      }
+      catch (IllegalStateException ignore)
+      {
+      }
+      assertEquals("d", nav.child());
+      assertEquals("e", nav.next());
+      assertEquals(4.0, nav.parseDoubleContent());
+   }
+
+   public void testParseTwiceStreaming() throws XMLStreamException
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setStreaming(true);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><a> 1 </a><b>true</b></foo>"), options);
+      assertEquals("a", nav.child());
+      assertEquals(1L, nav.parseLongContent());
+      assertEquals(1, nav.parseIntContent());
+      assertEquals(1.0, nav.parseDoubleContent());
+      assertEquals(" 1 ", nav.getContent());
+      assertEquals("b", nav.sibling());
+      assertTrue(nav.parseBooleanContent());
+      assertEquals(Boolean.TRUE, nav.parseContent(ValueType.BOOLEAN));
+   }
+
+   public void testParseSkipContentFork() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo><bar>1</bar><bar>2</bar></foo>");
+      assertEquals("bar", nav.child());
+      int count = 0;
+      for (StaxNavigator<String> fork : nav.fork("bar"))
+      {
+         assertEquals(++count, fork.parseIntContent());
+         assertEquals("" + count, fork.getContent());
+      }
+      assertEquals(2, count);
+   }
+
+   public void testContentSequence() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo><a> abc </a><b>a&amp;b&lt;c</b><c/><d>1<e/></d></foo>");
+      assertEquals("a", nav.child());
+      CharSequence content = nav.getContentSequence();
+      assertEquals(" abc ", content.toString());
+      nav.setTrimContent(true);
+      content = nav.getContentSequence();
+      assertEquals(3, content.length());
+      assertEquals('a', content.charAt(0));
+      assertEquals("bc", content.subSequence(1, 3).toString());
+      assertEquals("abc", content.toString());
+      try
+      {
+         content.charAt(3);
+         fail();
+      }
+      catch (IndexOutOfBoundsException ignore)
+      {
+      }
+      assertEquals("b", nav.sibling());
+      assertEquals("a&b<c", nav.getContentSequence().toString());
+      assertEquals("a&b<c", nav.getContent());
+      assertEquals("a&b<c", nav.getContentSequence().toString());
+      assertEquals("c", nav.sibling());
+      assertNull(nav.getContentSequence());
+      assertEquals("d", nav.sibling());
+      assertNull(nav.getContentSequence());
+   }
+
+   public void testContentSequenceSkipContent() throws XMLStreamException
+   {
+      StaxNavigator<String> nav = skipping("<foo><a> a </a><b>b</b></foo>");
+      assertEquals("a", nav.child());
+      nav.setTrimContent(true);
+      assertEquals("a", nav.getContentSequence().toString());
+      assertEquals("a", nav.getContent());
+      assertEquals("b", nav.sibling());
+      assertEquals("b", nav.getContentSequence().toString());
+   }
+
+   public void testContentSequenceIndexed() throws XMLStreamException
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setIndexed(true);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><a> a </a><b>b</b></foo>"), options);
+      assertEquals("a", nav.child());
+      assertEquals(" a ", nav.getContentSequence().toString());
+      nav.setTrimContent(true);
+      assertEquals("a", nav.getContentSequence().toString());
+      assertEquals("a", nav.getContent());
+      assertEquals("b", nav.sibling());
+      assertEquals("b", nav.getContentSequence().toString());
+   }
+
+   private String read(Reader reader, int size) throws IOException
+   {
+      StringBuilder sb = new StringBuilder();
+      char[] buffer = new char[size];
+      for (int count = reader.read(buffer);count != -1;count = reader.read(buffer))
+      {
+         sb.append(buffer, 0, count);
+      }
+      return sb.toString();
+   }
+
+   public void testContentReader() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo><a> abc </a><b/></foo>");
+      assertEquals("a", nav.child());
+      assertEquals(" abc ", read(nav.getContentReader(), 2));
+      assertEquals(" abc ", nav.getContent());
+      assertEquals("b", nav.sibling());
+      assertEquals("", read(nav.getContentReader(), 2));
+   }
+
+   public void testContentReaderSkipContent() throws Exception
+   {
+      StringBuilder large = new StringBuilder();
+      for (int i = 0;i < 100000;i++)
+      {
+         large.append(i % 10);
+      }
+      StaxNavigator<String> nav = skipping("<foo><a>" + large + "</a><b>a&amp;b</b><c>c</c></foo>");
+      assertEquals("a", nav.child());
+      assertEquals(large.toString(), read(nav.getContentReader(), 1000));
+      try
+      {
+         nav.getContent();
+         fail();
+      }
+      catch (StaxNavException ignore)
+      {
+      }
+      assertEquals("b", nav.sibling());
+      assertEquals("a&b", read(nav.getContentReader(), 1));
+      assertEquals("c", nav.sibling());
+      assertEquals("c", nav.getContent());
+   }
+
+   public void testContentReaderPartial() throws Exception
+   {
+      StaxNavigator<String> nav = skipping("<foo><a>abcdef<!-- comment -->ghi</a><b>b</b></foo>");
+      assertEquals("a", nav.child());
+      Reader reader = nav.getContentReader();
+      char[] buffer = new char[2];
+      assertEquals(2, reader.read(buffer));
+      assertEquals("ab", new String(buffer));
+      assertEquals("b", nav.sibling());
+      assertEquals("b", nav.getContent());
+      try
+      {
+         reader.read(buffer);
+         fail();
+      }
+      catch (IOException ignore)
+      {
+      }
+   }
+
+   public void testContentReaderMixed() throws Exception
+   {
+      StaxNavigator<String> nav = skipping("<foo>abc<bar>def</bar></foo>");
+      try
+      {
+         read(nav.getContentReader(), 16);
+         fail();
+      }
+      catch (IOException ignore)
+      {
+      }
+      assertEquals("bar", nav.child());
+      assertEquals("def", nav.getContent());
+   }
+
+   private StaxNavigator<String> cdata(StaxNavigatorOptions options)
+   {
+      String document = "<foo><a>a<![CDATA[<b>]]>c</a><d><![CDATA[1]]>2</d><e><![CDATA[e]]></e></foo>";
+      return StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document), options);
+   }
+
+   public void testCDATA() throws Exception
+   {
+      StaxNavigator<String> nav = cdata(new StaxNavigatorOptions());
+      assertEquals("a", nav.child());
+      assertEquals("a<b>c", nav.getContent());
+      assertEquals("d", nav.sibling());
+      assertEquals(12, nav.parseIntContent());
+      assertEquals("e", nav.sibling());
+      assertEquals("e", read(nav.getContentReader(), 1));
+   }
+
+   public void testCDATASkipContent() throws Exception
+   {
+      StaxNavigator<String> nav = cdata(new StaxNavigatorOptions().setSkipContent(true));
+      assertEquals("a", nav.child());
+      assertEquals("a<b>c", read(nav.getContentReader(), 2));
+      assertFalse(nav.sibling("f"));
+      assertEquals("d", nav.sibling());
+      assertEquals("12", nav.getContent());
+      assertEquals("e", nav.sibling());
+      assertEquals("e", nav.getContent());
+   }
+
+   public void testCDATACursor() throws Exception
+   {
+      StaxNavigator<String> nav = cdata(new StaxNavigatorOptions().setCursor(true));
+      assertEquals("a", nav.child());
+      assertEquals("a<b>c", nav.getContent());
+      assertEquals("d", nav.sibling());
+      assertEquals(12, nav.parseIntContent());
+   }
+
+   public void testCDATAStreaming() throws Exception
+   {
+      StaxNavigator<String> nav = cdata(new StaxNavigatorOptions().setStreaming(true));
+      assertEquals("a", nav.child());
+      assertEquals("a<b>c", nav.getContent());
+      assertEquals("d", nav.sibling());
+      assertEquals("12", read(nav.getContentReader(), 1));
+      assertEquals("e", nav.sibling());
+      assertEquals("e", nav.getContent());
+   }
+
+   public void testCDATAIndexed() throws Exception
+   {
+      StaxNavigator<String> nav = cdata(new StaxNavigatorOptions().setIndexed(true));
+      assertEquals("a", nav.child());
+      assertEquals("a<b>c", nav.getContent());
+      assertEquals("d", nav.sibling());
+      assertEquals(12, nav.parseIntContent());
+   }
+
+   public void testContentReaderSkipSubtrees() throws Exception
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setSkipContent(true).setSkipSubtrees(true);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><a>abc</a><b>b</b></foo>"), options);
+      assertEquals("a", nav.child());
+      Reader reader = nav.getContentReader();
+      assertEquals('a', reader.read());
+      assertEquals("b", nav.sibling());
+      assertEquals("b", nav.getContent());
+   }
 }
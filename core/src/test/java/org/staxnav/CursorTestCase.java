@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class CursorTestCase extends AbstractXMLTestCase
+{
+
+   private StaxNavigator<String> cursor(String document)
+   {
+      StringReader reader = new StringReader(document);
+      return StaxNavigatorFactory.create(new Naming.Local(), reader, new StaxNavigatorOptions().setCursor(true));
+   }
+
+   private String records(int size)
+   {
+      StringBuilder sb = new StringBuilder("<records>");
+      for (int i = 0;i < size;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\"><name>name").append(i).append("</name><value>").append(i).append("</value></record>");
+      }
+      return sb.append("</records>").toString();
+   }
+
+   public void testNext()
+   {
+      StaxNavigator<String> nav = cursor(records(100));
+      assertEquals("records", nav.getName());
+      for (int i = 0;i < 100;i++)
+      {
+         assertEquals("record", nav.next());
+         assertEquals("" + i, nav.getAttribute("id"));
+         assertEquals(2, nav.getDepth());
+         assertEquals("name", nav.next());
+         assertEquals("name" + i, nav.getContent());
+         assertEquals("value", nav.next());
+         assertEquals("" + i, nav.getContent());
+         assertEquals(3, nav.getDepth());
+      }
+      assertNull(nav.next());
+   }
+
+   public void testSibling()
+   {
+      StaxNavigator<String> nav = cursor(records(100));
+      assertEquals("record", nav.child());
+      for (int i = 0;i < 100;i++)
+      {
+         assertEquals("" + i, nav.getAttribute("id"));
+         if (i < 99)
+         {
+            assertEquals("record", nav.sibling());
+         }
+      }
+      assertNull(nav.sibling());
+      assertEquals("99", nav.getAttribute("id"));
+   }
+
+   public void testFailedNavigationRetainsCurrent()
+   {
+      StaxNavigator<String> nav = cursor("<root><a id=\"0\">foo</a><b/><c/><d/></root>");
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("e"));
+      assertEquals("a", nav.getName());
+      assertEquals("0", nav.getAttribute("id"));
+      assertEquals("foo", nav.getContent());
+   }
+
+   public void testFailedNavigationConsumes()
+   {
+      StaxNavigator<String> nav = cursor("<root><a/><b/><c/><d/></root>");
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("e"));
+      assertEquals("a", nav.getName());
+      assertEquals("d", nav.sibling());
+   }
+
+   public void testFork()
+   {
+      StaxNavigator<String> nav = cursor(records(100));
+      assertEquals("record", nav.child());
+      List<StaxNavigator<String>> forks = new ArrayList<StaxNavigator<String>>();
+      for (int i = 0;i < 100;i++)
+      {
+         forks.add(nav.fork(Axis.FOLLOWING_SIBLING));
+      }
+      for (int i = 0;i < 100;i++)
+      {
+         StaxNavigator<String> fork = forks.get(i);
+         assertEquals("record", fork.getName());
+         assertEquals("" + i, fork.getAttribute("id"));
+         assertEquals("name", fork.next());
+         assertEquals("name" + i, fork.getContent());
+         assertEquals("value", fork.next());
+         assertEquals("" + i, fork.getContent());
+         assertNull(fork.next());
+      }
+   }
+
+   public void testNamedFork()
+   {
+      StaxNavigator<String> nav = cursor(records(100));
+      assertEquals("record", nav.child());
+      int count = 0;
+      for (StaxNavigator<String> fork : nav.fork("record"))
+      {
+         assertEquals("" + count, fork.getAttribute("id"));
+         assertTrue(fork.child("value"));
+         assertEquals("" + count, fork.getContent());
+         count++;
+      }
+      assertEquals(100, count);
+   }
+
+   public void testNamespaces()
+   {
+      StringBuilder sb = new StringBuilder("<root xmlns:ns=\"root\">");
+      for (int i = 0;i < 10;i++)
+      {
+         sb.append("<a xmlns:ns=\"a").append(i).append("\"><b/></a><c/>");
+      }
+      StaxNavigator<String> nav = cursor(sb.append("</root>").toString());
+      for (int i = 0;i < 10;i++)
+      {
+         assertEquals("a", nav.next());
+         assertEquals("a" + i, nav.getNamespaceByPrefix("ns"));
+         assertEquals("b", nav.next());
+         assertEquals("a" + i, nav.getNamespaceByPrefix("ns"));
+         assertEquals("c", nav.next());
+         assertEquals("root", nav.getNamespaceByPrefix("ns"));
+      }
+   }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class DispatcherTestCase extends AbstractXMLTestCase
+{
+
+   /** . */
+   private static final String DOCUMENT =
+      "<config>" +
+      "<users><user name=\"alice\"/><user name=\"bob\"/></users>" +
+      "<groups><group name=\"admin\"><user name=\"alice\"/></group></groups>" +
+      "<settings><setting key=\"a\">1</setting><setting key=\"b\">2</setting></settings>" +
+      "</config>";
+
+   /**
+    * Counts the elements read by the navigator.
+    */
+   private static class CountingReader extends StreamReaderDelegate
+   {
+
+      /** . */
+      private int count;
+
+      private CountingReader(XMLStreamReader reader)
+      {
+         super(reader);
+      }
+
+      @Override
+      public int getAttributeCount()
+      {
+         count++;
+         return super.getAttributeCount();
+      }
+   }
+
+   /**
+    * Collects an attribute of the forked elements.
+    */
+   private static class Collector implements Parser<String>
+   {
+
+      /** . */
+      private final String attribute;
+
+      /** . */
+      private final List<String> values = new ArrayList<String>();
+
+      private Collector(String attribute)
+      {
+         this.attribute = attribute;
+      }
+
+      public void parse(StaxNavigator<String> navigator) throws Exception
+      {
+         values.add(navigator.getAttribute(attribute));
+      }
+   }
+
+   public void testDispatch()
+   {
+      Naming.Local naming = new Naming.Local();
+      Collector users = new Collector("name");
+      Collector groups = new Collector("name");
+      Collector settings = new Collector("key");
+      Dispatcher<String> dispatcher = new Dispatcher<String>(naming);
+      dispatcher.register(PathExpression.compile(naming, "/config/users/user"), users);
+      dispatcher.register("group", groups);
+      dispatcher.register(PathExpression.compile(naming, "settings/setting"), settings);
+      navigator(naming, DOCUMENT).dispatch(dispatcher);
+      assertEquals(Arrays.asList("alice", "bob"), users.values);
+      assertEquals(Arrays.asList("admin"), groups.values);
+      assertEquals(Arrays.asList("a", "b"), settings.values);
+   }
+
+   public void testSameElement()
+   {
+      Naming.Local naming = new Naming.Local();
+      Collector all = new Collector("name");
+      Collector alice = new Collector("name");
+      Dispatcher<String> dispatcher = new Dispatcher<String>(naming);
+      dispatcher.register("user", all);
+      dispatcher.register(PathExpression.compile(naming, "//user[@name='alice']"), alice);
+      navigator(naming, DOCUMENT).dispatch(dispatcher);
+      assertEquals(Arrays.asList("alice", "bob", "alice"), all.values);
+      assertEquals(Arrays.asList("alice", "alice"), alice.values);
+   }
+
+   public void testScopedFork()
+   {
+      Naming.Local naming = new Naming.Local();
+      final List<String> contents = new ArrayList<String>();
+      final List<String> keys = new ArrayList<String>();
+      Dispatcher<String> dispatcher = new Dispatcher<String>(naming);
+      dispatcher.register("settings", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            // Navigate the whole subtree
+            while (navigator.next() != null)
+            {
+               contents.add(navigator.getContent());
+            }
+         }
+      });
+      dispatcher.register("setting", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            keys.add(navigator.getAttribute("key"));
+         }
+      });
+      navigator(naming, DOCUMENT).dispatch(dispatcher);
+      assertEquals(Arrays.asList("1", "2"), contents);
+      assertEquals(Arrays.asList("a", "b"), keys);
+   }
+
+   public void testSkipSubtrees() throws Exception
+   {
+      CountingReader reader = new CountingReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(DOCUMENT)));
+      Naming.Local naming = new Naming.Local();
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(naming, reader, new StaxNavigatorOptions().setSkipSubtrees(true));
+      Collector settings = new Collector("key");
+      nav.dispatch(new Dispatcher<String>(naming).register(PathExpression.compile(naming, "/config/settings/setting"), settings));
+      assertEquals(Arrays.asList("a", "b"), settings.values);
+      assertEquals(6, reader.count);
+   }
+
+   public void testParserFailure()
+   {
+      Naming.Local naming = new Naming.Local();
+      Dispatcher<String> dispatcher = new Dispatcher<String>(naming);
+      final IOException failure = new IOException();
+      dispatcher.register("group", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            throw failure;
+         }
+      });
+      try
+      {
+         navigator(naming, DOCUMENT).dispatch(dispatcher);
+         fail();
+      }
+      catch (StaxNavException e)
+      {
+         assertSame(failure, e.getCause());
+      }
+      final IllegalStateException runtime = new IllegalStateException();
+      dispatcher = new Dispatcher<String>(naming).register("group", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            throw runtime;
+         }
+      });
+      try
+      {
+         navigator(naming, DOCUMENT).dispatch(dispatcher);
+         fail();
+      }
+      catch (IllegalStateException e)
+      {
+         assertSame(runtime, e);
+      }
+   }
+
+   public void testAttributePath()
+   {
+      Naming.Local naming = new Naming.Local();
+      try
+      {
+         new Dispatcher<String>(naming).register(PathExpression.compile(naming, "//user/@name"), new Collector("name"));
+         fail();
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+   }
+}
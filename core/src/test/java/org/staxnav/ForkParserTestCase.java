@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class ForkParserTestCase extends AbstractXMLTestCase
+{
+
+   /**
+    * Counts the elements read by the navigator.
+    */
+   private static class CountingReader extends StreamReaderDelegate
+   {
+
+      /** . */
+      private int count;
+
+      private CountingReader(XMLStreamReader reader)
+      {
+         super(reader);
+      }
+
+      @Override
+      public int getAttributeCount()
+      {
+         count++;
+         return super.getAttributeCount();
+      }
+   }
+
+   /** . */
+   private CountingReader reader;
+
+   private StaxNavigator<String> navigator(String document, StaxNavigatorOptions options) throws Exception
+   {
+      reader = new CountingReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(document)));
+      return StaxNavigatorFactory.create(new Naming.Local(), reader, options);
+   }
+
+   private String records(int size)
+   {
+      StringBuilder sb = new StringBuilder("<records>");
+      for (int i = 0;i < size;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\">");
+         sb.append("<payload><a>a</a><b><c>c</c></b></payload>");
+         sb.append("<value>").append(i).append("</value>");
+         sb.append("</record>");
+         sb.append("<other/>");
+      }
+      return sb.append("</records>").toString();
+   }
+
+   /**
+    * Collects the record values.
+    */
+   private static class ValueParser implements Parser<String>
+   {
+
+      /** . */
+      private final List<String> values = new ArrayList<String>();
+
+      public void parse(StaxNavigator<String> navigator) throws Exception
+      {
+         assertEquals("record", navigator.getName());
+         assertTrue(navigator.child("value"));
+         values.add(navigator.getContent());
+      }
+   }
+
+   public void testParse() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      ValueParser parser = new ValueParser();
+      assertEquals(10, nav.fork("record", parser));
+      assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), parser.values);
+   }
+
+   public void testResume() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<root><a><b/><c/></a><a><b/><c/></a><d/></root>", new StaxNavigatorOptions());
+      assertEquals("a", nav.child());
+      final List<String> names = new ArrayList<String>();
+      assertEquals(2, nav.fork("a", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            // Stop in the middle of the subtree
+            names.add(navigator.next());
+         }
+      }));
+      assertEquals(Arrays.asList("b", "b"), names);
+      assertEquals("a", nav.getName());
+      assertEquals("d", nav.sibling());
+   }
+
+   public void testSkipSubtrees() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions().setSkipSubtrees(true));
+      assertEquals("record", nav.child());
+      ValueParser parser = new ValueParser();
+      assertEquals(10, nav.fork("record", parser));
+      assertEquals(10, parser.values.size());
+      assertEquals(41, reader.count);
+   }
+
+   public void testSkipUnread() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions().setSkipSubtrees(true));
+      assertEquals("record", nav.child());
+      final List<String> ids = new ArrayList<String>();
+      assertEquals(10, nav.fork("record", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            ids.add(navigator.getAttribute("id"));
+         }
+      }));
+      assertEquals(10, ids.size());
+      assertEquals(21, reader.count);
+   }
+
+   public void testCursor() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(1000), new StaxNavigatorOptions().setCursor(true).setSkipContent(true));
+      assertEquals("record", nav.child());
+      ValueParser parser = new ValueParser();
+      assertEquals(1000, nav.fork("record", parser));
+      for (int i = 0;i < 1000;i++)
+      {
+         assertEquals("" + i, parser.values.get(i));
+      }
+   }
+
+   public void testNested() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<root><a><b>1</b><b>2</b></a><a><b>3</b></a></root>", new StaxNavigatorOptions().setCursor(true));
+      assertEquals("a", nav.child());
+      final List<String> values = new ArrayList<String>();
+      final Parser<String> b = new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            values.add(navigator.getContent());
+         }
+      };
+      assertEquals(2, nav.fork("a", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            assertEquals("b", navigator.child());
+            navigator.fork("b", b);
+         }
+      }));
+      assertEquals(Arrays.asList("1", "2", "3"), values);
+   }
+
+   public void testFailure() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      final IOException failure = new IOException();
+      try
+      {
+         nav.fork("record", new Parser<String>()
+         {
+            public void parse(StaxNavigator<String> navigator) throws Exception
+            {
+               throw failure;
+            }
+         });
+         fail();
+      }
+      catch (StaxNavException e)
+      {
+         assertSame(failure, e.getCause());
+      }
+   }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class IndexedBrowseTestCase extends LocalBrowseTestCase
+{
+
+   @Override
+   protected StaxNavigatorOptions getOptions()
+   {
+      return new StaxNavigatorOptions().setIndexed(true);
+   }
+
+   public void testContent() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<foo>a<bar>b</bar>c<juu></juu><daa>d<![CDATA[e]]>f</daa></foo>");
+      assertNull(nav.getContent());
+      assertEquals("bar", nav.next());
+      assertEquals("b", nav.getContent());
+      assertEquals("juu", nav.next());
+      assertNull(nav.getContent());
+      assertEquals("daa", nav.next());
+      assertEquals("def", nav.getContent());
+   }
+
+   public void testRepeatedNavigation() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<foo xmlns:ns=\"foo\"><bar a=\"0\"><juu/></bar><bar a=\"1\"><juu>1</juu></bar><daa/></foo>");
+      StaxNavigator<String> root = nav.fork();
+      for (int i = 0;i < 3;i++)
+      {
+         StaxNavigator<String> fork = root.fork();
+         assertTrue(fork.child("daa"));
+         assertEquals(2, fork.getDepth());
+         fork = root.fork();
+         assertEquals("bar", fork.child());
+         assertEquals("bar", fork.sibling());
+         assertEquals("1", fork.getAttribute("a"));
+         assertEquals("juu", fork.child());
+         assertEquals("1", fork.getContent());
+         assertEquals("foo", fork.getNamespaceByPrefix("ns"));
+         assertEquals(2, root.fork().descendant("juu"));
+      }
+   }
+}
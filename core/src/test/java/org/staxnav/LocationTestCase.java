@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.stream.Location;
+import java.io.StringReader;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class LocationTestCase extends AbstractXMLTestCase
+{
+
+   public void testLocation()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo>\n  <bar>a</bar>\n</foo>");
+      Location location = nav.getLocation();
+      assertNotNull(location);
+      assertEquals(1, location.getLineNumber());
+      assertEquals("bar", nav.child());
+      location = nav.getLocation();
+      assertNotNull(location);
+      assertEquals(2, location.getLineNumber());
+   }
+
+   public void testConversionLocation()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<foo>\n  <bar>a</bar>\n</foo>");
+      assertEquals("bar", nav.child());
+      try
+      {
+         nav.parseContent(ValueType.INTEGER);
+         fail();
+      }
+      catch (TypeConversionException e)
+      {
+         assertNotNull(e.getLocation());
+         assertEquals(2, e.getLocation().getLineNumber());
+      }
+   }
+
+   public void testNoLocation()
+   {
+      StaxNavigatorOptions options = new StaxNavigatorOptions().setTrackLocation(false);
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader("<foo><bar>a</bar></foo>"), options);
+      assertNull(nav.getLocation());
+      assertEquals("bar", nav.child());
+      assertNull(nav.getLocation());
+      try
+      {
+         nav.parseContent(ValueType.INTEGER);
+         fail();
+      }
+      catch (TypeConversionException e)
+      {
+         assertNull(e.getLocation());
+      }
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class MappedFileTestCase extends AbstractXMLTestCase
+{
+
+   /** . */
+   private File file;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><records>");
+      for (int i = 0;i < 100;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\">\u00e9").append(i).append("</record>");
+      }
+      sb.append("</records>");
+      file = File.createTempFile("staxnav", ".xml");
+      FileOutputStream out = new FileOutputStream(file);
+      try
+      {
+         out.write(sb.toString().getBytes("UTF-8"));
+      }
+      finally
+      {
+         out.close();
+      }
+   }
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      file.delete();
+   }
+
+   private void assertRecords(StaxNavigator<String> nav)
+   {
+      assertEquals("records", nav.getName());
+      assertEquals("record", nav.child());
+      for (int i = 0;i < 100;i++)
+      {
+         assertEquals("" + i, nav.getAttribute("id"));
+         assertEquals("\u00e9" + i, nav.getContent());
+         assertEquals(i < 99 ? "record" : null, nav.sibling());
+      }
+   }
+
+   public void testPath()
+   {
+      assertRecords(StaxNavigatorFactory.create(new Naming.Local(), file.toPath()));
+   }
+
+   public void testChannel() throws IOException
+   {
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try
+      {
+         assertRecords(StaxNavigatorFactory.create(new Naming.Local(), raf.getChannel()));
+      }
+      finally
+      {
+         raf.close();
+      }
+   }
+
+   public void testWindows() throws IOException
+   {
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try
+      {
+         FileChannel channel = raf.getChannel();
+         assertRecords(StaxNavigatorFactory.create(new Naming.Local(), new MappedInputStream(channel, 0, 7)));
+
+         //
+         InputStream in = new MappedInputStream(channel, 3, 5);
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         byte[] buffer = new byte[4];
+         for (int length = in.read(buffer);length != -1;length = in.read(buffer))
+         {
+            bytes.write(buffer, 0, length);
+         }
+         assertEquals(channel.size() - 3, bytes.size());
+         assertTrue(new String(bytes.toByteArray(), "UTF-8").startsWith("ml version"));
+      }
+      finally
+      {
+         raf.close();
+      }
+   }
+
+   public void testMissingFile()
+   {
+      try
+      {
+         StaxNavigatorFactory.create(new Naming.Local(), new File(file.getParentFile(), "missing-" + file.getName()).toPath());
+         fail();
+      }
+      catch (StaxNavException e)
+      {
+         assertTrue(e.getCause() instanceof IOException);
+      }
+   }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.staxnav;
+
+import javax.xml.namespace.QName;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class NamingTestCase extends AbstractXMLTestCase
+{
+
+   private static class CountingNaming extends Naming.Local
+   {
+
+      /** . */
+      private int count = 0;
+
+      /** . */
+      private int qualifiedCount = 0;
+
+      @Override
+      public String getName(String uri, String prefix, String localPart)
+      {
+         count++;
+         return super.getName(uri, prefix, localPart);
+      }
+
+      @Override
+      public String getName(QName name)
+      {
+         qualifiedCount++;
+         return super.getName(name);
+      }
+   }
+
+   public void testResolveNameParts()
+   {
+      CountingNaming naming = new CountingNaming();
+      StaxNavigator<String> nav = navigator(naming, "<foo xmlns=\"a\"><b:bar xmlns:b=\"b\"/><juu/></foo>");
+      assertEquals("foo", nav.getName());
+      assertEquals("bar", nav.next());
+      assertEquals("juu", nav.next());
+      assertEquals(3, naming.count);
+      assertEquals(0, naming.qualifiedCount);
+   }
+
+   public void testQualifiedName()
+   {
+      StaxNavigator<QName> nav = navigator(new Naming.Qualified(), "<foo xmlns=\"a\"><b:bar xmlns:b=\"b\"/><juu/></foo>");
+      assertEquals(new QName("a", "foo"), nav.getName());
+      assertSame(nav.getName(), nav.getQName());
+      assertEquals("bar", nav.next().getLocalPart());
+      assertEquals(new QName("b", "bar", "b"), nav.getQName());
+      assertEquals("b", nav.getQName().getPrefix());
+      assertSame(nav.getName(), nav.getQName());
+      assertEquals(new QName("a", "juu"), nav.next());
+      assertEquals("", nav.getQName().getPrefix());
+   }
+
+   public void testResolveOnce()
+   {
+      CountingNaming naming = new CountingNaming();
+      StaxNavigator<String> nav = navigator(naming, "<foo><a/><b/><c/><d/></foo>");
+      assertEquals("foo", nav.getName());
+      assertEquals(1, naming.count);
+      assertTrue(nav.child("d"));
+      assertEquals(5, naming.count);
+      assertEquals("d", nav.getName());
+      assertFalse(nav.sibling("a"));
+      assertEquals(5, naming.count);
+   }
+
+   public void testResolveOnceWithForks()
+   {
+      CountingNaming naming = new CountingNaming();
+      StaxNavigator<String> nav = navigator(naming, "<foo><bar><a/><b/></bar><bar><a/><b/></bar></foo>");
+      assertEquals("bar", nav.child());
+      for (StaxNavigator<String> fork : nav.fork("bar"))
+      {
+         assertTrue(fork.child("b"));
+         assertTrue(fork.fork().getName().equals("b"));
+      }
+      assertEquals(6, naming.count);
+   }
+
+   private static enum Colliding implements EnumElement<Colliding>
+   {
+      AA("Aa"), BB("BB"), C("c"), DUPLICATE("c"), NO_SUCH_ELEMENT(null);
+
+      /** . */
+      private final String localName;
+
+      Colliding(String localName)
+      {
+         this.localName = localName;
+      }
+
+      public String getLocalName()
+      {
+         return localName;
+      }
+   }
+
+   private static enum Word
+   {
+      A, B, FOO, BAR, FOO_BAR, JUU, NO_SUCH_ELEMENT
+   }
+
+   public void testMappedLookup()
+   {
+      Naming<Colliding> naming = new Naming.Enumerated.Mapped<Colliding>(Colliding.class, Colliding.NO_SUCH_ELEMENT);
+      assertEquals("Aa".hashCode(), "BB".hashCode());
+      assertEquals(Colliding.AA, naming.getName(null, null, "Aa"));
+      assertEquals(Colliding.BB, naming.getName(null, null, "BB"));
+      assertEquals(Colliding.C, naming.getName(null, null, "c"));
+      assertEquals(Colliding.NO_SUCH_ELEMENT, naming.getName(null, null, "d"));
+      assertEquals(Colliding.NO_SUCH_ELEMENT, naming.getName(null, null, ""));
+   }
+
+   public void testSimpleLookup()
+   {
+      Naming<Word> naming = new Naming.Enumerated.Simple<Word>(Word.class, Word.NO_SUCH_ELEMENT);
+      for (Word word : Word.values())
+      {
+         assertEquals(word, naming.getName(null, null, word.name().toLowerCase().replace('_', '-')));
+      }
+      assertEquals(Word.NO_SUCH_ELEMENT, naming.getName(null, null, "foo_bar"));
+      assertEquals(Word.NO_SUCH_ELEMENT, naming.getName(null, null, "FOO"));
+      assertEquals(Word.NO_SUCH_ELEMENT, naming.getName(new QName("foo-bar-juu")));
+   }
+}
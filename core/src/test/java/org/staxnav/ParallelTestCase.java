@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class ParallelTestCase extends AbstractXMLTestCase
+{
+
+   /** . */
+   private ExecutorService executor;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      executor = Executors.newFixedThreadPool(4);
+   }
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      executor.shutdownNow();
+   }
+
+   private StaxNavigator<String> navigator(String document, StaxNavigatorOptions options)
+   {
+      return StaxNavigatorFactory.create(new Naming.Local(), new StringReader(document), options);
+   }
+
+   private String records(int size)
+   {
+      StringBuilder sb = new StringBuilder("<records xmlns:ns=\"foo\">");
+      for (int i = 0;i < size;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\"><name>name").append(i).append("</name><value>").append(i).append("</value></record>");
+      }
+      return sb.append("</records>").toString();
+   }
+
+   private static final ForkTask<String, String> VALUE = new ForkTask<String, String>()
+   {
+      public String execute(StaxNavigator<String> navigator) throws Exception
+      {
+         String id = navigator.getAttribute("id");
+         assertEquals("foo", navigator.getNamespaceByPrefix("ns"));
+         assertEquals("name", navigator.next());
+         assertEquals("name" + id, navigator.getContent());
+         assertEquals("value", navigator.next());
+         assertNull(navigator.next());
+         assertNull(navigator.sibling());
+         return navigator.getContent();
+      }
+   };
+
+   public void testOrdered()
+   {
+      StaxNavigator<String> nav = navigator(records(100), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      int count = 0;
+      for (String value : nav.forkParallel("record", executor, VALUE, true))
+      {
+         assertEquals("" + count++, value);
+      }
+      assertEquals(100, count);
+      assertEquals("99", nav.getAttribute("id"));
+   }
+
+   public void testUnordered()
+   {
+      StaxNavigator<String> nav = navigator(records(100), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      Set<String> values = new HashSet<String>();
+      for (String value : nav.forkParallel("record", executor, VALUE, false))
+      {
+         assertTrue(values.add(value));
+      }
+      assertEquals(100, values.size());
+   }
+
+   public void testCursorSkipContent()
+   {
+      StaxNavigator<String> nav = navigator(records(100), new StaxNavigatorOptions().setCursor(true).setSkipContent(true));
+      assertEquals("record", nav.child());
+      int count = 0;
+      for (String value : nav.forkParallel("record", executor, VALUE, true))
+      {
+         assertEquals("" + count++, value);
+      }
+      assertEquals(100, count);
+   }
+
+   public void testFailure()
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      final Exception failure = new Exception();
+      ForkTask<String, String> task = new ForkTask<String, String>()
+      {
+         public String execute(StaxNavigator<String> navigator) throws Exception
+         {
+            throw failure;
+         }
+      };
+      try
+      {
+         nav.forkParallel("record", executor, task, true).iterator().next();
+         fail();
+      }
+      catch (StaxNavException e)
+      {
+         assertSame(failure, e.getCause());
+      }
+   }
+
+   public void testNoMatch()
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      assertFalse(nav.forkParallel("foo", executor, VALUE, true).iterator().hasNext());
+      assertEquals("0", nav.getAttribute("id"));
+   }
+}
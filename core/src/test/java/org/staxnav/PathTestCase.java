@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class PathTestCase extends AbstractXMLTestCase
+{
+
+   /** . */
+   private static final String CATALOG =
+      "<catalog>" +
+      "<book id=\"1\" lang=\"en\"><title>Dune</title><author>Herbert</author></book>" +
+      "<book id=\"2\" lang=\"fr\"><title>Candide</title><author>Voltaire</author></book>" +
+      "<magazine id=\"3\"><title>Wired</title></magazine>" +
+      "<book id=\"4\" lang=\"en\"><title>Emma</title><author>Austen</author></book>" +
+      "</catalog>";
+
+   /**
+    * Counts the elements read by the navigator.
+    */
+   private static class CountingReader extends StreamReaderDelegate
+   {
+
+      /** . */
+      private int count;
+
+      private CountingReader(XMLStreamReader reader)
+      {
+         super(reader);
+      }
+
+      @Override
+      public int getAttributeCount()
+      {
+         count++;
+         return super.getAttributeCount();
+      }
+   }
+
+   private <V> List<V> select(StaxNavigator<String> nav, String expression, ValueType<V> valueType)
+   {
+      List<V> values = new ArrayList<V>();
+      for (V value : nav.select(PathExpression.compile(nav.getNaming(), expression), valueType))
+      {
+         values.add(value);
+      }
+      return values;
+   }
+
+   public void testAbsolute()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList("Dune", "Candide", "Emma"), select(nav, "/catalog/book/title", ValueType.STRING));
+   }
+
+   public void testAbsoluteRootMismatch()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Collections.emptyList(), select(nav, "/book/title", ValueType.STRING));
+   }
+
+   public void testRelative()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList("Dune", "Candide", "Emma"), select(nav, "book/title", ValueType.STRING));
+   }
+
+   public void testPredicate()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList("Dune", "Emma"), select(nav, "/catalog/book[@lang='en']/title", ValueType.STRING));
+      nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList("Dune", "Candide", "Emma"), select(nav, "/catalog/*[@lang]/title", ValueType.STRING));
+      nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList("Candide"), select(nav, "book[@lang=\"fr\"][@id='2']/title", ValueType.STRING));
+   }
+
+   public void testWildcard()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList("Dune", "Candide", "Wired", "Emma"), select(nav, "/catalog/*/title", ValueType.STRING));
+   }
+
+   public void testDescendant()
+   {
+      String document = "<a><title>1</title><b><title>2</title><c><title>3</title></c></b><title>4</title></a>";
+      assertEquals(Arrays.asList("1", "2", "3", "4"), select(navigator(new Naming.Local(), document), "//title", ValueType.STRING));
+      assertEquals(Arrays.asList("2", "3"), select(navigator(new Naming.Local(), document), "/a/b//title", ValueType.STRING));
+      assertEquals(Arrays.asList("3"), select(navigator(new Naming.Local(), document), "b//c/title", ValueType.STRING));
+      assertEquals(Arrays.asList("b"), select(navigator(new Naming.Local(), "<a>a<a x=\"\">b</a></a>"), "//a[@x]", ValueType.STRING));
+   }
+
+   public void testNestedMatches()
+   {
+      String document = "<a><item id=\"1\"><item id=\"2\"/></item><item id=\"3\"/></a>";
+      assertEquals(Arrays.asList("1", "2", "3"), select(navigator(new Naming.Local(), document), "//item/@id", ValueType.STRING));
+   }
+
+   public void testAttribute()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList(1, 2, 4), select(nav, "/catalog/book/@id", ValueType.INTEGER));
+      nav = navigator(new Naming.Local(), CATALOG);
+      assertEquals(Arrays.asList("en", "fr", "en"), select(nav, "*/@lang", ValueType.STRING));
+   }
+
+   public void testFork()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      List<String> authors = new ArrayList<String>();
+      for (StaxNavigator<String> fork : nav.fork(PathExpression.compile(nav.getNaming(), "/catalog/book[@lang='en']")))
+      {
+         assertEquals("book", fork.getName());
+         assertTrue(fork.child("author"));
+         authors.add(fork.getContent());
+         assertNull(fork.sibling());
+      }
+      assertEquals(Arrays.asList("Herbert", "Austen"), authors);
+   }
+
+   public void testForkFromCurrent()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      assertTrue(nav.child("magazine"));
+      assertEquals(Arrays.asList("Wired"), select(nav, "title", ValueType.STRING));
+   }
+
+   public void testForkAttributePath()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      try
+      {
+         nav.fork(PathExpression.compile(nav.getNaming(), "/catalog/book/@id"));
+         fail();
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+   }
+
+   public void testQualified()
+   {
+      String document = "<a:root xmlns:a=\"urn:a\" xmlns:b=\"urn:b\"><a:item>1</a:item><b:item>2</b:item><a:item b:id=\"3\">3</a:item></a:root>";
+      Naming.Qualified naming = new Naming.Qualified();
+      PathExpression<QName> path = PathExpression.compile(naming, "/x:root/x:item", Collections.singletonMap("x", "urn:a"));
+      List<String> values = new ArrayList<String>();
+      for (String value : navigator(naming, document).select(path, ValueType.STRING))
+      {
+         values.add(value);
+      }
+      assertEquals(Arrays.asList("1", "3"), values);
+      path = PathExpression.compile(naming, "item[@y:id='3']", Collections.singletonMap("y", "urn:b"));
+      assertFalse(navigator(naming, document).select(path, ValueType.STRING).iterator().hasNext());
+      path = PathExpression.compile(naming, "item", Collections.singletonMap("", "urn:b"));
+      assertEquals("2", navigator(naming, document).select(path, ValueType.STRING).iterator().next());
+   }
+
+   public void testEnumerated()
+   {
+      Naming.Enumerated.Simple<SampleName> naming = new Naming.Enumerated.Simple<SampleName>(SampleName.class, null);
+      try
+      {
+         PathExpression.compile(naming, "/foo/unknown");
+         fail();
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+   }
+
+   public void testSkipSubtrees() throws Exception
+   {
+      StringBuilder sb = new StringBuilder("<records>");
+      for (int i = 0;i < 10;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\">");
+         sb.append("<payload><a>a</a><b><c>c</c></b></payload>");
+         sb.append("<value>").append(i).append("</value>");
+         sb.append("</record>");
+      }
+      sb.append("</records>");
+      CountingReader reader = new CountingReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(sb.toString())));
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), reader, new StaxNavigatorOptions().setSkipSubtrees(true));
+      List<Integer> values = select(nav, "/records/record/value", ValueType.INTEGER);
+      assertEquals(10, values.size());
+      assertEquals(31, reader.count);
+   }
+
+   public void testCursor()
+   {
+      StringBuilder sb = new StringBuilder("<records>");
+      for (int i = 0;i < 100;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\"><name>name").append(i).append("</name></record>");
+      }
+      sb.append("</records>");
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader(sb.toString()), new StaxNavigatorOptions().setCursor(true));
+      int count = 0;
+      for (StaxNavigator<String> fork : nav.fork(PathExpression.compile(nav.getNaming(), "record")))
+      {
+         assertEquals("" + count, fork.getAttribute("id"));
+         assertTrue(fork.child("name"));
+         assertEquals("name" + count, fork.getContent());
+         count++;
+      }
+      assertEquals(100, count);
+   }
+
+   public void testIndexed()
+   {
+      StaxNavigator<String> nav = StaxNavigatorFactory.create(new Naming.Local(), new StringReader(CATALOG), new StaxNavigatorOptions().setIndexed(true));
+      assertEquals(Arrays.asList("Dune", "Emma"), select(nav, "//book[@lang='en']/title", ValueType.STRING));
+   }
+
+   public void testIterateOnce()
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), CATALOG);
+      Iterable<String> values = nav.select(PathExpression.compile(nav.getNaming(), "book/title"), ValueType.STRING);
+      values.iterator();
+      try
+      {
+         values.iterator();
+         fail();
+      }
+      catch (IllegalStateException expected)
+      {
+      }
+   }
+
+   public void testInvalid()
+   {
+      String[] expressions = {"", "/", "a/", "a//", "a[", "a[@b", "a[b]", "a[@b=c]", "a[@b='c']x", "@a", "a//@b", "a/@b/c", "x:a", "a b"};
+      for (String expression : expressions)
+      {
+         try
+         {
+            PathExpression.compile(new Naming.Local(), expression);
+            fail("Was expecting " + expression + " to be invalid");
+         }
+         catch (IllegalArgumentException expected)
+         {
+         }
+      }
+   }
+}
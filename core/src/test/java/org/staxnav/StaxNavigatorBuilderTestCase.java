@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+import javax.xml.namespace.QName;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class StaxNavigatorBuilderTestCase extends AbstractXMLTestCase
+{
+
+   public void testLocalNamespaceUnaware()
+   {
+      StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local());
+      StaxNavigator<String> nav = builder.build(new StringReader("<root><a/><b>foo</b></root>"));
+      assertEquals("root", nav.getName());
+      assertEquals("a", nav.child());
+      assertEquals("b", nav.sibling());
+      assertEquals("foo", nav.getContent());
+
+      //
+      nav = builder.build(new StringReader("<ns:root xmlns:ns=\"bar\"/>"));
+      assertEquals("ns:root", nav.getName());
+      assertNull(nav.getNamespaceByPrefix("ns"));
+   }
+
+   public void testLocalNamespaceAware()
+   {
+      StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local()).setNamespaceAware(true);
+      StaxNavigator<String> nav = builder.build(new StringReader("<ns:root xmlns:ns=\"bar\"/>"));
+      assertEquals("root", nav.getName());
+      assertEquals("bar", nav.getNamespaceByPrefix("ns"));
+   }
+
+   public void testQualifiedNamespaceAware()
+   {
+      StaxNavigatorBuilder<QName> builder = new StaxNavigatorBuilder<QName>(new Naming.Qualified());
+      StaxNavigator<QName> nav = builder.build(new StringReader("<ns:root xmlns:ns=\"bar\"/>"));
+      assertEquals(new QName("bar", "root"), nav.getName());
+   }
+
+   public void testDTD()
+   {
+      String document = "<!DOCTYPE root [<!ENTITY foo \"bar\">]><root>&foo;</root>";
+      StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local());
+      try
+      {
+         builder.build(new StringReader(document)).getContent();
+         fail();
+      }
+      catch (StaxNavException ignore)
+      {
+      }
+
+      //
+      builder.setSupportDTD(true);
+      assertEquals("bar", builder.build(new StringReader(document)).getContent());
+   }
+
+   public void testCoalescing()
+   {
+      StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local()).setCoalescing(true);
+      assertEquals("foo<bar>juu", builder.build(new StringReader("<root>foo<![CDATA[<bar>]]>juu</root>")).getContent());
+   }
+
+   public void testBufferSize()
+   {
+      StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local()).setBufferSize(64);
+      assertEquals(64, builder.getBufferSize());
+      assertEquals("foo", builder.build(new StringReader("<root>foo</root>")).getContent());
+      try
+      {
+         builder.setBufferSize(-1);
+         fail();
+      }
+      catch (IllegalArgumentException ignore)
+      {
+      }
+   }
+
+   public void testUnsupportedProperty()
+   {
+      StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local()).setProperty("foo", "bar");
+      assertEquals("bar", builder.getProperty("foo"));
+      try
+      {
+         builder.build(new StringReader("<root/>"));
+         fail();
+      }
+      catch (StaxNavException ignore)
+      {
+      }
+      builder.setProperty("foo", null);
+      assertEquals("root", builder.build(new StringReader("<root/>")).getName());
+   }
+
+   public void testOptions()
+   {
+      StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local());
+      builder.setOptions(new StaxNavigatorOptions().setTrackLocation(false));
+      assertNull(builder.build(new StringReader("<root/>")).getLocation());
+   }
+
+   public void testConcurrent() throws Exception
+   {
+      final StaxNavigatorBuilder<String> builder = new StaxNavigatorBuilder<String>(new Naming.Local());
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+         for (int i = 0;i < 100;i++)
+         {
+            final int value = i;
+            futures.add(executor.submit(new Callable<Integer>()
+            {
+               public Integer call() throws Exception
+               {
+                  StaxNavigator<String> nav = builder.build(new StringReader("<root><value>" + value + "</value></root>"));
+                  assertEquals("value", nav.child());
+                  return Integer.parseInt(nav.getContent());
+               }
+            }));
+         }
+         for (int i = 0;i < 100;i++)
+         {
+            assertEquals(i, (int)futures.get(i).get());
+         }
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+}
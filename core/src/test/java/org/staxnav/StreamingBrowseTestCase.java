@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class StreamingBrowseTestCase extends LocalBrowseTestCase
+{
+
+   @Override
+   protected StaxNavigatorOptions getOptions()
+   {
+      return new StaxNavigatorOptions().setStreaming(true);
+   }
+
+   /**
+    * The text of the elements passed over by the failed navigation is not retained.
+    */
+   @Override
+   public void testsiblingWithNameEOF() throws Exception
+   {
+      assertNameEquals("foo1", navigator.getName());
+      assertEquals(true, navigator.child(createName("foo2")));
+      assertFalse(navigator.sibling(createName("donotexist")));
+      assertNameEquals("foo2", navigator.getName());
+      assertEquals(true, navigator.sibling(createName("foobar1")));
+      assertNameEquals("foobar1", navigator.getName());
+      try
+      {
+         navigator.getContent();
+         fail();
+      }
+      catch (StaxNavException expected)
+      {
+      }
+      assertEquals(2, navigator.getDepth());
+      assertNameEquals("foobar2", navigator.sibling());
+   }
+}
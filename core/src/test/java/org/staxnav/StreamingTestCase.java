@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class StreamingTestCase extends AbstractXMLTestCase
+{
+
+   /**
+    * Generates a document of records as it is read, the document is never held in memory.
+    */
+   private static class RecordsReader extends Reader
+   {
+
+      /** . */
+      private final long size;
+
+      /** . */
+      private long index;
+
+      /** . */
+      private String chunk;
+
+      /** . */
+      private int position;
+
+      private RecordsReader(long size)
+      {
+         this.size = size;
+         this.index = -1;
+         this.chunk = "<records>";
+         this.position = 0;
+      }
+
+      @Override
+      public int read(char[] cbuf, int off, int len)
+      {
+         if (position == chunk.length())
+         {
+            if (index == size)
+            {
+               return -1;
+            }
+            else if (++index == size)
+            {
+               chunk = "</records>";
+            }
+            else
+            {
+               chunk = "<record id=\"" + index + "\"><name>name" + index + "</name><value>" + index + "</value></record>";
+            }
+            position = 0;
+         }
+         int n = Math.min(len, chunk.length() - position);
+         chunk.getChars(position, position + n, cbuf, off);
+         position += n;
+         return n;
+      }
+
+      @Override
+      public void close()
+      {
+      }
+   }
+
+   /**
+    * Generates a document with a single large text node as it is read, the text is never held in memory.
+    */
+   private static class TextReader extends Reader
+   {
+
+      /** . */
+      private long remaining;
+
+      /** . */
+      private String chunk;
+
+      /** . */
+      private int position;
+
+      private TextReader(long length)
+      {
+         this.remaining = length;
+         this.chunk = "<document><text>";
+         this.position = 0;
+      }
+
+      @Override
+      public int read(char[] cbuf, int off, int len)
+      {
+         if (position == chunk.length())
+         {
+            if (chunk.startsWith("</text>"))
+            {
+               return -1;
+            }
+            else if (remaining == 0)
+            {
+               chunk = "</text><value>value</value></document>";
+               position = 0;
+            }
+            else
+            {
+               int n = (int)Math.min(len, remaining);
+               Arrays.fill(cbuf, off, off + n, 'a');
+               remaining -= n;
+               return n;
+            }
+         }
+         int n = Math.min(len, chunk.length() - position);
+         chunk.getChars(position, position + n, cbuf, off);
+         position += n;
+         return n;
+      }
+
+      @Override
+      public void close()
+      {
+      }
+   }
+
+   private StaxNavigator<String> streaming(Reader reader)
+   {
+      return StaxNavigatorFactory.create(new Naming.Local(), reader, new StaxNavigatorOptions().setStreaming(true));
+   }
+
+   private static long usedMemory()
+   {
+      Runtime runtime = Runtime.getRuntime();
+      for (int i = 0;i < 3;i++)
+      {
+         System.gc();
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+
+   public void testNavigate()
+   {
+      StaxNavigator<String> nav = streaming(new RecordsReader(100));
+      assertEquals("record", nav.child());
+      for (int i = 0;i < 100;i++)
+      {
+         assertEquals("" + i, nav.getAttribute("id"));
+         assertTrue(nav.child("value"));
+         assertEquals("" + i, nav.getContent());
+         assertEquals(i < 99, nav.navigate(Axis.FOLLOWING, "record"));
+      }
+   }
+
+   public void testForkInvalidated()
+   {
+      StaxNavigator<String> nav = streaming(new RecordsReader(10));
+      assertEquals("record", nav.child());
+      StaxNavigator<String> fork = nav.fork();
+      assertEquals("name", fork.next());
+      assertEquals("name0", fork.getContent());
+      assertEquals("record", nav.sibling());
+      try
+      {
+         fork.getName();
+         fail();
+      }
+      catch (StaxNavException expected)
+      {
+      }
+      try
+      {
+         fork.next();
+         fail();
+      }
+      catch (StaxNavException expected)
+      {
+      }
+      assertEquals("1", nav.getAttribute("id"));
+   }
+
+   public void testForkInvalidatedBinaryContent() throws Exception
+   {
+      StaxNavigator<String> nav = streaming(new StringReader("<records><record><data>AAEC</data></record><record><data>AwQF</data></record></records>"));
+      assertEquals("record", nav.child());
+      StaxNavigator<String> fork = nav.fork();
+      assertEquals("data", fork.child());
+      assertEquals("record", nav.sibling());
+      assertEquals("data", nav.child());
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try
+      {
+         fork.readBinaryContent(out);
+         fail();
+      }
+      catch (StaxNavException expected)
+      {
+      }
+      assertEquals(0, out.size());
+      assertEquals(3, nav.readBinaryContent(out));
+   }
+
+   public void testForkValidInScope()
+   {
+      StaxNavigator<String> nav = streaming(new RecordsReader(10));
+      assertEquals("record", nav.child());
+      StaxNavigator<String> fork = nav.fork();
+      assertEquals("name", nav.next());
+      assertEquals("record", fork.getName());
+      assertEquals("name", fork.next());
+      assertEquals("value", fork.next());
+      assertEquals("0", fork.getContent());
+      assertNull(fork.next());
+   }
+
+   public void testNamedForks()
+   {
+      StaxNavigator<String> nav = streaming(new RecordsReader(100));
+      assertEquals("record", nav.child());
+      List<StaxNavigator<String>> forks = new ArrayList<StaxNavigator<String>>();
+      int count = 0;
+      for (StaxNavigator<String> fork : nav.fork("record"))
+      {
+         assertEquals("" + count, fork.getAttribute("id"));
+         assertTrue(fork.child("value"));
+         assertEquals("" + count++, fork.getContent());
+         forks.add(fork);
+      }
+      assertEquals(100, count);
+      for (StaxNavigator<String> fork : forks.subList(0, 99))
+      {
+         try
+         {
+            fork.getContent();
+            fail();
+         }
+         catch (StaxNavException expected)
+         {
+         }
+      }
+   }
+
+   public void testParser()
+   {
+      StaxNavigator<String> nav = streaming(new RecordsReader(100));
+      assertEquals("record", nav.child());
+      final List<String> values = new ArrayList<String>();
+      assertEquals(100, nav.fork("record", new Parser<String>()
+      {
+         public void parse(StaxNavigator<String> navigator) throws Exception
+         {
+            assertTrue(navigator.child("value"));
+            values.add(navigator.getContent());
+         }
+      }));
+      assertEquals("99", values.get(99));
+   }
+
+   public void testPath()
+   {
+      StaxNavigator<String> nav = streaming(new StringReader("<a><b><c>1</c></b><b><c>2</c><c>3</c></b></a>"));
+      List<String> values = new ArrayList<String>();
+      for (StaxNavigator<String> fork : nav.fork(PathExpression.compile(nav.getNaming(), "/a/b/c")))
+      {
+         values.add(fork.getContent());
+      }
+      assertEquals(Arrays.asList("1", "2", "3"), values);
+   }
+
+   /**
+    * Navigates a generated document while a fork of the first record is still referenced, the heap used must remain
+    * flat. The number of records can be raised with the <code>staxnav.streaming.records</code> system property, for
+    * instance 50000000 records generate a document of about 5 GB.
+    */
+   public void testForkFollowingSibling()
+   {
+      StaxNavigator<String> nav = streaming(new StringReader("<r><d><e>e</e></d><a/></r>"));
+      assertTrue(nav.find("d"));
+      StaxNavigator<String> fork = nav.fork(Axis.FOLLOWING_SIBLING);
+      assertEquals("a", nav.getName());
+      assertEquals("d", fork.getName());
+      assertEquals("e", fork.child());
+      assertEquals("e", fork.getContent());
+      assertNull(fork.next());
+      assertNull(nav.sibling());
+   }
+
+   public void testForkNext()
+   {
+      StaxNavigator<String> nav = streaming(new StringReader("<r><d>d</d><a><b/></a></r>"));
+      assertTrue(nav.find("d"));
+      StaxNavigator<String> fork = nav.fork(Axis.NEXT);
+      assertEquals("a", nav.getName());
+      assertEquals("d", fork.getName());
+      assertEquals("d", fork.getContent());
+      assertNull(fork.next());
+      fork = nav.fork(Axis.NEXT);
+      assertEquals("b", nav.getName());
+      assertEquals("a", fork.getName());
+      assertEquals("b", fork.next());
+   }
+
+   public void testPassOverLargeText()
+   {
+      long length = Long.getLong("staxnav.streaming.text", 256 * 1024 * 1024);
+      long before = usedMemory();
+      StaxNavigator<String> nav = streaming(new TextReader(length));
+      assertTrue(nav.child("value"));
+      long used = usedMemory() - before;
+      assertEquals("value", nav.getContent());
+      assertTrue("Heap grew by " + used + " bytes", used < 16 * 1024 * 1024);
+   }
+
+   public void testConstantMemory()
+   {
+      long size = Long.getLong("staxnav.streaming.records", 200000);
+      StaxNavigator<String> nav = streaming(new RecordsReader(size));
+      assertEquals("record", nav.child());
+      StaxNavigator<String> first = nav.fork();
+      long checkpoint = Math.max(1, size / 5);
+      long min = Long.MAX_VALUE;
+      long max = 0;
+      long count = 0;
+      do
+      {
+         assertTrue(nav.child("value"));
+         assertEquals(count, nav.parseLongContent());
+         if (++count % checkpoint == 0)
+         {
+            long used = usedMemory();
+            min = Math.min(min, used);
+            max = Math.max(max, used);
+         }
+      }
+      while (nav.navigate(Axis.FOLLOWING, "record"));
+      assertEquals(size, count);
+      assertTrue("Heap grew by " + (max - min) + " bytes", max - min < 8 * 1024 * 1024);
+      try
+      {
+         first.getAttribute("id");
+         fail();
+      }
+      catch (StaxNavException expected)
+      {
+      }
+   }
+}
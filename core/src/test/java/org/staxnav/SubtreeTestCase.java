@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.StringReader;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class SubtreeTestCase extends AbstractXMLTestCase
+{
+
+   /**
+    * Counts the elements read by the navigator.
+    */
+   private static class CountingReader extends StreamReaderDelegate
+   {
+
+      /** . */
+      private int count;
+
+      private CountingReader(XMLStreamReader reader)
+      {
+         super(reader);
+      }
+
+      @Override
+      public int getAttributeCount()
+      {
+         count++;
+         return super.getAttributeCount();
+      }
+   }
+
+   /** . */
+   private CountingReader reader;
+
+   private StaxNavigator<String> navigator(String document, StaxNavigatorOptions options) throws XMLStreamException
+   {
+      reader = new CountingReader(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(document)));
+      return StaxNavigatorFactory.create(new Naming.Local(), reader, options.setSkipSubtrees(true));
+   }
+
+   private String records(int size)
+   {
+      StringBuilder sb = new StringBuilder("<records>");
+      for (int i = 0;i < size;i++)
+      {
+         sb.append("<record id=\"").append(i).append("\">");
+         sb.append("<payload><a>a</a><b><c>c</c></b></payload>");
+         sb.append("<value>").append(i).append("</value>");
+         sb.append("</record>");
+      }
+      return sb.append("</records>").toString();
+   }
+
+   public void testSibling() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      for (int i = 1;i < 10;i++)
+      {
+         assertEquals("record", nav.sibling());
+         assertEquals("" + i, nav.getAttribute("id"));
+      }
+      assertNull(nav.sibling());
+      assertEquals(11, reader.count);
+   }
+
+   public void testNamedSibling() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<root><a><c/></a><b><c/></b><d>d</d></root>", new StaxNavigatorOptions());
+      assertEquals("a", nav.child());
+      assertTrue(nav.sibling("d"));
+      assertEquals("d", nav.getContent());
+      assertEquals(4, reader.count);
+   }
+
+   public void testChild() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      for (int i = 0;i < 10;i++)
+      {
+         assertTrue(nav.child("value"));
+         assertEquals("" + i, nav.getContent());
+         assertEquals(i < 9, nav.navigate(Axis.FOLLOWING, "record"));
+      }
+      assertEquals(31, reader.count);
+   }
+
+   public void testSkipContent() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions().setSkipContent(true));
+      assertEquals("record", nav.child());
+      for (int i = 0;i < 10;i++)
+      {
+         assertTrue(nav.child("value"));
+         assertEquals("" + i, nav.getContent());
+         assertEquals(i < 9, nav.navigate(Axis.FOLLOWING, "record"));
+      }
+      assertEquals(31, reader.count);
+   }
+
+   public void testCursor() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions().setCursor(true));
+      assertEquals("record", nav.child());
+      for (int i = 0;i < 10;i++)
+      {
+         assertEquals("" + i, nav.getAttribute("id"));
+         assertTrue(nav.child("value"));
+         assertEquals("" + i, nav.getContent());
+         assertEquals(i < 9, nav.navigate(Axis.FOLLOWING, "record"));
+      }
+      assertEquals(31, reader.count);
+   }
+
+   public void testForkIsNotSkipped() throws Exception
+   {
+      StaxNavigator<String> nav = navigator(records(10), new StaxNavigatorOptions());
+      assertEquals("record", nav.child());
+      int count = 0;
+      for (StaxNavigator<String> fork : nav.fork("record"))
+      {
+         assertEquals("payload", fork.child());
+         assertEquals("a", fork.child());
+         assertEquals("a", fork.getContent());
+         assertTrue(fork.next("b"));
+         assertEquals("c", fork.next());
+         assertTrue(fork.navigate(Axis.FOLLOWING, "value"));
+         assertEquals("" + count++, fork.getContent());
+      }
+      assertEquals(10, count);
+   }
+
+   public void testCurrentContentIsRetained() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<root><a>foo</a><b/></root>", new StaxNavigatorOptions().setSkipContent(true));
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("c"));
+      assertEquals("a", nav.getName());
+      assertEquals("foo", nav.getContent());
+   }
+
+   public void testSkippedSubtree() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<root><a><b/></a><c/></root>", new StaxNavigatorOptions());
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("d"));
+      assertEquals("a", nav.getName());
+      try
+      {
+         nav.child();
+         fail();
+      }
+      catch (StaxNavException ignore)
+      {
+      }
+   }
+
+   public void testEmptySubtree() throws Exception
+   {
+      StaxNavigator<String> nav = navigator("<root><a/><b/></root>", new StaxNavigatorOptions());
+      assertEquals("a", nav.child());
+      assertFalse(nav.sibling("c"));
+      assertNull(nav.child());
+   }
+}
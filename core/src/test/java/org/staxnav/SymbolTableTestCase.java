@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.staxnav;
+
+import javax.xml.namespace.QName;
+import java.io.StringReader;
+import java.util.Map;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class SymbolTableTestCase extends AbstractXMLTestCase
+{
+
+   private StaxNavigator<String> navigator(SymbolTable symbols, String document)
+   {
+      StringReader reader = new StringReader(document);
+      return StaxNavigatorFactory.create(new Naming.Local(), reader, new StaxNavigatorOptions().setSymbolTable(symbols));
+   }
+
+   public void testCanonical()
+   {
+      SymbolTable symbols = new SymbolTable();
+      String foo = symbols.get(new String("foo"));
+      assertEquals("foo", foo);
+      assertSame("foo", foo);
+      assertSame(foo, symbols.get(new String("foo")));
+      assertEquals(1, symbols.getSize());
+      assertNull(symbols.get(null));
+   }
+
+   public void testBounded()
+   {
+      SymbolTable symbols = new SymbolTable(2);
+      assertEquals(2, symbols.getCapacity());
+      String a = symbols.get(new String("a"));
+      String b = symbols.get(new String("b"));
+      String c = new String("c");
+      assertSame(c, symbols.get(c));
+      assertNotSame(c, symbols.get(new String("c")));
+      assertSame(a, symbols.get(new String("a")));
+      assertSame(b, symbols.get(new String("b")));
+      assertEquals(2, symbols.getSize());
+   }
+
+   public void testNegativeCapacity()
+   {
+      try
+      {
+         new SymbolTable(-1);
+         fail();
+      }
+      catch (IllegalArgumentException ignore)
+      {
+      }
+   }
+
+   public void testSharedNames()
+   {
+      SymbolTable symbols = new SymbolTable();
+      String document = "<foo xmlns:ns=\"bar\"><ns:juu a=\"0\" ns:b=\"1\"/></foo>";
+      StaxNavigator<String> nav1 = navigator(symbols, document);
+      StaxNavigator<String> nav2 = navigator(symbols, document);
+      assertSame("foo", nav1.getName());
+      assertSame(nav1.getName(), nav2.getName());
+      assertSame(nav1.getNamespaceByPrefix("ns"), nav2.getNamespaceByPrefix("ns"));
+      assertEquals("juu", nav1.next());
+      assertEquals("juu", nav2.next());
+      assertSame(nav1.getName(), nav2.getName());
+      assertSame(nav1.getQName().getNamespaceURI(), nav2.getQName().getNamespaceURI());
+      assertSame(nav1.getQName().getPrefix(), nav2.getQName().getPrefix());
+      for (Map.Entry<QName, String> attribute : nav1.getQualifiedAttributes().entrySet())
+      {
+         QName name = attribute.getKey();
+         assertSame(name.getLocalPart(), symbols.get(name.getLocalPart()));
+         assertSame(name.getNamespaceURI(), symbols.get(name.getNamespaceURI()));
+      }
+      assertEquals("0", nav2.getAttribute("a"));
+      assertEquals("1", nav2.getAttribute(new QName("bar", "b")));
+   }
+}
@@ -32,14 +32,34 @@ public class TheTestSuite
    public static Test suite()
    {
       TestSuite suite = new TestSuite();
+      suite.addTest(new TestSuite(AttributeTestCase.class));
+      suite.addTest(new TestSuite(BinaryContentTestCase.class));
+      suite.addTest(new TestSuite(CaptureTestCase.class));
       suite.addTest(new TestSuite(ContentTestCase.class));
+      suite.addTest(new TestSuite(CursorBrowseTestCase.class));
+      suite.addTest(new TestSuite(CursorTestCase.class));
+      suite.addTest(new TestSuite(DispatcherTestCase.class));
       suite.addTest(new TestSuite(EncodedNamingTestCase.class));
+      suite.addTest(new TestSuite(ForkParserTestCase.class));
       suite.addTest(new TestSuite(GateInTestCase.class));
+      suite.addTest(new TestSuite(IndexedBrowseTestCase.class));
       suite.addTest(new TestSuite(LocalBrowseTestCase.class));
+      suite.addTest(new TestSuite(LocationTestCase.class));
+      suite.addTest(new TestSuite(MappedFileTestCase.class));
       suite.addTest(new TestSuite(MappedEnumeratedBrowseTestCase.class));
       suite.addTest(new TestSuite(NamespaceTestCase.class));
+      suite.addTest(new TestSuite(NamingTestCase.class));
+      suite.addTest(new TestSuite(ParallelTestCase.class));
+      suite.addTest(new TestSuite(PathTestCase.class));
       suite.addTest(new TestSuite(QualifiedBrowseTestCase.class));
       suite.addTest(new TestSuite(SimpleEnumeratedBrowseTestCase.class));
+      suite.addTest(new TestSuite(SkipContentBrowseTestCase.class));
+      suite.addTest(new TestSuite(StaxNavigatorBuilderTestCase.class));
+      suite.addTest(new TestSuite(StreamingBrowseTestCase.class));
+      suite.addTest(new TestSuite(StreamingTestCase.class));
+      suite.addTest(new TestSuite(SubtreeTestCase.class));
+      suite.addTest(new TestSuite(SymbolTableTestCase.class));
+      suite.addTest(new TestSuite(ValueTypeTestCase.class));
       return suite;
    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2010 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.staxnav;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ * @version $Revision$
+ */
+public class ValueTypeTestCase extends AbstractXMLTestCase
+{
+
+   private <V> V parse(ValueType<V> valueType, String value)
+   {
+      StaxNavigator<String> nav = navigator(new Naming.Local(), "<value>" + value + "</value>");
+      return nav.parseContent(valueType);
+   }
+
+   private void assertInvalid(ValueType<?> valueType, String value)
+   {
+      try
+      {
+         parse(valueType, value);
+         fail("Was expecting " + value + " to fail");
+      }
+      catch (TypeConversionException ignore)
+      {
+      }
+   }
+
+   public void testNumbers()
+   {
+      assertEquals((short)-32768, (short)parse(ValueType.SHORT, "-32768"));
+      assertInvalid(ValueType.SHORT, "32768");
+      assertEquals(12, (int)parse(ValueType.INTEGER, " 12 "));
+      assertEquals(Long.MAX_VALUE, (long)parse(ValueType.LONG, "9223372036854775807"));
+      assertInvalid(ValueType.LONG, "9223372036854775808");
+      assertEquals(1.5, parse(ValueType.DOUBLE, "1.5"));
+      assertEquals(Double.POSITIVE_INFINITY, parse(ValueType.DOUBLE, "INF"));
+      assertEquals(Double.NEGATIVE_INFINITY, parse(ValueType.DOUBLE, "-INF"));
+      assertTrue(Double.isNaN(parse(ValueType.DOUBLE, "NaN")));
+      assertInvalid(ValueType.DOUBLE, "inf");
+      assertEquals(new BigDecimal("123.4500"), parse(ValueType.DECIMAL, " 123.4500 "));
+      assertInvalid(ValueType.DECIMAL, "12a");
+   }
+
+   public void testBoolean()
+   {
+      assertEquals(Boolean.TRUE, parse(ValueType.BOOLEAN, "true"));
+      assertEquals(Boolean.TRUE, parse(ValueType.BOOLEAN, " TRUE "));
+      assertEquals(Boolean.FALSE, parse(ValueType.BOOLEAN, "false"));
+      assertEquals(Boolean.FALSE, parse(ValueType.BOOLEAN, "1"));
+      assertEquals(Boolean.FALSE, parse(ValueType.BOOLEAN, "yes"));
+   }
+
+   public void testLocalDate()
+   {
+      assertEquals(LocalDate.of(2011, 1, 31), parse(ValueType.LOCAL_DATE, "2011-01-31"));
+      assertEquals(LocalDate.of(2011, 1, 31), parse(ValueType.LOCAL_DATE, "2011-01-31Z"));
+      assertEquals(LocalDate.of(2011, 1, 31), parse(ValueType.LOCAL_DATE, "2011-01-31+05:30"));
+      assertEquals(LocalDate.of(-44, 3, 15), parse(ValueType.LOCAL_DATE, "-0044-03-15"));
+      assertEquals(LocalDate.of(12011, 1, 1), parse(ValueType.LOCAL_DATE, "12011-01-01"));
+      assertInvalid(ValueType.LOCAL_DATE, "2011-02-30");
+      assertInvalid(ValueType.LOCAL_DATE, "2011-1-31");
+      assertInvalid(ValueType.LOCAL_DATE, "211-01-31");
+      assertInvalid(ValueType.LOCAL_DATE, "02011-01-31");
+      assertInvalid(ValueType.LOCAL_DATE, "2011-01-31+15:00");
+      assertInvalid(ValueType.LOCAL_DATE, "2011-01-31T");
+   }
+
+   public void testLocalTime()
+   {
+      assertEquals(LocalTime.of(10, 20, 30), parse(ValueType.LOCAL_TIME, "10:20:30"));
+      assertEquals(LocalTime.of(10, 20, 30, 123000000), parse(ValueType.LOCAL_TIME, "10:20:30.123-02:00"));
+      assertEquals(LocalTime.of(10, 20, 30, 123456789), parse(ValueType.LOCAL_TIME, "10:20:30.1234567891"));
+      assertEquals(LocalTime.MIDNIGHT, parse(ValueType.LOCAL_TIME, "24:00:00"));
+      assertInvalid(ValueType.LOCAL_TIME, "24:00:01");
+      assertInvalid(ValueType.LOCAL_TIME, "10:60:00");
+      assertInvalid(ValueType.LOCAL_TIME, "10:20:30.");
+      assertInvalid(ValueType.LOCAL_TIME, "10:20");
+   }
+
+   public void testLocalDateTime()
+   {
+      assertEquals(LocalDateTime.of(2011, 1, 1, 10, 0), parse(ValueType.LOCAL_DATE_TIME, "2011-01-01T10:00:00"));
+      assertEquals(LocalDateTime.of(2011, 1, 1, 10, 0), parse(ValueType.LOCAL_DATE_TIME, "2011-01-01T10:00:00Z"));
+      assertEquals(LocalDateTime.of(2012, 1, 1, 0, 0), parse(ValueType.LOCAL_DATE_TIME, "2011-12-31T24:00:00"));
+      assertInvalid(ValueType.LOCAL_DATE_TIME, "2011-01-01 10:00:00");
+      assertInvalid(ValueType.LOCAL_DATE_TIME, "2011-01-01");
+   }
+
+   public void testOffsetDateTime()
+   {
+      assertEquals(
+         OffsetDateTime.of(2011, 1, 1, 10, 0, 0, 500000000, ZoneOffset.UTC),
+         parse(ValueType.OFFSET_DATE_TIME, "2011-01-01T10:00:00.5Z"));
+      assertEquals(
+         OffsetDateTime.of(2011, 1, 1, 10, 0, 0, 0, ZoneOffset.ofHoursMinutes(-9, -30)),
+         parse(ValueType.OFFSET_DATE_TIME, "2011-01-01T10:00:00-09:30"));
+      assertInvalid(ValueType.OFFSET_DATE_TIME, "2011-01-01T10:00:00");
+      assertInvalid(ValueType.OFFSET_DATE_TIME, "2011-01-01T10:00:00+0100");
+   }
+
+   public void testDate()
+   {
+      Date expected = Date.from(LocalDate.of(2011, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+      assertEquals(expected, parse(ValueType.DATE, "2011-01-01"));
+      expected = Date.from(LocalDate.of(2011, 1, 1).atStartOfDay(ZoneOffset.ofHours(2)).toInstant());
+      assertEquals(expected, parse(ValueType.DATE, "2011-01-01+02:00"));
+   }
+
+   public void testDateTime()
+   {
+      Date expected = Date.from(LocalDateTime.of(2011, 1, 1, 10, 0).atZone(ZoneId.systemDefault()).toInstant());
+      assertEquals(expected, parse(ValueType.DATE_TIME, "2011-01-01T10:00:00"));
+      expected = Date.from(LocalDateTime.of(2011, 1, 1, 10, 0).atOffset(ZoneOffset.UTC).toInstant());
+      assertEquals(expected, parse(ValueType.DATE_TIME, "2011-01-01T10:00:00Z"));
+   }
+
+   public void testDuration()
+   {
+      assertEquals(Duration.ofDays(1).plusHours(2).plusMinutes(3).plusSeconds(4), parse(ValueType.DURATION, "P1DT2H3M4S"));
+      assertEquals(Duration.ofMinutes(90), parse(ValueType.DURATION, "PT90M"));
+      assertEquals(Duration.ofMillis(-1500), parse(ValueType.DURATION, "-PT1.5S"));
+      assertEquals(Duration.ZERO, parse(ValueType.DURATION, "P0D"));
+      assertInvalid(ValueType.DURATION, "P1M");
+      assertInvalid(ValueType.DURATION, "P1Y");
+      assertInvalid(ValueType.DURATION, "P");
+      assertInvalid(ValueType.DURATION, "PT");
+      assertInvalid(ValueType.DURATION, "P1DT");
+      assertInvalid(ValueType.DURATION, "PT1S2M");
+      assertInvalid(ValueType.DURATION, "PT1.5M");
+      assertInvalid(ValueType.DURATION, "P1H");
+      assertInvalid(ValueType.DURATION, "1D");
+   }
+
+   public void testPeriod()
+   {
+      assertEquals(Period.of(1, 2, 3), parse(ValueType.PERIOD, "P1Y2M3D"));
+      assertEquals(Period.ofMonths(-18), parse(ValueType.PERIOD, "-P18M"));
+      assertEquals(Period.ofDays(3), parse(ValueType.PERIOD, "P3DT0H"));
+      assertInvalid(ValueType.PERIOD, "P1YT1H");
+      assertInvalid(ValueType.PERIOD, "P1D1Y");
+   }
+}